@@ -18,6 +18,7 @@ package org.spongepowered.configurate;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
 import com.google.common.reflect.TypeParameter;
 import com.google.common.reflect.TypeToken;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -25,14 +26,30 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spongepowered.configurate.objectmapping.ObjectMappingException;
 import org.spongepowered.configurate.objectmapping.serialize.TypeSerializer;
 import org.spongepowered.configurate.transformation.NodePath;
-
+import org.spongepowered.configurate.util.ThrowingConsumer;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
@@ -42,17 +59,48 @@ import static java.util.Objects.requireNonNull;
  */
 public abstract class AbstractConfigurationNode<T extends AbstractConfigurationNode<T>> implements ConfigurationNode<T> {
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<AbstractConfigurationNode> STRUCTURE_STAMP =
+            AtomicLongFieldUpdater.newUpdater(AbstractConfigurationNode.class, "structureStamp");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<AbstractConfigurationNode> FINGERPRINT_GENERATION =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractConfigurationNode.class, "fingerprintGeneration");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<AbstractConfigurationNode> CHILD_GENERATION =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractConfigurationNode.class, "childGeneration");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AbstractConfigurationNode, PendingCopy> PENDING_COPIES =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractConfigurationNode.class, PendingCopy.class, "pendingCopies");
+
     /**
      * The options determining the behaviour of this node
+     *
+     * Only changed by {@link #publish()}, while the tree is still confined to a single thread.
      */
     @NonNull
-    private final ConfigurationOptions options;
+    private ConfigurationOptions options;
 
     /**
-     * If this node is attached to a wider configuration structure
+     * If this node has been inserted into the value of its parent.
+     *
+     * When a node is detached, only the node itself is updated, so this remains set on its
+     * children. See {@link #isVirtual()}.
      */
     volatile boolean attached;
 
+    /**
+     * The {@link #childGeneration} of the parent at the time this node was attached.
+     */
+    private int parentGeneration;
+
+    /**
+     * A counter incremented whenever every current child of this node is detached at once.
+     *
+     * Children whose {@link #parentGeneration} no longer matches have been detached, which
+     * allows replacing a value with any number of children in constant time.
+     */
+    private volatile int childGeneration;
+
     /**
      * Path of this node.
      *
@@ -74,6 +122,39 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
     @NonNull
     volatile ConfigValue<T> value;
 
+    /**
+     * A counter incremented whenever a node is added to or removed from the tree.
+     *
+     * Only maintained on root nodes.
+     */
+    private volatile long structureStamp;
+
+    /**
+     * A counter incremented whenever the value of this node or any of its children changes.
+     */
+    private volatile int fingerprintGeneration;
+
+    /**
+     * The last computed fingerprint, which is valid while its generation is current.
+     */
+    @Nullable
+    private volatile Fingerprint fingerprint;
+
+    /**
+     * Listeners to changes anywhere in the tree.
+     *
+     * Only maintained on root nodes, and null until the first listener is registered.
+     */
+    @Nullable
+    private volatile ChangeListeners listeners;
+
+    /**
+     * Copy-on-write copies of this node which have not yet copied its children.
+     *
+     * Null unless this node has been copied with {@link ConfigurationOptions#isCopyOnWrite()} set.
+     */
+    @Nullable
+    private volatile PendingCopy pendingCopies;
 
     protected AbstractConfigurationNode(@Nullable Object key, @Nullable T parent, @NonNull ConfigurationOptions options) {
         requireNonNull(options, "options");
@@ -90,10 +171,19 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
 
     protected AbstractConfigurationNode(@Nullable T parent, T copyOf) {
         this.options = copyOf.getOptions();
-        this.attached = true; // copies are always attached
         this.key = copyOf.key;
         this.parent = parent;
-        this.value = copyOf.value.copy(self());
+        markAttached(); // copies are always attached
+
+        final ConfigValue<T> value = copyOf.value;
+        if (this.options.isCopyOnWrite() && !(value instanceof LazyConfigValue) && value.getType().canHaveChildren()) {
+            // children are only copied once they are needed, or the original is modified
+            final CopyOnWriteConfigValue<T> copy = new CopyOnWriteConfigValue<>(self(), copyOf);
+            this.value = copy;
+            copyOf.addPendingCopy(copy);
+        } else {
+            this.value = value.copy(self());
+        }
     }
 
     /**
@@ -141,11 +231,96 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
         return ret == null ? storeDefault(defSupplier.get()) : ret;
     }
 
+    // Primitive getters
+    // These avoid boxing when the value is stored in a primitive form, reuse the last
+    // conversion of a string value, and otherwise fall back to the conversions in Types.
+
+    @Override
+    public int getInt(int def) {
+        final ConfigValue<T> value = this.value;
+        if (value instanceof ScalarConfigValue) {
+            final ScalarConfigValue<T> scalar = (ScalarConfigValue<T>) value;
+            if (scalar.hasInt()) {
+                return scalar.intValue();
+            }
+            final ScalarConfigValue.Coerced coerced = scalar.coerce(ScalarConfigValue.KIND_INT);
+            if (coerced != null) {
+                // a failed conversion is remembered as well, so the string is not parsed again
+                return coerced.valid ? coerced.intValue() : storeDefault(def);
+            }
+        }
+        return ConfigurationNode.super.getInt(def);
+    }
+
+    @Override
+    public long getLong(long def) {
+        final ConfigValue<T> value = this.value;
+        if (value instanceof ScalarConfigValue) {
+            final ScalarConfigValue<T> scalar = (ScalarConfigValue<T>) value;
+            if (scalar.hasLong()) {
+                return scalar.longValue();
+            }
+            final ScalarConfigValue.Coerced coerced = scalar.coerce(ScalarConfigValue.KIND_LONG);
+            if (coerced != null) {
+                return coerced.valid ? coerced.longValue() : storeDefault(def);
+            }
+        }
+        return ConfigurationNode.super.getLong(def);
+    }
+
+    @Override
+    public float getFloat(float def) {
+        final ConfigValue<T> value = this.value;
+        if (value instanceof ScalarConfigValue) {
+            final ScalarConfigValue<T> scalar = (ScalarConfigValue<T>) value;
+            if (scalar.hasFloat()) {
+                return scalar.floatValue();
+            }
+            final ScalarConfigValue.Coerced coerced = scalar.coerce(ScalarConfigValue.KIND_FLOAT);
+            if (coerced != null) {
+                return coerced.valid ? coerced.floatValue() : storeDefault(def);
+            }
+        }
+        return ConfigurationNode.super.getFloat(def);
+    }
+
+    @Override
+    public double getDouble(double def) {
+        final ConfigValue<T> value = this.value;
+        if (value instanceof ScalarConfigValue) {
+            final ScalarConfigValue<T> scalar = (ScalarConfigValue<T>) value;
+            if (scalar.hasDouble()) {
+                return scalar.doubleValue();
+            }
+            final ScalarConfigValue.Coerced coerced = scalar.coerce(ScalarConfigValue.KIND_DOUBLE);
+            if (coerced != null) {
+                return coerced.valid ? coerced.doubleValue() : storeDefault(def);
+            }
+        }
+        return ConfigurationNode.super.getDouble(def);
+    }
+
+    @Override
+    public boolean getBoolean(boolean def) {
+        final ConfigValue<T> value = this.value;
+        if (value instanceof ScalarConfigValue) {
+            final ScalarConfigValue<T> scalar = (ScalarConfigValue<T>) value;
+            if (scalar.hasBoolean()) {
+                return scalar.booleanValue();
+            }
+            final ScalarConfigValue.Coerced coerced = scalar.coerce(ScalarConfigValue.KIND_BOOLEAN);
+            if (coerced != null) {
+                return coerced.valid ? coerced.booleanValue() : storeDefault(def);
+            }
+        }
+        return ConfigurationNode.super.getBoolean(def);
+    }
+
     @NonNull
     @Override
     public <V> List<V> getList(@NonNull Function<Object, V> transformer) {
         final ImmutableList.Builder<V> ret = ImmutableList.builder();
-        ConfigValue<T> value = this.value;
+        ConfigValue<T> value = this.value.resolve();
         if (value instanceof ListConfigValue) {
             // transform each value individually if the node is a list
             for (T o : value.iterateChildren()) {
@@ -237,22 +412,31 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
 
             if (newValueAsNode.isList()) {
                 // handle list
+                prepareForWrite();
                 attachIfNecessary();
-                ListConfigValue<T> newList = new ListConfigValue<>(self());
+                final List<? extends ConfigurationNode<?>> children;
                 synchronized (newValueAsNode) {
-                    newList.setValue(newValueAsNode.getChildrenList());
+                    children = new ArrayList<>(newValueAsNode.getChildrenListView());
                 }
+                // the children are copied without holding the lock, as copying them notifies listeners
+                ListConfigValue<T> newList = new ListConfigValue<>(self());
+                newList.setValue(children);
                 this.value = newList;
+                markChanged(true);
                 return self();
 
             } else if (newValueAsNode.isMap()) {
                 // handle map
+                prepareForWrite();
                 attachIfNecessary();
-                MapConfigValue<T> newMap = new MapConfigValue<>(self());
+                final Map<Object, ? extends ConfigurationNode<?>> children;
                 synchronized (newValueAsNode) {
-                    newMap.setValue(newValueAsNode.getChildrenMap());
+                    children = new LinkedHashMap<>(newValueAsNode.getChildrenMapView());
                 }
+                MapConfigValue<T> newMap = new MapConfigValue<>(self());
+                newMap.setValue(children);
                 this.value = newMap;
+                markChanged(true);
                 return self();
 
             } else {
@@ -282,84 +466,134 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
      * @param onlyIfNull If the insertion should only take place if the current value is null
      */
     private void insertNewValue(Object newValue, boolean onlyIfNull) {
+        prepareForWrite();
         attachIfNecessary();
 
-        synchronized (this) {
-            ConfigValue<T> oldValue, value;
-            oldValue = value = this.value;
-
-            if (onlyIfNull && !(oldValue instanceof NullConfigValue)){
-                return;
+        if (isConfined()) {
+            replaceValue(newValue, onlyIfNull);
+        } else {
+            synchronized (this) {
+                replaceValue(newValue, onlyIfNull);
             }
+            ChangeListeners.dispatchDeferred();
+        }
+    }
 
-            // init new config value backing for the new value type if necessary
-            if (newValue instanceof Collection) {
-                if (!(value instanceof ListConfigValue)) {
-                    value = new ListConfigValue<>(self());
-                }
-            } else if (newValue instanceof Map) {
-                if (!(value instanceof MapConfigValue)) {
-                    value = new MapConfigValue<>(self());
-                }
-            } else if (!(value instanceof ScalarConfigValue)) {
-                value = new ScalarConfigValue<>(self());
-            }
+    private void replaceValue(Object newValue, boolean onlyIfNull) {
+        ConfigValue<T> oldValue, value;
+        oldValue = value = this.value;
+
+        if (onlyIfNull && !(oldValue instanceof NullConfigValue)){
+            return;
+        }
 
-            // insert the data into the config value
+        // init new config value backing for the new value type if necessary,
+        // and insert the data into the config value
+        if (newValue instanceof LazyValue) {
+            // children are only created once they are first accessed
+            value = new LazyConfigValue<>(self(), (LazyValue) newValue);
+        } else if (newValue instanceof Collection) {
+            if (!(value instanceof ListConfigValue)) {
+                value = new ListConfigValue<>(self());
+            }
+            value.setValue(newValue);
+        } else if (newValue instanceof Map) {
+            if (!(value instanceof MapConfigValue)) {
+                value = new MapConfigValue<>(self());
+            }
             value.setValue(newValue);
+        } else {
+            // scalar values are immutable
+            value = ScalarConfigValue.of(self(), newValue);
+        }
 
-            /*if (oldValue != null && oldValue != value) {
-                oldValue.clear();
-            }*/
-            this.value = value;
+        if (oldValue != value && !(value instanceof MapConfigValue || value instanceof ListConfigValue)) {
+            // new maps and lists have already detached the existing children when filled
+            oldValue.clear();
         }
+        this.value = value;
+        markChanged(oldValue.getType().canHaveChildren() || value.getType().canHaveChildren());
     }
 
     @NonNull
     @Override
     public T mergeValuesFrom(@NonNull ConfigurationNode<?> other) {
         if (other.isMap()) {
-            ConfigValue<T> oldValue, newValue;
-            synchronized (this) {
-                oldValue = newValue = value;
-
-                // ensure the current type is applicable.
-                if (!(oldValue instanceof MapConfigValue)) {
-                    if (oldValue instanceof NullConfigValue) {
-                        newValue = new MapConfigValue<>(self());
-                    } else {
-                        return self();
-                    }
-                }
-
-                // merge values from 'other'
-                for (Map.Entry<Object, ? extends ConfigurationNode<?>> ent : other.getChildrenMap().entrySet()) {
-                    T currentChild = newValue.getChild(ent.getKey());
-                    // Never allow null values to overwrite non-null values
-                    if ((currentChild != null && currentChild.getValue() != null) && ent.getValue().getValue() == null) {
-                        continue;
-                    }
-
-                    // create a new child node for the value
-                    T newChild = this.createNode(ent.getKey());
-                    newChild.attached = true;
-                    newChild.setValue(ent.getValue());
-                    // replace the existing value, if absent
-                    T existing = newValue.putChildIfAbsent(ent.getKey(), newChild);
-                    // if an existing value was present, attempt to merge the new value into it
-                    if (existing != null) {
-                        existing.mergeValuesFrom(newChild);
-                    }
+            prepareForWrite();
+            final boolean changed;
+            if (isConfined()) {
+                changed = mergeChildrenFrom(other);
+            } else {
+                synchronized (this) {
+                    changed = mergeChildrenFrom(other);
                 }
-                this.value = newValue;
+                ChangeListeners.dispatchDeferred();
+            }
+            if (changed) {
+                markChanged(true);
             }
-        } else if (other.getValue() != null) {
+        } else if (this.value instanceof NullConfigValue) {
             // otherwise, replace the value of this node, only if currently null
-            insertNewValue(other.getValue(), true);
+            final Object otherValue = other.getValue();
+            if (otherValue != null) {
+                insertNewValue(otherValue, true);
+            }
         }
         return self();
     }
 
+    /**
+     * Merge the children of a map node into this node, which must be locked unless confined.
+     *
+     * @param other The map node to merge from
+     * @return Whether the value of this node was replaced, or children were added to it
+     */
+    private boolean mergeChildrenFrom(@NonNull ConfigurationNode<?> other) {
+        final ConfigValue<T> oldValue = value.resolve();
+        final ConfigValue<T> newValue;
+
+        // ensure the current type is applicable.
+        if (oldValue instanceof MapConfigValue) {
+            newValue = oldValue;
+        } else if (oldValue instanceof NullConfigValue) {
+            newValue = new MapConfigValue<>(self());
+        } else {
+            return false;
+        }
+
+        // merge values from 'other', in a single pass over its children
+        boolean inserted = false;
+        for (Map.Entry<Object, ? extends ConfigurationNode<?>> ent : other.getChildrenMapView().entrySet()) {
+            final ConfigurationNode<?> otherChild = ent.getValue();
+            T existing = newValue.getChild(ent.getKey());
+            if (existing == null) {
+                // Never allow null values to overwrite non-null values
+                if (otherChild.getValueType() == ValueType.NULL) {
+                    continue;
+                }
+
+                // only values that are actually inserted are copied
+                T newChild = this.createNode(ent.getKey());
+                newChild.markAttached();
+                newChild.setValue(otherChild);
+                existing = newValue.putChildIfAbsent(ent.getKey(), newChild);
+                if (existing == null) {
+                    inserted = true;
+                    continue;
+                }
+            }
+            // otherwise, merge the value into the existing node in place
+            existing.mergeValuesFrom(otherChild);
+        }
+
+        if (newValue == oldValue && !inserted) {
+            // any changes were made to existing children, which have recorded them
+            return false;
+        }
+        this.value = newValue;
+        return true;
+    }
+
     @NonNull
     @Override
     public T getNode(@NonNull Object... path) {
@@ -380,9 +614,48 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
         return pointer;
     }
 
+    @Nullable
+    @Override
+    public T findNode(@NonNull Object... path) {
+        T pointer = self();
+        for (Object el : path) {
+            pointer = pointer.value.getChild(el);
+            if (pointer == null) {
+                return null;
+            }
+        }
+        return pointer.isVirtual() ? null : pointer;
+    }
+
+    @Nullable
+    @Override
+    public T findNode(@NonNull Iterable<Object> path) {
+        T pointer = self();
+        for (Object el : path) {
+            pointer = pointer.value.getChild(el);
+            if (pointer == null) {
+                return null;
+            }
+        }
+        return pointer.isVirtual() ? null : pointer;
+    }
+
     @Override
     public boolean isVirtual() {
-        return !attached;
+        // detaching a node does not visit its children, so a node is also virtual once any of
+        // its parents are detached, or have had all of their children replaced
+        AbstractConfigurationNode<?> pointer = this;
+        AbstractConfigurationNode<?> parent;
+        while (pointer.attached) {
+            if ((parent = pointer.parent) == null) {
+                return false;
+            }
+            if (pointer.parentGeneration != parent.childGeneration) {
+                return true;
+            }
+            pointer = parent;
+        }
+        return true;
     }
 
     @NonNull
@@ -394,22 +667,117 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
     @NonNull
     @Override
     public List<T> getChildrenList() {
-        ConfigValue<T> value = this.value;
-        return value instanceof ListConfigValue ? ImmutableList.copyOf(((ListConfigValue<T>) value).values.get()) : Collections.emptyList();
+        ConfigValue<T> value = this.value.resolve();
+        return value instanceof ListConfigValue ? ((ListConfigValue<T>) value).values.get() : Collections.emptyList();
     }
 
     @NonNull
     @Override
     public Map<Object, T> getChildrenMap() {
-        ConfigValue<T> value = this.value;
+        ConfigValue<T> value = this.value.resolve();
         return value instanceof MapConfigValue ? ImmutableMap.copyOf(((MapConfigValue<T>) value).values) : Collections.emptyMap();
     }
 
+    @NonNull
+    @Override
+    public List<T> getChildrenListView() {
+        return new ChildrenListView();
+    }
+
+    @NonNull
+    @Override
+    public Map<Object, T> getChildrenMapView() {
+        return new ChildrenMapView();
+    }
+
+    @Override
+    public <E extends Exception> void forEachChild(@NonNull ThrowingConsumer<? super T, E> action) throws E {
+        final ConfigValue<T> value = this.value.resolve();
+        if (value instanceof ListConfigValue || value instanceof MapConfigValue) {
+            for (T child : value.iterateChildren()) {
+                action.accept(child);
+            }
+        }
+    }
+
     @Override
     public boolean isEmpty() {
         return this.value.isEmpty();
     }
 
+    /**
+     * A read-only view of the current list children of this node.
+     */
+    private final class ChildrenListView extends AbstractList<T> implements RandomAccess {
+        private List<T> current() {
+            final ConfigValue<T> value = AbstractConfigurationNode.this.value.resolve();
+            return value instanceof ListConfigValue ? ((ListConfigValue<T>) value).values.get() : Collections.emptyList();
+        }
+
+        @Override
+        public T get(int index) {
+            return current().get(index);
+        }
+
+        @Override
+        public int size() {
+            return current().size();
+        }
+
+        @NonNull
+        @Override
+        public Iterator<T> iterator() {
+            return Iterators.unmodifiableIterator(current().iterator());
+        }
+    }
+
+    /**
+     * A read-only view of the current map children of this node.
+     */
+    private final class ChildrenMapView extends AbstractMap<Object, T> {
+        private Map<Object, T> current() {
+            final ConfigValue<T> value = AbstractConfigurationNode.this.value.resolve();
+            return value instanceof MapConfigValue ? ((MapConfigValue<T>) value).values : Collections.emptyMap();
+        }
+
+        @Override
+        public T get(Object key) {
+            return current().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return current().containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return current().size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return current().isEmpty();
+        }
+
+        @NonNull
+        @Override
+        public Set<Entry<Object, T>> entrySet() {
+            return new AbstractSet<Entry<Object, T>>() {
+                @Override
+                public int size() {
+                    return ChildrenMapView.this.size();
+                }
+
+                @NonNull
+                @Override
+                public Iterator<Entry<Object, T>> iterator() {
+                    return Collections.unmodifiableMap(current()).entrySet().iterator();
+                }
+            };
+        }
+    }
+
     /**
      * Gets a child node, relative to this.
      *
@@ -424,6 +792,7 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
         if (child == null) {
             if (attach) {
                 // attach ourselves first
+                prepareForWrite();
                 attachIfNecessary();
                 // insert the child node into the value
                 T existingChild = value.putChildIfAbsent(key, (child = createNode(key)));
@@ -443,13 +812,19 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
 
     @Override
     public boolean removeChild(@NonNull Object key) {
-        return detachIfNonNull(value.putChild(key, null)) != null;
+        prepareForWrite();
+        final T removed = detachIfNonNull(value.putChild(key, null));
+        if (removed != null) {
+            markChanged(true, removed);
+            return true;
+        }
+        return false;
     }
 
     private static <T extends AbstractConfigurationNode<T>> T detachIfNonNull(T node) {
         if (node != null) {
+            // the children of the node are detached along with it, and keep their values
             node.attached = false;
-            node.clear();
         }
         return node;
     }
@@ -494,12 +869,198 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
         return this.options;
     }
 
+    /**
+     * Gets whether this node is confined to a single thread, and should not lock when modified.
+     *
+     * @return Whether this node is confined
+     * @see ConcurrencyMode#CONFINED
+     */
+    boolean isConfined() {
+        return this.options.getConcurrency() == ConcurrencyMode.CONFINED;
+    }
+
     @NonNull
     @Override
     public T copy() {
         return copy(null);
     }
 
+    /**
+     * Create an immutable snapshot of the current state of this node and its children.
+     *
+     * <p>The snapshot becomes the root of a new tree, and is not affected by any later changes
+     * to this node. Snapshots can be read from any thread without locking, and updated
+     * versions can be derived from them cheaply using
+     * {@link ImmutableConfigurationNode#withValue(Object)}.</p>
+     *
+     * @return An immutable snapshot of this node
+     */
+    @NonNull
+    public ImmutableConfigurationNode snapshot() {
+        return ImmutableConfigurationNode.copyOf(this);
+    }
+
+    /**
+     * Convert the tree this node belongs to from {@link ConcurrencyMode#CONFINED} to
+     * {@link ConcurrencyMode#CONCURRENT}, so that it can be shared between threads.
+     *
+     * <p>Every node in the tree switches to options which are otherwise identical, and children
+     * are moved into concurrent maps. This must be called by the thread the tree is confined to,
+     * once it has finished building the tree. The tree can then be handed to other threads
+     * through any means that publishes it safely, such as a volatile field or a concurrent
+     * collection.</p>
+     *
+     * <p>Trees which are already concurrent are not modified.</p>
+     *
+     * @return This node
+     */
+    @NonNull
+    public T publish() {
+        final AbstractConfigurationNode<?> root = getRootNode();
+        final ConfigurationOptions confined = root.options;
+        if (confined.getConcurrency() == ConcurrencyMode.CONFINED) {
+            root.publishTree(confined, confined.withConcurrency(ConcurrencyMode.CONCURRENT));
+        }
+        return self();
+    }
+
+    private void publishTree(ConfigurationOptions confined, ConfigurationOptions published) {
+        if (this.options.getConcurrency() == ConcurrencyMode.CONFINED) {
+            this.options = this.options == confined ? published : this.options.withConcurrency(ConcurrencyMode.CONCURRENT);
+        }
+        // values which are not yet materialized will create their children with the new options
+        final ConfigValue<T> value = this.value;
+        if (value instanceof MapConfigValue) {
+            ((MapConfigValue<T>) value).publish();
+        }
+        if (value instanceof MapConfigValue || value instanceof ListConfigValue) {
+            for (T child : value.iterateChildren()) {
+                ((AbstractConfigurationNode<T>) child).publishTree(confined, published);
+            }
+        }
+    }
+
+    /**
+     * Apply a group of changes to this node and its children as a single update.
+     *
+     * <p>The action is given a detached copy of this node, which it may modify freely without
+     * affecting this node. Once the action completes, the value of the copy replaces the value
+     * of this node in one step, so other threads observe either none or all of the changes, and
+     * listeners are notified of a single change to this node.</p>
+     *
+     * <p>If this node or one of its descendants is modified elsewhere while the action is
+     * running, the staged changes are discarded and the action is run again against a fresh
+     * copy. The action should therefore not have any effects other than modifying the node it
+     * is given.</p>
+     *
+     * <p>Only modifications made through this node, such as by another call to this method,
+     * are guaranteed to be detected. A write made directly to a descendant of this node, which
+     * only locks that descendant, can still land between the final check and the replacement
+     * of this node's value, in which case it is lost. Concurrent writers that must not lose
+     * updates should all go through this method on a common ancestor.</p>
+     *
+     * @param action The action staging changes
+     * @param <E> The type of exception thrown by the action
+     * @return This node
+     * @throws E If thrown by the action, in which case no changes are applied
+     */
+    @NonNull
+    public <E extends Exception> T mutate(@NonNull ThrowingConsumer<? super T, E> action) throws E {
+        requireNonNull(action, "action");
+        while (true) {
+            final int generation = this.fingerprintGeneration;
+            final T staging = copy(null);
+            action.accept(staging);
+
+            // this also finishes copying the staged value, if it is still shared with this node
+            prepareForWrite();
+            final ConfigValue<T> staged = staging.value;
+            if (!(staged instanceof NullConfigValue)) {
+                attachIfNecessary();
+            }
+
+            final boolean applied;
+            if (isConfined()) {
+                applied = applyStaged(generation, staged);
+            } else {
+                synchronized (this) {
+                    applied = applyStaged(generation, staged);
+                }
+                ChangeListeners.dispatchDeferred();
+            }
+            if (applied) {
+                return self();
+            }
+        }
+    }
+
+    /**
+     * Replace the value of this node with a value staged by {@link #mutate(ThrowingConsumer)},
+     * unless this node has changed since staging began.
+     *
+     * @param generation The fingerprint generation of this node when staging began
+     * @param staged The staged value
+     * @return Whether the staged value was applied
+     */
+    private boolean applyStaged(int generation, ConfigValue<T> staged) {
+        if (generation != this.fingerprintGeneration) {
+            return false;
+        }
+
+        if (staged instanceof NullConfigValue) {
+            if (this.parent == null) {
+                clear();
+            } else {
+                this.parent.removeChild(this.key);
+            }
+            return true;
+        }
+
+        // move the staged value and its direct children over to this node
+        this.value.clear();
+        staged.holder = self();
+        if (!(staged instanceof LazyConfigValue)) {
+            for (T child : staged.iterateChildren()) {
+                ((AbstractConfigurationNode<T>) child).parent = self();
+                child.markAttached();
+            }
+        }
+        this.value = staged;
+        markChanged(true);
+        return true;
+    }
+
+    /**
+     * Replace the value of this node with one constructed by a {@link ConfigurationNodeBuilder},
+     * as a single change.
+     *
+     * @param built The new value, which must already be held by this node
+     */
+    void setBuiltValue(ConfigValue<T> built) {
+        prepareForWrite();
+        attachIfNecessary();
+        if (isConfined()) {
+            replaceWithBuilt(built);
+        } else {
+            synchronized (this) {
+                replaceWithBuilt(built);
+            }
+            ChangeListeners.dispatchDeferred();
+        }
+    }
+
+    private void replaceWithBuilt(ConfigValue<T> built) {
+        this.value.clear();
+        // the built children were attached to this node before the old children were detached
+        if (built instanceof MapConfigValue || built instanceof ListConfigValue) {
+            for (T child : built.iterateChildren()) {
+                child.markAttached();
+            }
+        }
+        this.value = built;
+        markChanged(true);
+    }
+
 
     /**
      * The same as {@link #getParent()} - but ensuring that 'parent' is attached via
@@ -517,7 +1078,7 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
     }
 
     protected void attachIfNecessary() {
-        if (!attached) {
+        if (isVirtual()) {
             getParentEnsureAttached().attachChild(self());
         }
     }
@@ -543,58 +1104,368 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
             throw new IllegalStateException("This parent is not currently attached. This is an internal state violation.");
         }
 
-        // ensure the child actually is a child
-        if (!child.getParentEnsureAttached().equals(this)) {
+        // ensure the child actually is a child. this is an identity check, as a deep comparison
+        // against the parent would make every insertion proportional to the size of the parent
+        if (child.getParentEnsureAttached() != this) {
             throw new IllegalStateException("Child " +  child + " path is not a direct parent of me (" + this + "), cannot attach");
         }
 
         // update the value
-        ConfigValue<T> oldValue, newValue;
-        synchronized (this) {
-            newValue = oldValue = this.value;
-
-            // if the existing value isn't a map, we need to update it's type
-            if (!(oldValue instanceof MapConfigValue)) {
-                if (child.key instanceof Integer) {
-                    // if child.key is an integer, we can infer that the type of this node should be a list
-                    if (oldValue instanceof NullConfigValue) {
-                        // if the oldValue was null, we can just replace it with an empty list
-                        newValue = new ListConfigValue<>(self());
-                    } else if (!(oldValue instanceof ListConfigValue)) {
-                        // if the oldValue contained a value, we add it as the first element of the
-                        // new list
-                        newValue = new ListConfigValue<>(self(), oldValue.getValue());
-                    }
-                } else {
-                    // if child.key isn't an integer, assume map
-                    newValue = new MapConfigValue<>(self());
-                }
+        prepareForWrite();
+        if (!(child.value instanceof NullConfigValue)) {
+            // a node which was detached along with one of its parents still holds its old value
+            child.attached = false;
+            child.clear();
+        }
+        final T existing;
+        if (isConfined()) {
+            existing = insertChild(child, onlyIfAbsent);
+        } else {
+            synchronized (this) {
+                existing = insertChild(child, onlyIfAbsent);
             }
+            ChangeListeners.dispatchDeferred();
+        }
+        if (existing != null) {
+            return existing;
+        }
+
+        child.markAttached();
+        markChanged(true, child);
+        return child;
+    }
 
-            /// now the value has been updated to an appropriate type, we can insert the value
-            if (onlyIfAbsent) {
-                T oldChild = newValue.putChildIfAbsent(child.key, child);
-                if (oldChild != null) {
-                    return oldChild;
+    /**
+     * Insert a child into the value of this node, which must be locked unless confined.
+     *
+     * @param child The child
+     * @param onlyIfAbsent If the child should only be inserted if there is no existing child
+     *                     with the same key
+     * @return The existing child which prevented insertion, if any
+     */
+    @Nullable
+    private T insertChild(T child, boolean onlyIfAbsent) {
+        final ConfigValue<T> oldValue = this.value.resolve();
+        ConfigValue<T> newValue = oldValue;
+
+        // if the existing value isn't a map, we need to update it's type
+        if (!(oldValue instanceof MapConfigValue)) {
+            if (child.key instanceof Integer) {
+                // if child.key is an integer, we can infer that the type of this node should be a list
+                if (oldValue instanceof NullConfigValue) {
+                    // if the oldValue was null, we can just replace it with an empty list
+                    newValue = new ListConfigValue<>(self());
+                } else if (!(oldValue instanceof ListConfigValue)) {
+                    // if the oldValue contained a value, we add it as the first element of the
+                    // new list
+                    newValue = new ListConfigValue<>(self(), oldValue.getValue());
                 }
             } else {
-                detachIfNonNull(newValue.putChild(child.key, child));
+                // if child.key isn't an integer, assume map
+                newValue = new MapConfigValue<>(self());
+            }
+            if (newValue != oldValue) {
+                // detach any existing children before the new child is attached
+                oldValue.clear();
             }
-            this.value = newValue;
         }
 
-        if (newValue != oldValue) {
-            oldValue.clear();
+        /// now the value has been updated to an appropriate type, we can insert the value
+        if (onlyIfAbsent) {
+            T oldChild = newValue.putChildIfAbsent(child.key, child);
+            if (oldChild != null) {
+                return oldChild;
+            }
+        } else {
+            final T oldChild = newValue.putChild(child.key, child);
+            if (oldChild != child) {
+                detachIfNonNull(oldChild);
+            }
         }
-        child.attached = true;
-        return child;
+        this.value = newValue;
+        return null;
+    }
+
+    /**
+     * Record that this node has been inserted into the value of its parent.
+     */
+    final void markAttached() {
+        final AbstractConfigurationNode<?> parent = this.parent;
+        if (parent != null) {
+            this.parentGeneration = parent.childGeneration;
+        }
+        this.attached = true;
+    }
+
+    /**
+     * Detach every current child of this node, without visiting any of them.
+     *
+     * <p>Children attached after this call are unaffected.</p>
+     */
+    final void detachChildren() {
+        CHILD_GENERATION.incrementAndGet(this);
     }
 
     protected void clear() {
-        synchronized (this) {
-            ConfigValue<T> oldValue = this.value;
-            value = new NullConfigValue<>(self());
-            oldValue.clear();
+        prepareForWrite();
+        if (isConfined()) {
+            clearValue();
+        } else {
+            synchronized (this) {
+                clearValue();
+            }
+            ChangeListeners.dispatchDeferred();
+        }
+    }
+
+    private void clearValue() {
+        ConfigValue<T> oldValue = this.value;
+        value = new NullConfigValue<>(self());
+        oldValue.clear();
+        // nodes being detached report their removal through the node they were removed from
+        if (this.attached) {
+            markChanged(oldValue.getType().canHaveChildren());
+        } else {
+            FINGERPRINT_GENERATION.incrementAndGet(this);
+        }
+    }
+
+    /**
+     * Register a copy-on-write copy of this node, which must be resolved before this node is
+     * modified.
+     *
+     * <p>Copies which have since been resolved or discarded are removed while registering, so
+     * repeatedly copying a node that is never modified does not accumulate registrations.</p>
+     *
+     * @param copy The copied value
+     */
+    void addPendingCopy(CopyOnWriteConfigValue<T> copy) {
+        PendingCopy existing, updated;
+        do {
+            existing = this.pendingCopies;
+            updated = new PendingCopy(copy, null);
+            PendingCopy tail = updated;
+            for (PendingCopy pointer = existing; pointer != null; pointer = pointer.next) {
+                final CopyOnWriteConfigValue<?> other = pointer.get();
+                if (other != null && other.isPending()) {
+                    tail = tail.next = new PendingCopy(other, null);
+                }
+            }
+        } while (!PENDING_COPIES.compareAndSet(this, existing, updated));
+    }
+
+    /**
+     * Prepare this node to be modified, by resolving any pending copy-on-write copies of this
+     * node or its parents.
+     *
+     * <p>Copies are resolved from the root downwards, so copies of parents have created copies
+     * of this node by the time its own pending copies are resolved. This must be called before
+     * any change is made to the value of this node, and before acquiring any locks.</p>
+     */
+    protected final void prepareForWrite() {
+        final T parent = this.parent;
+        if (parent != null) {
+            parent.prepareForWrite();
+        }
+        if (this.pendingCopies != null) {
+            for (PendingCopy pointer = PENDING_COPIES.getAndSet(this, null); pointer != null; pointer = pointer.next) {
+                final CopyOnWriteConfigValue<?> copy = pointer.get();
+                if (copy != null && copy.isPending()) {
+                    copy.resolve();
+                }
+            }
+        }
+    }
+
+    /**
+     * An entry in the list of pending copies of a node.
+     *
+     * <p>Copies are only weakly referenced, so copies that are discarded without being modified
+     * do not retain memory.</p>
+     */
+    private static final class PendingCopy extends WeakReference<CopyOnWriteConfigValue<?>> {
+        @Nullable PendingCopy next;
+
+        PendingCopy(CopyOnWriteConfigValue<?> copy, @Nullable PendingCopy next) {
+            super(copy);
+            this.next = next;
+        }
+    }
+
+    /**
+     * Gets the root of the tree this node is part of.
+     *
+     * @return The root node
+     */
+    @NonNull
+    AbstractConfigurationNode<?> getRootNode() {
+        AbstractConfigurationNode<?> pointer = this;
+        AbstractConfigurationNode<?> parent;
+        while ((parent = pointer.parent) != null) {
+            pointer = parent;
+        }
+        return pointer;
+    }
+
+    /**
+     * Gets the structural modification stamp of the tree this node is part of.
+     *
+     * <p>The stamp changes whenever a node is added to or removed from the tree, or a node
+     * changes between holding a scalar value and holding children. It does not change when
+     * the scalar value of a node is replaced.</p>
+     *
+     * @return The current stamp
+     */
+    long getStructureStamp() {
+        return getRootNode().structureStamp;
+    }
+
+    /**
+     * Record a change to the value of this node, invalidating the fingerprints of this node and
+     * its parents.
+     *
+     * @param structural Whether nodes were added or removed by the change
+     */
+    private void markChanged(boolean structural) {
+        markChanged(structural, null);
+    }
+
+    /**
+     * Record a change to the value of this node, invalidating the fingerprints of this node and
+     * its parents, and notifying any listeners.
+     *
+     * <p>If the current thread holds the monitor of a node involved in the change, listeners
+     * are only notified once it has been released.</p>
+     *
+     * @param structural Whether nodes were added or removed by the change
+     * @param child The child that was added or removed, if any
+     */
+    private void markChanged(boolean structural, @Nullable AbstractConfigurationNode<?> child) {
+        AbstractConfigurationNode<?> pointer = this;
+        AbstractConfigurationNode<?> parent;
+        FINGERPRINT_GENERATION.incrementAndGet(pointer);
+        while ((parent = pointer.parent) != null) {
+            pointer = parent;
+            FINGERPRINT_GENERATION.incrementAndGet(pointer);
+        }
+        if (structural) {
+            STRUCTURE_STAMP.incrementAndGet(pointer);
+        }
+
+        // a single read when nothing is listening
+        final ChangeListeners listeners = pointer.listeners;
+        if (listeners != null) {
+            listeners.dispatch(pathFromRoot(child == null ? null : child.key), heldMonitor(child));
+        }
+    }
+
+    /**
+     * Gets the outermost of this node, its parents, and the given child, whose monitor is held by
+     * the current thread.
+     *
+     * @param child The child that was changed, if any
+     * @return The node whose monitor is held, or null if none are
+     */
+    @Nullable
+    private Object heldMonitor(@Nullable AbstractConfigurationNode<?> child) {
+        if (isConfined()) {
+            return null;
+        }
+        Object held = child != null && Thread.holdsLock(child) ? child : null;
+        for (AbstractConfigurationNode<?> pointer = this; pointer != null; pointer = pointer.parent) {
+            if (Thread.holdsLock(pointer)) {
+                held = pointer;
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Gets the keys leading from the root of this tree to this node, or one of its children.
+     *
+     * @param childKey The key of a child to append to the path, or null for this node
+     * @return The path, not including the key of the root
+     */
+    private Object[] pathFromRoot(@Nullable Object childKey) {
+        int depth = childKey == null ? 0 : 1;
+        for (AbstractConfigurationNode<?> pointer = this; pointer.parent != null; pointer = pointer.parent) {
+            ++depth;
+        }
+        final Object[] path = new Object[depth];
+        int i = depth;
+        if (childKey != null) {
+            path[--i] = childKey;
+        }
+        for (AbstractConfigurationNode<?> pointer = this; pointer.parent != null; pointer = pointer.parent) {
+            path[--i] = pointer.key;
+        }
+        return path;
+    }
+
+    @NonNull
+    @Override
+    public Subscription subscribe(@NonNull NodePath prefix, @NonNull Executor executor, @NonNull Consumer<ChangeEvent> listener) {
+        requireNonNull(prefix, "prefix");
+        requireNonNull(executor, "executor");
+        requireNonNull(listener, "listener");
+        final Object[] base = pathFromRoot(null);
+        final Object[] relative = prefix.getArray();
+        final Object[] absolute = Arrays.copyOf(base, base.length + relative.length);
+        System.arraycopy(relative, 0, absolute, base.length, relative.length);
+
+        final AbstractConfigurationNode<?> root = getRootNode();
+        ChangeListeners listeners = root.listeners;
+        if (listeners == null) {
+            synchronized (root) {
+                listeners = root.listeners;
+                if (listeners == null) {
+                    root.listeners = listeners = new ChangeListeners();
+                }
+            }
+        }
+        return listeners.add(this, prefix, absolute, executor, listener);
+    }
+
+    @Override
+    public long getFingerprint() {
+        // the generation is read first, so a change made while computing invalidates the result
+        final int generation = this.fingerprintGeneration;
+        final Fingerprint cached = this.fingerprint;
+        if (cached != null && cached.generation == generation) {
+            return cached.hash;
+        }
+
+        final ConfigValue<T> value = this.value.resolve();
+        final long hash;
+        if (value instanceof ListConfigValue) {
+            long acc = Fingerprints.startList();
+            for (T child : ((ListConfigValue<T>) value).values.get()) {
+                acc = Fingerprints.addListElement(acc, child.getFingerprint());
+            }
+            hash = Fingerprints.finishList(acc);
+        } else if (value instanceof MapConfigValue) {
+            long acc = Fingerprints.startMap();
+            for (Map.Entry<Object, T> ent : ((MapConfigValue<T>) value).values.entrySet()) {
+                acc = Fingerprints.addMapEntry(acc, ent.getKey(), ent.getValue().getFingerprint());
+            }
+            hash = Fingerprints.finishMap(acc);
+        } else {
+            hash = Fingerprints.ofScalar(value.getValue());
+        }
+        this.fingerprint = new Fingerprint(hash, generation);
+        return hash;
+    }
+
+    /**
+     * A computed fingerprint, and the generation of the node it was computed at.
+     */
+    private static final class Fingerprint {
+        final long hash;
+        final int generation;
+
+        Fingerprint(long hash, int generation) {
+            this.hash = hash;
+            this.generation = generation;
         }
     }
 
@@ -604,12 +1475,15 @@ public abstract class AbstractConfigurationNode<T extends AbstractConfigurationN
         if (!(o instanceof AbstractConfigurationNode)) return false;
         AbstractConfigurationNode<?> that = (AbstractConfigurationNode<?>) o;
 
-        return Objects.equals(this.key, that.key) && Objects.equals(this.value, that.value);
+        // differing fingerprints rule out equality without comparing every child
+        return Objects.equals(this.key, that.key)
+                && getFingerprint() == that.getFingerprint()
+                && Objects.equals(this.value.resolve(), that.value.resolve());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(key) ^ Objects.hashCode(value);
+        return Objects.hashCode(key) ^ Long.hashCode(getFingerprint());
     }
 
     @Override
@@ -0,0 +1,78 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.spongepowered.configurate.transformation.NodePath;
+
+import java.util.Set;
+
+/**
+ * A batch of changes made to the nodes a listener is subscribed to.
+ *
+ * @see ConfigurationNode#subscribe(NodePath, java.util.function.Consumer)
+ */
+public final class ChangeEvent {
+    private final ConfigurationNode<?> node;
+    private final NodePath prefix;
+    private final Set<NodePath> changedPaths;
+
+    ChangeEvent(ConfigurationNode<?> node, NodePath prefix, Set<NodePath> changedPaths) {
+        this.node = node;
+        this.prefix = prefix;
+        this.changedPaths = changedPaths;
+    }
+
+    /**
+     * Gets the node the listener was subscribed through.
+     *
+     * @return The node
+     */
+    @NonNull
+    public ConfigurationNode<?> getNode() {
+        return this.node;
+    }
+
+    /**
+     * Gets the path, relative to {@link #getNode()}, that the listener was subscribed to.
+     *
+     * @return The subscribed path
+     */
+    @NonNull
+    public NodePath getPrefix() {
+        return this.prefix;
+    }
+
+    /**
+     * Gets the paths that changed, relative to the root of the tree.
+     *
+     * <p>Each path is either within the subscribed subtree, or is a parent of it whose change
+     * replaced the subtree. Paths are listed once per batch, in the order they first
+     * changed.</p>
+     *
+     * @return The changed paths
+     */
+    @NonNull
+    public Set<NodePath> getChangedPaths() {
+        return this.changedPaths;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{prefix=" + this.prefix + ", changedPaths=" + this.changedPaths + '}';
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.transformation.NodePath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The change listeners registered on the root of a tree.
+ *
+ * <p>Registrations are stored in an array that is replaced on every change, so dispatching an
+ * event never locks the registry.</p>
+ *
+ * <p>Listeners are never run while a writer holds the monitor of a node. Changes made while the
+ * current thread holds one are deferred until it is released, and dispatched by
+ * {@link #dispatchDeferred()}.</p>
+ */
+final class ChangeListeners {
+    private static final Listener[] EMPTY = new Listener[0];
+
+    /**
+     * Changes made by the current thread while it holds the monitor of a node
+     */
+    private static final ThreadLocal<List<Deferred>> DEFERRED = new ThreadLocal<>();
+
+    /**
+     * The number of changes deferred by all threads, so writers can skip looking for their own
+     */
+    private static final AtomicInteger DEFERRED_COUNT = new AtomicInteger();
+
+    private volatile Listener[] listeners = EMPTY;
+
+    Subscription add(ConfigurationNode<?> node, NodePath prefix, Object[] absolutePrefix, Executor executor, Consumer<ChangeEvent> listener) {
+        final Listener ret = new Listener(node, prefix, absolutePrefix, executor, listener);
+        synchronized (this) {
+            final Listener[] old = this.listeners;
+            final Listener[] updated = Arrays.copyOf(old, old.length + 1);
+            updated[old.length] = ret;
+            this.listeners = updated;
+        }
+        return ret;
+    }
+
+    private synchronized void remove(Listener listener) {
+        final Listener[] old = this.listeners;
+        for (int i = 0; i < old.length; ++i) {
+            if (old[i] == listener) {
+                final Listener[] updated = new Listener[old.length - 1];
+                System.arraycopy(old, 0, updated, 0, i);
+                System.arraycopy(old, i + 1, updated, i, updated.length - i);
+                this.listeners = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Notify every listener whose subtree is affected by a change at the given path, once the
+     * current thread has released the monitor of {@code monitor}.
+     *
+     * @param path The path of the changed node, relative to the root
+     * @param monitor The outermost monitor held by the current thread, or null to dispatch now
+     */
+    void dispatch(Object[] path, @Nullable Object monitor) {
+        if (monitor == null) {
+            dispatch(path);
+            return;
+        }
+        List<Deferred> deferred = DEFERRED.get();
+        if (deferred == null) {
+            DEFERRED.set(deferred = new ArrayList<>());
+        }
+        deferred.add(new Deferred(this, path, monitor));
+        DEFERRED_COUNT.incrementAndGet();
+    }
+
+    /**
+     * Dispatch the changes deferred by the current thread whose monitors it has since released.
+     *
+     * <p>This must be called after releasing the monitor of a node that may have been
+     * modified.</p>
+     */
+    static void dispatchDeferred() {
+        if (DEFERRED_COUNT.get() == 0) {
+            return;
+        }
+        final List<Deferred> deferred = DEFERRED.get();
+        if (deferred == null || deferred.isEmpty()) {
+            return;
+        }
+
+        // listeners run by an executor on this thread may defer changes of their own
+        final List<Deferred> ready = new ArrayList<>();
+        for (Iterator<Deferred> it = deferred.iterator(); it.hasNext();) {
+            final Deferred next = it.next();
+            if (!Thread.holdsLock(next.monitor)) {
+                it.remove();
+                DEFERRED_COUNT.decrementAndGet();
+                ready.add(next);
+            }
+        }
+        for (Deferred next : ready) {
+            next.listeners.dispatch(next.path);
+        }
+    }
+
+    /**
+     * Notify every listener whose subtree is affected by a change at the given path.
+     *
+     * @param path The path of the changed node, relative to the root
+     */
+    private void dispatch(Object[] path) {
+        NodePath changed = null;
+        for (Listener listener : this.listeners) {
+            if (listener.matches(path)) {
+                if (changed == null) {
+                    changed = NodePath.create(path);
+                }
+                listener.offer(changed);
+            }
+        }
+    }
+
+    /**
+     * A change deferred until the current thread releases a monitor.
+     */
+    private static final class Deferred {
+        final ChangeListeners listeners;
+        final Object[] path;
+        final Object monitor;
+
+        Deferred(ChangeListeners listeners, Object[] path, Object monitor) {
+            this.listeners = listeners;
+            this.path = path;
+            this.monitor = monitor;
+        }
+    }
+
+    /**
+     * A single registration, which collects changes until its pending batch is delivered.
+     */
+    private final class Listener implements Subscription {
+        private final ConfigurationNode<?> node;
+        private final NodePath prefix;
+        private final Object[] absolutePrefix;
+        private final Executor executor;
+        private final Consumer<ChangeEvent> listener;
+        private volatile boolean closed;
+        private Set<NodePath> pending;
+
+        Listener(ConfigurationNode<?> node, NodePath prefix, Object[] absolutePrefix, Executor executor, Consumer<ChangeEvent> listener) {
+            this.node = node;
+            this.prefix = prefix;
+            this.absolutePrefix = absolutePrefix;
+            this.executor = executor;
+            this.listener = listener;
+        }
+
+        /**
+         * Gets whether a change at {@code path} affects the subscribed subtree, which is the
+         * case if either path is a prefix of the other.
+         *
+         * @param path The changed path
+         * @return If the subtree is affected
+         */
+        boolean matches(Object[] path) {
+            final int length = Math.min(path.length, this.absolutePrefix.length);
+            for (int i = 0; i < length; ++i) {
+                if (!Objects.equals(this.absolutePrefix[i], path[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void offer(NodePath path) {
+            final boolean schedule;
+            synchronized (this) {
+                schedule = this.pending == null;
+                if (schedule) {
+                    this.pending = new LinkedHashSet<>();
+                }
+                this.pending.add(path);
+            }
+            // changes made before the batch is delivered are added to the same batch
+            if (schedule) {
+                try {
+                    this.executor.execute(this::deliver);
+                } catch (RuntimeException ex) {
+                    // the change has already been made, so a rejected batch is dropped, and the
+                    // next change starts a new one
+                    synchronized (this) {
+                        this.pending = null;
+                    }
+                }
+            }
+        }
+
+        private void deliver() {
+            final Set<NodePath> batch;
+            synchronized (this) {
+                batch = this.pending;
+                this.pending = null;
+            }
+            if (!this.closed && batch != null) {
+                this.listener.accept(new ChangeEvent(this.node, this.prefix, Collections.unmodifiableSet(batch)));
+            }
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+            remove(this);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+/**
+ * The ways in which a tree of {@link ConfigurationNode}s can be accessed from multiple threads.
+ *
+ * @see ConfigurationOptions#withConcurrency(ConcurrencyMode)
+ */
+public enum ConcurrencyMode {
+
+    /**
+     * Nodes may be read and modified by any number of threads at once.
+     *
+     * <p>Modifications lock the node being modified, and children are held in the concurrent
+     * maps produced by {@link org.spongepowered.configurate.util.MapFactory#create()}.</p>
+     */
+    CONCURRENT,
+
+    /**
+     * Nodes are only ever accessed by a single thread at a time.
+     *
+     * <p>Modifications do not lock, and children are held in the plain maps produced by
+     * {@link org.spongepowered.configurate.util.MapFactory#createConfined()}. This is suited to
+     * loading and transforming a configuration on one thread, before it is
+     * {@link AbstractConfigurationNode#publish() published} to be shared with others.</p>
+     *
+     * <p>Accessing a confined tree from multiple threads without external synchronization may
+     * corrupt it.</p>
+     */
+    CONFINED
+
+}
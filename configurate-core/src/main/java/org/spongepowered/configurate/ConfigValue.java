@@ -19,7 +19,6 @@ package org.spongepowered.configurate;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-import java.util.Iterator;
 
 /**
  * The value in a {@link ConfigurationNode}.
@@ -28,9 +27,11 @@ abstract class ConfigValue<T extends AbstractConfigurationNode<T>> {
 
     /**
      * The node this value "belongs" to.
+     *
+     * Only changed when a value staged by {@link AbstractConfigurationNode#mutate} is published.
      */
     @NonNull
-    protected final T holder;
+    protected T holder;
 
     protected ConfigValue(@NonNull T holder) {
         this.holder = holder;
@@ -38,6 +39,16 @@ abstract class ConfigValue<T extends AbstractConfigurationNode<T>> {
 
     abstract ValueType getType();
 
+    /**
+     * Gets the value that operations on this value are ultimately performed on.
+     *
+     * @return The resolved value, which is this value unless it is loaded lazily
+     */
+    @NonNull
+    ConfigValue<T> resolve() {
+        return this;
+    }
+
     /**
      * Gets the value encapsulated by this instance
      *
@@ -106,17 +117,13 @@ abstract class ConfigValue<T extends AbstractConfigurationNode<T>> {
     abstract boolean isEmpty();
 
     /**
-     * Clears the set value (or any attached child values) from this value
+     * Detaches any children of this value from its holder, once the holder no longer uses this
+     * value.
+     *
+     * <p>The children are all detached at once without being visited, and keep their values.</p>
      */
     void clear() {
-        for (Iterator<T> it = iterateChildren().iterator(); it.hasNext();) {
-            T node = it.next();
-            node.attached = false;
-            it.remove();
-            if (node.getParentEnsureAttached().equals(holder)) {
-                node.clear();
-            }
-        }
+        this.holder.detachChildren();
     }
 
 }
@@ -24,10 +24,15 @@ import org.spongepowered.configurate.loader.ConfigurationLoader;
 import org.spongepowered.configurate.objectmapping.ObjectMappingException;
 import org.spongepowered.configurate.objectmapping.serialize.TypeSerializer;
 import org.spongepowered.configurate.transformation.NodePath;
+import org.spongepowered.configurate.util.ThrowingConsumer;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -134,6 +139,36 @@ public interface ConfigurationNode<T extends ConfigurationNode<T>> {
     @NonNull
     T getNode(@NonNull Iterable<Object> path);
 
+    /**
+     * Gets the node at the given (relative) path, if it is present in the structure.
+     *
+     * <p>Unlike {@link #getNode(Object...)}, no virtual nodes are created when the path does not
+     * exist, which makes this method preferable when the node is only being read.</p>
+     *
+     * @param path The path to fetch the node at
+     * @return The node at the given path, or null if there is no node at that path
+     */
+    @Nullable
+    default T findNode(@NonNull Object... path) {
+        final T node = getNode(path);
+        return node.isVirtual() ? null : node;
+    }
+
+    /**
+     * Gets the node at the given (relative) path, if it is present in the structure.
+     *
+     * <p>Unlike {@link #getNode(Iterable)}, no virtual nodes are created when the path does not
+     * exist, which makes this method preferable when the node is only being read.</p>
+     *
+     * @param path The path to fetch the node at
+     * @return The node at the given path, or null if there is no node at that path
+     */
+    @Nullable
+    default T findNode(@NonNull Iterable<Object> path) {
+        final T node = getNode(path);
+        return node.isVirtual() ? null : node;
+    }
+
     /**
      * Gets if this node is virtual.
      *
@@ -219,6 +254,148 @@ public interface ConfigurationNode<T extends ConfigurationNode<T>> {
     @NonNull
     Map<Object, T> getChildrenMap();
 
+    /**
+     * Gets a structural fingerprint of this node's value.
+     *
+     * <p>The fingerprint is a 64-bit hash of the value of this node and all of its children,
+     * which does not depend on the key of this node itself. Nodes with equal values always have
+     * equal fingerprints, so a difference in fingerprints shows that two subtrees differ.</p>
+     *
+     * <p>The converse does not hold: different values can collide, so equal fingerprints must
+     * not be taken to mean equal values. Callers that need certainty should compare the values
+     * once fingerprints match.</p>
+     *
+     * <p>Implementations may cache fingerprints, so that comparing an unchanged subtree takes
+     * constant time.</p>
+     *
+     * @return The fingerprint of this node
+     */
+    default long getFingerprint() {
+        return Fingerprints.of(this);
+    }
+
+    /**
+     * Listen for changes to the subtree at {@code prefix}, delivering events on the common
+     * fork-join pool.
+     *
+     * @param prefix The path, relative to this node, of the subtree to listen to
+     * @param listener The listener to notify
+     * @return A subscription, which can be closed to stop listening
+     * @see #subscribe(NodePath, Executor, Consumer)
+     */
+    @NonNull
+    default Subscription subscribe(@NonNull NodePath prefix, @NonNull Consumer<ChangeEvent> listener) {
+        return subscribe(prefix, ForkJoinPool.commonPool(), listener);
+    }
+
+    /**
+     * Listen for changes to the subtree at {@code prefix}.
+     *
+     * <p>A listener is notified when a node at or below the prefix is set, merged into, added or
+     * removed, and when a parent of the prefix changes in a way that replaces the subtree.
+     * Changes are collected into batches: the first change schedules delivery of an event on
+     * {@code executor}, and every matching change made before that event is delivered is
+     * included in it.</p>
+     *
+     * <p>Registering a listener on any node of a tree makes every change to that tree compute
+     * the changed path. Trees without listeners only pay for a single field read per
+     * change.</p>
+     *
+     * <p>Events are never delivered while the thread making a change holds a lock on the tree,
+     * so an executor that runs tasks immediately is safe to use. If the executor rejects a
+     * batch, that batch is dropped without affecting the change, and the next change starts a
+     * new batch.</p>
+     *
+     * @param prefix The path, relative to this node, of the subtree to listen to
+     * @param executor The executor to deliver events on
+     * @param listener The listener to notify
+     * @return A subscription, which can be closed to stop listening
+     * @throws UnsupportedOperationException If this node does not support listeners
+     */
+    @NonNull
+    default Subscription subscribe(@NonNull NodePath prefix, @NonNull Executor executor, @NonNull Consumer<ChangeEvent> listener) {
+        throw new UnsupportedOperationException("Nodes of type " + getClass() + " do not support change listeners");
+    }
+
+    /**
+     * Gets a read-only view of the "list children" attached to this node.
+     *
+     * <p>Unlike {@link #getChildrenList()}, the returned list is not a copy, and reflects later
+     * changes to this node's children. Iterating over the view operates on the children present
+     * when iteration began.</p>
+     *
+     * @return A view of the list children of this node
+     */
+    @NonNull
+    default List<T> getChildrenListView() {
+        return Collections.unmodifiableList(getChildrenList());
+    }
+
+    /**
+     * Gets a read-only view of the "map children" attached to this node.
+     *
+     * <p>Unlike {@link #getChildrenMap()}, the returned map is not a copy, and reflects later
+     * changes to this node's children. Iteration over the view is weakly consistent, in the same
+     * way as the node's {@link ConfigurationOptions#getMapFactory() map factory}.</p>
+     *
+     * @return A view of the map children of this node
+     */
+    @NonNull
+    default Map<Object, T> getChildrenMapView() {
+        return Collections.unmodifiableMap(getChildrenMap());
+    }
+
+    /**
+     * Performs an action on each child of this node, without copying the children.
+     *
+     * <p>List children are visited in order. For map children, the key of each child is
+     * available from {@link #getKey()}. A node without children performs no action.</p>
+     *
+     * @param action The action to perform
+     * @param <E> The type of exception the action may throw
+     * @throws E If thrown by the action
+     */
+    default <E extends Exception> void forEachChild(@NonNull ThrowingConsumer<? super T, E> action) throws E {
+        if (isList()) {
+            for (T child : getChildrenListView()) {
+                action.accept(child);
+            }
+        } else if (isMap()) {
+            for (T child : getChildrenMapView().values()) {
+                action.accept(child);
+            }
+        }
+    }
+
+    /**
+     * Report the structure of this node and its children to a visitor.
+     *
+     * <p>The events are those a loader would produce when reading this node from a document.
+     * Node types which hold additional data, such as comments, report it before their value.
+     * A node without a value produces no events, and neither do children without a value.</p>
+     *
+     * @param visitor The visitor
+     */
+    default void visit(@NonNull ConfigurationVisitor visitor) {
+        if (isMap()) {
+            visitor.beginMap();
+            forEachChild(child -> {
+                // a key must be followed by a value, so empty children are left out entirely
+                if (child.getValueType() != ValueType.NULL) {
+                    visitor.key(child.getKey());
+                    child.visit(visitor);
+                }
+            });
+            visitor.end();
+        } else if (isList()) {
+            visitor.beginList();
+            forEachChild(child -> child.visit(visitor));
+            visitor.end();
+        } else if (getValueType() != ValueType.NULL) {
+            visitor.scalar(getValue());
+        }
+    }
+
     /**
      * Get the current value associated with this node.
      *
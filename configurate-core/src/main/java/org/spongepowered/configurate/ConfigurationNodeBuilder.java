@@ -0,0 +1,386 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.attributed.AttributedConfigurationNode;
+import org.spongepowered.configurate.attributed.AttributedConfigurationVisitor;
+import org.spongepowered.configurate.commented.CommentedConfigurationNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Constructs the value of a node from a sequence of structural events, as produced when reading
+ * a document.
+ *
+ * <p>Nodes are created directly in their final place in the tree, without the attachment,
+ * locking and change tracking performed when values are set through the
+ * {@link ConfigurationNode} API. The completed value is then installed into the target node as
+ * a single change. The type of each scalar is checked against the target's options once per
+ * class, rather than once per value.</p>
+ *
+ * <p>A builder is not thread-safe, and nodes it returns must not be shared with other threads
+ * until building is complete.</p>
+ *
+ * <p>Events follow the structure of the document. Starting with the target node, the value of
+ * the current node is provided by calling either {@link #scalar(Object)}, or
+ * {@link #beginMap()} or {@link #beginList()}. Within a map, each child is started with
+ * {@link #key(Object)} and within a list with {@link #element()}, after which its value is
+ * provided in the same way. Maps and lists are completed with {@link #endMap()} and
+ * {@link #endList()}.</p>
+ *
+ * <p>The same events may instead be delivered through the {@link ConfigurationVisitor} returned
+ * by {@link #asVisitor()}, which is how loaders build the nodes they load.</p>
+ *
+ * @param <T> The type of node being built
+ */
+public final class ConfigurationNodeBuilder<T extends AbstractConfigurationNode<T>> {
+    private final T target;
+    private final Deque<Frame<T>> stack = new ArrayDeque<>();
+
+    /**
+     * The node whose value is expected next, or null if a key or the end of a container is
+     * expected.
+     */
+    @Nullable
+    private T current;
+
+    private ConfigurationNodeBuilder(T target) {
+        this.target = target;
+        this.current = target;
+    }
+
+    /**
+     * Create a builder that will replace the value of the given node.
+     *
+     * @param target The node to build into
+     * @param <T> The type of node
+     * @return A new builder
+     */
+    @NonNull
+    public static <T extends AbstractConfigurationNode<T>> ConfigurationNodeBuilder<T> into(@NonNull T target) {
+        return new ConfigurationNodeBuilder<>(requireNonNull(target, "target"));
+    }
+
+    /**
+     * Gets the node whose value is expected next.
+     *
+     * <p>Properties of the node other than its value, such as comments, may be set directly on
+     * the returned node.</p>
+     *
+     * @return The current node
+     * @throws IllegalStateException If a key, element or end of container is expected instead
+     */
+    @NonNull
+    public T current() {
+        if (this.current == null) {
+            throw new IllegalStateException("No value is expected at this point");
+        }
+        return this.current;
+    }
+
+    private T takeCurrent() {
+        final T node = current();
+        this.current = null;
+        return node;
+    }
+
+    /**
+     * Start a map as the value of the current node.
+     *
+     * @return This builder
+     */
+    @NonNull
+    public ConfigurationNodeBuilder<T> beginMap() {
+        final T node = takeCurrent();
+        this.stack.push(new Frame<>(node, new MapConfigValue<>(node), null));
+        return this;
+    }
+
+    /**
+     * Start a list as the value of the current node.
+     *
+     * @return This builder
+     */
+    @NonNull
+    public ConfigurationNodeBuilder<T> beginList() {
+        final T node = takeCurrent();
+        this.stack.push(new Frame<>(node, new ListConfigValue<>(node), new ArrayList<>()));
+        return this;
+    }
+
+    /**
+     * Start a child of the map currently being built. The child becomes the current node.
+     *
+     * @param key The key of the child
+     * @return The child node
+     * @throws IllegalStateException If a map is not currently being built
+     */
+    @NonNull
+    public T key(@NonNull Object key) {
+        requireNonNull(key, "key");
+        final Frame<T> frame = container(true);
+        final T child = frame.node.createNode(key);
+        child.markAttached();
+        return this.current = child;
+    }
+
+    /**
+     * Start the next element of the list currently being built. The element becomes the current
+     * node.
+     *
+     * @return The element node
+     * @throws IllegalStateException If a list is not currently being built
+     */
+    @NonNull
+    public T element() {
+        final Frame<T> frame = container(false);
+        // the real index is assigned once the element has a value
+        final T child = frame.node.createNode(-1);
+        child.markAttached();
+        return this.current = child;
+    }
+
+    /**
+     * Set a scalar value for the current node.
+     *
+     * <p>A null value leaves the node empty, so a child with a null value is not added to its
+     * parent.</p>
+     *
+     * @param value The value
+     * @return This builder
+     * @throws IllegalArgumentException If the type of the value is not accepted by the options
+     *                                  of the node
+     */
+    @NonNull
+    public ConfigurationNodeBuilder<T> scalar(@Nullable Object value) {
+        final T node = takeCurrent();
+        if (value != null) {
+            if (!node.getOptions().acceptsType(value.getClass())) {
+                throw new IllegalArgumentException("Configuration does not accept objects of type " + value.getClass());
+            }
+            complete(node, ScalarConfigValue.of(node, value, false));
+        } else {
+            complete(node, null);
+        }
+        return this;
+    }
+
+    /**
+     * Complete the map currently being built.
+     *
+     * @return This builder
+     * @throws IllegalStateException If a map is not currently being built
+     */
+    @NonNull
+    public ConfigurationNodeBuilder<T> endMap() {
+        final Frame<T> frame = container(true);
+        this.stack.pop();
+        complete(frame.node, frame.value);
+        return this;
+    }
+
+    /**
+     * Complete the list currently being built.
+     *
+     * @return This builder
+     * @throws IllegalStateException If a list is not currently being built
+     */
+    @NonNull
+    public ConfigurationNodeBuilder<T> endList() {
+        final Frame<T> frame = container(false);
+        this.stack.pop();
+        final List<T> elements = requireNonNull(frame.elements);
+        ((ListConfigValue<T>) frame.value).values.set(PersistentVector.fromArray(elements.toArray(), elements.size()));
+        complete(frame.node, frame.value);
+        return this;
+    }
+
+    /**
+     * Gets a visitor which builds into the target of this builder.
+     *
+     * <p>List elements are started automatically, and {@link ConfigurationVisitor#end()}
+     * completes whichever kind of container is open. Comments are set on
+     * {@link CommentedConfigurationNode}s, and since the returned visitor is also an
+     * {@link AttributedConfigurationVisitor}, tag names and attributes are set on
+     * {@link AttributedConfigurationNode}s. Both are ignored for other types of node.</p>
+     *
+     * @return A visitor for this builder
+     */
+    @NonNull
+    public ConfigurationVisitor asVisitor() {
+        return new Visitor();
+    }
+
+    /**
+     * Gets whether every map and list started has been completed.
+     *
+     * @return If building is complete
+     */
+    public boolean isComplete() {
+        return this.stack.isEmpty() && this.current != this.target;
+    }
+
+    private Frame<T> container(boolean map) {
+        final Frame<T> frame = this.stack.peek();
+        if (frame == null || this.current != null || (frame.elements == null) != map) {
+            throw new IllegalStateException("Not currently building a " + (map ? "map" : "list"));
+        }
+        return frame;
+    }
+
+    private void complete(T node, @Nullable ConfigValue<T> value) {
+        final Frame<T> parent = this.stack.peek();
+        if (parent == null) {
+            // the target node itself
+            if (value != null) {
+                this.target.setBuiltValue(value);
+            }
+            return;
+        }
+
+        if (value == null) {
+            return;
+        }
+        node.value = value;
+        if (parent.elements != null) {
+            node.key = parent.elements.size();
+            parent.elements.add(node);
+        } else {
+            ((MapConfigValue<T>) parent.value).values.put(node.key, node);
+        }
+    }
+
+    /**
+     * Adapts visitor events to the methods of this builder.
+     */
+    private final class Visitor implements AttributedConfigurationVisitor {
+        // properties of the next value, which are held until its node exists
+        @Nullable private String comment;
+        @Nullable private String tagName;
+        @Nullable private Map<String, String> attributes;
+
+        /**
+         * Prepare the node for the next value, and apply any properties reported for it.
+         */
+        private void beginValue() {
+            final Frame<T> frame = ConfigurationNodeBuilder.this.stack.peek();
+            if (ConfigurationNodeBuilder.this.current == null && frame != null && frame.elements != null) {
+                element();
+            }
+            final T node = current();
+            if (this.comment != null) {
+                if (node instanceof CommentedConfigurationNode<?>) {
+                    ((CommentedConfigurationNode<?>) node).setComment(this.comment);
+                }
+                this.comment = null;
+            }
+            if (this.tagName != null || this.attributes != null) {
+                if (node instanceof AttributedConfigurationNode<?>) {
+                    final AttributedConfigurationNode<?> attributed = (AttributedConfigurationNode<?>) node;
+                    if (this.tagName != null) {
+                        attributed.setTagName(this.tagName);
+                    }
+                    if (this.attributes != null) {
+                        for (Map.Entry<String, String> ent : this.attributes.entrySet()) {
+                            attributed.addAttribute(ent.getKey(), ent.getValue());
+                        }
+                    }
+                }
+                this.tagName = null;
+                this.attributes = null;
+            }
+        }
+
+        @Override
+        public void beginMap() {
+            beginValue();
+            ConfigurationNodeBuilder.this.beginMap();
+        }
+
+        @Override
+        public void key(@NonNull Object key) {
+            ConfigurationNodeBuilder.this.key(key);
+        }
+
+        @Override
+        public void beginList() {
+            beginValue();
+            ConfigurationNodeBuilder.this.beginList();
+        }
+
+        @Override
+        public void scalar(@Nullable Object value) {
+            beginValue();
+            ConfigurationNodeBuilder.this.scalar(value);
+        }
+
+        @Override
+        public void comment(@NonNull String comment) {
+            requireNonNull(comment, "comment");
+            this.comment = this.comment == null ? comment : this.comment + '\n' + comment;
+        }
+
+        @Override
+        public void tagName(@NonNull String name) {
+            this.tagName = requireNonNull(name, "name");
+        }
+
+        @Override
+        public void attribute(@NonNull String name, @NonNull String value) {
+            requireNonNull(name, "name");
+            requireNonNull(value, "value");
+            if (this.attributes == null) {
+                this.attributes = new LinkedHashMap<>();
+            }
+            this.attributes.put(name, value);
+        }
+
+        @Override
+        public void end() {
+            final Frame<T> frame = ConfigurationNodeBuilder.this.stack.peek();
+            if (frame == null) {
+                throw new IllegalStateException("No map or list is open");
+            }
+            if (frame.elements == null) {
+                endMap();
+            } else {
+                endList();
+            }
+        }
+    }
+
+    private static final class Frame<T extends AbstractConfigurationNode<T>> {
+        final T node;
+        final ConfigValue<T> value;
+        @Nullable final List<T> elements;
+
+        Frame(T node, ConfigValue<T> value, @Nullable List<T> elements) {
+            this.node = node;
+            this.value = value;
+            this.elements = elements;
+        }
+    }
+}
@@ -26,6 +26,8 @@ import org.spongepowered.configurate.objectmapping.ObjectMapperFactory;
 import org.spongepowered.configurate.objectmapping.serialize.TypeSerializerCollection;
 import org.spongepowered.configurate.util.MapFactories;
 import org.spongepowered.configurate.util.MapFactory;
+import org.spongepowered.configurate.util.StringPool;
+import org.spongepowered.configurate.util.StringPools;
 
 import java.util.Objects;
 import java.util.Set;
@@ -48,14 +50,31 @@ public class ConfigurationOptions {
     @Nullable private final ImmutableSet<Class<?>> acceptedTypes;
     @NonNull private final ObjectMapperFactory objectMapperFactory;
     private final boolean shouldCopyDefaults;
+    @NonNull private final StringPool stringPool;
+    private final boolean copyOnWrite;
+    @NonNull private final ConcurrencyMode concurrency;
 
-    private ConfigurationOptions(@NonNull MapFactory mapFactory, @Nullable String header, @NonNull TypeSerializerCollection serializers, @Nullable Set<Class<?>> acceptedTypes, @NonNull ObjectMapperFactory objectMapperFactory, boolean shouldCopyDefaults) {
+    /**
+     * Whether each type is accepted, computed on first use. Null if all types are accepted
+     */
+    @Nullable private final ClassValue<Boolean> acceptance;
+
+    private ConfigurationOptions(@NonNull MapFactory mapFactory, @Nullable String header, @NonNull TypeSerializerCollection serializers, @Nullable Set<Class<?>> acceptedTypes, @NonNull ObjectMapperFactory objectMapperFactory, boolean shouldCopyDefaults, @NonNull StringPool stringPool, boolean copyOnWrite, @NonNull ConcurrencyMode concurrency) {
         this.mapFactory = mapFactory;
         this.header = header;
         this.serializers = serializers;
         this.acceptedTypes = acceptedTypes == null ? null : ImmutableSet.copyOf(acceptedTypes);
         this.objectMapperFactory = objectMapperFactory;
         this.shouldCopyDefaults = shouldCopyDefaults;
+        this.stringPool = stringPool;
+        this.copyOnWrite = copyOnWrite;
+        this.concurrency = concurrency;
+        this.acceptance = this.acceptedTypes == null ? null : new ClassValue<Boolean>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                return computeAcceptsType(ConfigurationOptions.this.acceptedTypes, type);
+            }
+        };
     }
 
     /**
@@ -65,8 +84,8 @@ public class ConfigurationOptions {
      */
     @NonNull
     public static ConfigurationOptions defaults() {
-        return new ConfigurationOptions(MapFactories.insertionOrdered(), null,
-                TypeSerializerCollection.defaults(), null, DefaultObjectMapperFactory.getInstance(), false);
+        return new ConfigurationOptions(MapFactories.compact(), null,
+                TypeSerializerCollection.defaults(), null, DefaultObjectMapperFactory.getInstance(), false, StringPools.none(), false, ConcurrencyMode.CONCURRENT);
     }
 
     /**
@@ -92,7 +111,7 @@ public class ConfigurationOptions {
         if (this.mapFactory == mapFactory) {
             return this;
         }
-        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults);
+        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults, stringPool, copyOnWrite, concurrency);
     }
 
     /**
@@ -117,7 +136,7 @@ public class ConfigurationOptions {
         if (Objects.equals(this.header, header)) {
             return this;
         }
-        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults);
+        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults, stringPool, copyOnWrite, concurrency);
     }
 
     /**
@@ -143,7 +162,7 @@ public class ConfigurationOptions {
         if (this.serializers == serializers) {
             return this;
         }
-        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults);
+        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults, stringPool, copyOnWrite, concurrency);
     }
 
     /**
@@ -169,35 +188,38 @@ public class ConfigurationOptions {
         if (this.objectMapperFactory == objectMapperFactory) {
             return this;
         }
-        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults);
+        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults, stringPool, copyOnWrite, concurrency);
     }
 
     /**
      * Gets whether objects of the provided type are accepted as values for nodes with this as
      * their options object.
      *
+     * <p>The result is computed once for each type, and cached with this options object.</p>
+     *
      * @param type The type to check
      * @return Whether the type is accepted
      */
     public boolean acceptsType(@NonNull Class<?> type) {
         requireNonNull(type, "type");
 
-        if (this.acceptedTypes == null) {
-            return true;
-        }
-        if (this.acceptedTypes.contains(type)) {
+        return this.acceptance == null || this.acceptance.get(type);
+    }
+
+    private static boolean computeAcceptsType(ImmutableSet<Class<?>> acceptedTypes, Class<?> type) {
+        if (acceptedTypes.contains(type)) {
             return true;
         }
 
-        if (type.isPrimitive() && this.acceptedTypes.contains(Primitives.wrap(type))) {
+        if (type.isPrimitive() && acceptedTypes.contains(Primitives.wrap(type))) {
             return true;
         }
 
-        if (Primitives.isWrapperType(type) && this.acceptedTypes.contains(Primitives.unwrap(type))) {
+        if (Primitives.isWrapperType(type) && acceptedTypes.contains(Primitives.unwrap(type))) {
             return true;
         }
 
-        for (Class<?> clazz : this.acceptedTypes) {
+        for (Class<?> clazz : acceptedTypes) {
             if (clazz.isAssignableFrom(type)) {
                 return true;
             }
@@ -222,7 +244,7 @@ public class ConfigurationOptions {
         if (Objects.equals(this.acceptedTypes, acceptedTypes)) {
             return this;
         }
-        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults);
+        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults, stringPool, copyOnWrite, concurrency);
     }
 
     /**
@@ -248,7 +270,101 @@ public class ConfigurationOptions {
         if (this.shouldCopyDefaults == shouldCopyDefaults) {
             return this;
         }
-        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults);
+        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults, stringPool, copyOnWrite, concurrency);
+    }
+
+    /**
+     * Gets the {@link StringPool} used by loaders to deduplicate map keys and scalar strings.
+     *
+     * <p>By default, no deduplication is performed.</p>
+     *
+     * @return The string pool
+     */
+    @NonNull
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Creates a new {@link ConfigurationOptions} instance, with the specified {@link StringPool}
+     * set, and all other settings copied from this instance.
+     *
+     * <p>Sharing a single pool between several loads allows strings to be deduplicated across
+     * all of the loaded configurations.</p>
+     *
+     * @param stringPool The string pool to use for loading
+     * @return updated options object
+     * @see StringPools
+     */
+    @NonNull
+    public ConfigurationOptions withStringPool(@NonNull StringPool stringPool) {
+        requireNonNull(stringPool, "stringPool");
+        if (this.stringPool == stringPool) {
+            return this;
+        }
+        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults, stringPool, copyOnWrite, concurrency);
+    }
+
+    /**
+     * Gets whether {@link ConfigurationNode#copy()} creates copy-on-write copies of nodes.
+     *
+     * <p>A copy-on-write copy initially shares the children of the original node, and only
+     * copies them once they are accessed through the copy, or the original is modified. Each
+     * child is copied in the same way, so the cost of a copy is proportional to the parts of it
+     * that are actually used, rather than to the size of the original.</p>
+     *
+     * <p>By default, nodes are copied eagerly.</p>
+     *
+     * @return Whether nodes are copied on write
+     */
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    /**
+     * Creates a new {@link ConfigurationOptions} instance, with the specified 'copy on write'
+     * setting set, and all other settings copied from this instance.
+     *
+     * @see #isCopyOnWrite() for information on what this method does
+     * @param copyOnWrite whether to copy nodes on write
+     * @return updated options object
+     */
+    @NonNull
+    public ConfigurationOptions withCopyOnWrite(boolean copyOnWrite) {
+        if (this.copyOnWrite == copyOnWrite) {
+            return this;
+        }
+        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults, stringPool, copyOnWrite, concurrency);
+    }
+
+    /**
+     * Gets the {@link ConcurrencyMode} of nodes created with these options.
+     *
+     * <p>By default, nodes are {@link ConcurrencyMode#CONCURRENT} and can be shared between
+     * threads.</p>
+     *
+     * @return The concurrency mode
+     */
+    @NonNull
+    public ConcurrencyMode getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Creates a new {@link ConfigurationOptions} instance, with the specified
+     * {@link ConcurrencyMode} set, and all other settings copied from this instance.
+     *
+     * @see #getConcurrency() for information on what this method does
+     * @param concurrency The concurrency mode to use
+     * @return updated options object
+     */
+    @NonNull
+    public ConfigurationOptions withConcurrency(@NonNull ConcurrencyMode concurrency) {
+        requireNonNull(concurrency, "concurrency");
+        if (this.concurrency == concurrency) {
+            return this;
+        }
+        return new ConfigurationOptions(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults, stringPool, copyOnWrite, concurrency);
     }
 
     @Override
@@ -257,16 +373,19 @@ public class ConfigurationOptions {
         if (!(o instanceof ConfigurationOptions)) return false;
         ConfigurationOptions that = (ConfigurationOptions) o;
         return Objects.equals(shouldCopyDefaults, that.shouldCopyDefaults) &&
+                copyOnWrite == that.copyOnWrite &&
+                concurrency == that.concurrency &&
                 Objects.equals(mapFactory, that.mapFactory) &&
                 Objects.equals(header, that.header) &&
                 Objects.equals(serializers, that.serializers) &&
                 Objects.equals(acceptedTypes, that.acceptedTypes) &&
-                Objects.equals(objectMapperFactory, that.objectMapperFactory);
+                Objects.equals(objectMapperFactory, that.objectMapperFactory) &&
+                Objects.equals(stringPool, that.stringPool);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults);
+        return Objects.hash(mapFactory, header, serializers, acceptedTypes, objectMapperFactory, shouldCopyDefaults, stringPool, copyOnWrite, concurrency);
     }
 
     @Override
@@ -278,6 +397,9 @@ public class ConfigurationOptions {
                 ", acceptedTypes=" + acceptedTypes +
                 ", objectMapperFactory=" + objectMapperFactory +
                 ", shouldCopyDefaults=" + shouldCopyDefaults +
+                ", stringPool=" + stringPool +
+                ", copyOnWrite=" + copyOnWrite +
+                ", concurrency=" + concurrency +
                 '}';
     }
 }
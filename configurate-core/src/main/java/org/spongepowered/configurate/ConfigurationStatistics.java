@@ -0,0 +1,469 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.attributed.AttributedConfigurationNode;
+import org.spongepowered.configurate.commented.CommentedConfigurationNode;
+import org.spongepowered.configurate.transformation.NodePath;
+import org.spongepowered.configurate.util.CompactStorage;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Statistics about the shape and estimated memory use of a configuration tree.
+ *
+ * <p>Statistics are collected by walking every node below a starting node once. For each node,
+ * the estimate includes the node object itself, its value, the map or list holding its
+ * children, its key, and any comment or attributes. Sizes are estimated from the fields of each
+ * class, assuming a 64-bit JVM with compressed references, and do not account for objects held
+ * by the node's {@link ConfigurationOptions}. Strings and other objects shared between several
+ * nodes are only counted once, for the first node they are found in.</p>
+ *
+ * <p>Values which have not yet been read, such as those loaded lazily or copied on write, are
+ * not expanded, and are counted as a single node without children.</p>
+ */
+public final class ConfigurationStatistics {
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int HASH_ENTRY = 32;
+
+    private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long size = OBJECT_HEADER;
+            for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += fieldSize(field.getType());
+                    }
+                }
+            }
+            return align(size);
+        }
+    };
+
+    private final Map<ValueType, Integer> nodeCounts;
+    private final SortedMap<Integer, Integer> depthHistogram;
+    private final SortedMap<Integer, Integer> fanOutHistogram;
+    private final long retainedBytes;
+    private final Map<NodePath, Long> subtreeBytes;
+    private final int stringCount;
+    private final int duplicateStringCount;
+    private final long duplicateStringBytes;
+
+    private ConfigurationStatistics(Collector collector, long retainedBytes) {
+        this.nodeCounts = Collections.unmodifiableMap(collector.nodeCounts);
+        this.depthHistogram = Collections.unmodifiableSortedMap(collector.depthHistogram);
+        this.fanOutHistogram = Collections.unmodifiableSortedMap(collector.fanOutHistogram);
+        this.retainedBytes = retainedBytes;
+
+        // largest subtrees first
+        final List<Map.Entry<NodePath, Long>> subtrees = new ArrayList<>(collector.subtreeBytes.entrySet());
+        subtrees.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        final Map<NodePath, Long> subtreeBytes = new LinkedHashMap<>();
+        for (Map.Entry<NodePath, Long> ent : subtrees) {
+            subtreeBytes.put(ent.getKey(), ent.getValue());
+        }
+        this.subtreeBytes = Collections.unmodifiableMap(subtreeBytes);
+
+        this.stringCount = collector.stringCount;
+        this.duplicateStringCount = collector.duplicateStringCount;
+        this.duplicateStringBytes = collector.duplicateStringBytes;
+    }
+
+    /**
+     * Collect statistics about a node and all of its children, recording the size of each
+     * subtree directly below {@code node}.
+     *
+     * @param node The node to start from
+     * @return The statistics
+     */
+    @NonNull
+    public static ConfigurationStatistics collect(@NonNull ConfigurationNode<?> node) {
+        return collect(node, 1);
+    }
+
+    /**
+     * Collect statistics about a node and all of its children.
+     *
+     * <p>The retained size of every subtree up to {@code subtreeDepth} levels below {@code node}
+     * is recorded, and available from {@link #getSubtreeRetainedBytes()}.</p>
+     *
+     * @param node The node to start from
+     * @param subtreeDepth The number of levels to record subtree sizes for
+     * @return The statistics
+     */
+    @NonNull
+    public static ConfigurationStatistics collect(@NonNull ConfigurationNode<?> node, int subtreeDepth) {
+        requireNonNull(node, "node");
+        if (subtreeDepth < 0) {
+            throw new IllegalArgumentException("Subtree depth must not be negative, but was " + subtreeDepth);
+        }
+        final Collector collector = new Collector(subtreeDepth);
+        final long retained = collector.visit(node, 0);
+        return new ConfigurationStatistics(collector, retained);
+    }
+
+    /**
+     * Gets the total number of nodes in the tree, including the starting node.
+     *
+     * @return The number of nodes
+     */
+    public int getNodeCount() {
+        int count = 0;
+        for (int typeCount : this.nodeCounts.values()) {
+            count += typeCount;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of nodes in the tree holding a value of the given type.
+     *
+     * @param type The value type
+     * @return The number of nodes
+     */
+    public int getNodeCount(@NonNull ValueType type) {
+        final Integer count = this.nodeCounts.get(requireNonNull(type, "type"));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Gets the number of nodes at each depth, where the starting node is at depth 0.
+     *
+     * @return The number of nodes, by depth
+     */
+    @NonNull
+    public SortedMap<Integer, Integer> getDepthHistogram() {
+        return this.depthHistogram;
+    }
+
+    /**
+     * Gets the depth of the deepest node in the tree, where the starting node is at depth 0.
+     *
+     * @return The maximum depth
+     */
+    public int getMaxDepth() {
+        return this.depthHistogram.lastKey();
+    }
+
+    /**
+     * Gets the number of map and list nodes with each number of children.
+     *
+     * @return The number of nodes, by child count
+     */
+    @NonNull
+    public SortedMap<Integer, Integer> getFanOutHistogram() {
+        return this.fanOutHistogram;
+    }
+
+    /**
+     * Gets the estimated number of bytes retained by the whole tree.
+     *
+     * @return The estimated size
+     */
+    public long getRetainedBytes() {
+        return this.retainedBytes;
+    }
+
+    /**
+     * Gets the estimated number of bytes retained by each recorded subtree, with the largest
+     * subtrees first.
+     *
+     * <p>Paths are relative to the starting node.</p>
+     *
+     * @return The estimated sizes, by path
+     */
+    @NonNull
+    public Map<NodePath, Long> getSubtreeRetainedBytes() {
+        return this.subtreeBytes;
+    }
+
+    /**
+     * Gets the number of distinct string instances used as keys, values, comments, and
+     * attributes in the tree.
+     *
+     * @return The number of strings
+     */
+    public int getStringCount() {
+        return this.stringCount;
+    }
+
+    /**
+     * Gets the number of string instances which are equal to another string instance in the
+     * tree, and could therefore be shared.
+     *
+     * @return The number of duplicate strings
+     * @see ConfigurationOptions#withStringPool(org.spongepowered.configurate.util.StringPool)
+     */
+    public int getDuplicateStringCount() {
+        return this.duplicateStringCount;
+    }
+
+    /**
+     * Gets the estimated number of bytes retained by duplicate strings.
+     *
+     * @return The estimated size of duplicates
+     * @see #getDuplicateStringCount()
+     */
+    public long getDuplicateStringBytes() {
+        return this.duplicateStringBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigurationStatistics{" +
+                "nodeCounts=" + this.nodeCounts +
+                ", maxDepth=" + getMaxDepth() +
+                ", retainedBytes=" + this.retainedBytes +
+                ", stringCount=" + this.stringCount +
+                ", duplicateStringCount=" + this.duplicateStringCount +
+                ", duplicateStringBytes=" + this.duplicateStringBytes +
+                '}';
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        } else {
+            return REFERENCE;
+        }
+    }
+
+    static long shallowSize(Class<?> type) {
+        return SHALLOW_SIZES.get(type);
+    }
+
+    static long referenceArraySize(int length) {
+        return align(ARRAY_HEADER + (long) REFERENCE * length);
+    }
+
+    /**
+     * Estimate the size of a map's own structure, not including its keys and values.
+     *
+     * <p>Compact maps are sized from the array holding their entries, or from the map they were
+     * promoted to. Any other map is estimated as a hash table.</p>
+     *
+     * @param map The map
+     * @return The estimated size
+     */
+    static long mapSize(Map<?, ?> map) {
+        if (map instanceof CompactStorage) {
+            final CompactStorage compact = (CompactStorage) map;
+            final Map<?, ?> promoted = compact.getPromoted();
+            if (promoted != null) {
+                return shallowSize(map.getClass()) + mapSize(promoted);
+            }
+            // empty compact maps share a single empty array
+            final int length = compact.getArrayLength();
+            return shallowSize(map.getClass()) + (length == 0 ? 0 : referenceArraySize(length));
+        }
+
+        final int size = map.size();
+        int capacity = 16;
+        while (capacity * 3 < size * 4) {
+            capacity <<= 1;
+        }
+        return shallowSize(map.getClass()) + referenceArraySize(capacity) + (long) HASH_ENTRY * size;
+    }
+
+    /**
+     * Estimate the size of a {@link PersistentVector}'s own structure, not including its
+     * elements.
+     *
+     * @param size The number of elements
+     * @return The estimated size
+     */
+    static long vectorSize(int size) {
+        // one full array of references for every 32 elements, plus the tail and root arrays
+        final long leaves = (size + 31) / 32;
+        return shallowSize(PersistentVector.class) + referenceArraySize(32) * (leaves + 1);
+    }
+
+    static long stringSize(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length(); ++i) {
+            if (value.charAt(i) > 0xff) {
+                latin1 = false;
+                break;
+            }
+        }
+        return shallowSize(String.class) + align(ARRAY_HEADER + (long) value.length() * (latin1 ? 1 : 2));
+    }
+
+    /**
+     * The state of a single walk over a tree.
+     */
+    private static final class Collector {
+        final int subtreeDepth;
+        final Map<ValueType, Integer> nodeCounts = new EnumMap<>(ValueType.class);
+        final SortedMap<Integer, Integer> depthHistogram = new TreeMap<>();
+        final SortedMap<Integer, Integer> fanOutHistogram = new TreeMap<>();
+        final Map<NodePath, Long> subtreeBytes = new LinkedHashMap<>();
+        final Object[] path;
+
+        final Map<Object, Boolean> seenObjects = new IdentityHashMap<>();
+        final Set<String> seenStrings = new HashSet<>();
+        int stringCount;
+        int duplicateStringCount;
+        long duplicateStringBytes;
+
+        Collector(int subtreeDepth) {
+            this.subtreeDepth = subtreeDepth;
+            this.path = new Object[subtreeDepth];
+        }
+
+        private static <K> void increment(Map<K, Integer> counts, K key) {
+            counts.merge(key, 1, Integer::sum);
+        }
+
+        /**
+         * Visit a node and its children.
+         *
+         * @param node The node
+         * @param depth The depth of the node, relative to the starting node
+         * @return The estimated size retained by the node and its children
+         */
+        long visit(ConfigurationNode<?> node, int depth) {
+            increment(this.depthHistogram, depth);
+            long size = shallowSize(node.getClass()) + sizeOf(depth == 0 ? null : node.getKey());
+
+            if (node instanceof CommentedConfigurationNode<?>) {
+                size += sizeOf(((CommentedConfigurationNode<?>) node).getComment().orElse(null));
+            }
+            if (node instanceof AttributedConfigurationNode<?>) {
+                final AttributedConfigurationNode<?> attributed = (AttributedConfigurationNode<?>) node;
+                final Map<String, String> attributes = attributed.getAttributes();
+                size += sizeOf(attributed.getTagName()) + mapSize(attributes);
+                for (Map.Entry<String, String> ent : attributes.entrySet()) {
+                    size += sizeOf(ent.getKey()) + sizeOf(ent.getValue());
+                }
+            }
+
+            final ValueType type;
+            if (node instanceof AbstractConfigurationNode<?>) {
+                final ConfigValue<?> value = ((AbstractConfigurationNode<?>) node).value;
+                type = value.getType();
+                size += shallowSize(value.getClass());
+                if (value instanceof MapConfigValue<?>) {
+                    size += mapSize(((MapConfigValue<?>) value).values);
+                } else if (value instanceof ListConfigValue<?>) {
+                    size += shallowSize(((ListConfigValue<?>) value).values.getClass())
+                            + vectorSize(((ListConfigValue<?>) value).values.get().size());
+                } else if (value instanceof ScalarConfigValue.ObjectScalar<?>) {
+                    // the other scalar variants hold a primitive, which is part of their own size
+                    size += sizeOf(value.getValue());
+                }
+                if (!(value instanceof MapConfigValue<?> || value instanceof ListConfigValue<?>)) {
+                    // values which are not yet read are not expanded
+                    increment(this.nodeCounts, type);
+                    return size;
+                }
+            } else {
+                type = node.getValueType();
+                if (!type.canHaveChildren()) {
+                    size += sizeOf(node.getValue());
+                }
+            }
+            increment(this.nodeCounts, type);
+
+            if (type.canHaveChildren()) {
+                final int childDepth = depth + 1;
+                final int[] children = new int[1];
+                final long[] childSizes = new long[1];
+                node.forEachChild(child -> {
+                    ++children[0];
+                    if (childDepth <= this.subtreeDepth) {
+                        this.path[childDepth - 1] = child.getKey();
+                    }
+                    final long childSize = visit(child, childDepth);
+                    if (childDepth <= this.subtreeDepth) {
+                        final Object[] childPath = new Object[childDepth];
+                        System.arraycopy(this.path, 0, childPath, 0, childDepth);
+                        this.subtreeBytes.put(NodePath.create(childPath), childSize);
+                    }
+                    childSizes[0] += childSize;
+                });
+                increment(this.fanOutHistogram, children[0]);
+                size += childSizes[0];
+            }
+            return size;
+        }
+
+        /**
+         * Estimate the size of a key or scalar value, if it has not already been counted.
+         *
+         * @param value The value
+         * @return The estimated size, or 0 if the value is shared
+         */
+        long sizeOf(@Nullable Object value) {
+            if (value == null || value instanceof Boolean || value instanceof Enum<?>) {
+                return 0;
+            }
+            if (isCachedBox(value) || this.seenObjects.put(value, Boolean.TRUE) != null) {
+                return 0;
+            }
+
+            if (value instanceof String) {
+                final String string = (String) value;
+                final long size = stringSize(string);
+                ++this.stringCount;
+                if (!this.seenStrings.add(string)) {
+                    ++this.duplicateStringCount;
+                    this.duplicateStringBytes += size;
+                }
+                return size;
+            }
+            return shallowSize(value.getClass());
+        }
+
+        private static boolean isCachedBox(Object value) {
+            if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof Long) {
+                final long number = ((Number) value).longValue();
+                return number >= -128 && number <= 127;
+            }
+            return value instanceof Character && (Character) value <= 127;
+        }
+    }
+}
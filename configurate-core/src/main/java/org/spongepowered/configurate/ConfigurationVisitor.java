@@ -0,0 +1,81 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.loader.ConfigurationLoader;
+
+/**
+ * Receives the structure of a configuration as a sequence of events.
+ *
+ * <p>Visitors allow a configuration to be processed as it is read by a
+ * {@link ConfigurationLoader#visit(ConfigurationVisitor) loader}, without building a tree of
+ * nodes. Loaders which read their format incrementally can then process documents far larger
+ * than would fit in memory. Building nodes is itself one kind of visitor, see
+ * {@link ConfigurationNodeBuilder#asVisitor()}.</p>
+ *
+ * <p>Events follow the structure of the document. A value is either a single call to
+ * {@link #scalar(Object)}, or a call to {@link #beginMap()} or {@link #beginList()} followed by
+ * the contents of the container and a call to {@link #end()}. Each entry of a map is a call to
+ * {@link #key(Object)} followed by the entry's value, and each element of a list is simply its
+ * value. An empty document produces no events.</p>
+ *
+ * <p>A {@link #comment(String) comment} may be reported before any value, and applies to the
+ * next value to be visited.</p>
+ */
+public interface ConfigurationVisitor {
+
+    /**
+     * Start a map. Its entries follow, until the matching call to {@link #end()}.
+     */
+    void beginMap();
+
+    /**
+     * Start an entry of the current map. The entry's value follows.
+     *
+     * @param key The key of the entry
+     */
+    void key(@NonNull Object key);
+
+    /**
+     * Start a list. Its elements follow, until the matching call to {@link #end()}.
+     */
+    void beginList();
+
+    /**
+     * Visit a scalar value.
+     *
+     * @param value The value, or null for an explicitly empty value
+     */
+    void scalar(@Nullable Object value);
+
+    /**
+     * Visit a comment attached to the next value.
+     *
+     * <p>The comment may span several lines, which are separated by {@code \n}. Formats which
+     * do not preserve comments will never report them.</p>
+     *
+     * @param comment The comment
+     */
+    void comment(@NonNull String comment);
+
+    /**
+     * End the map or list most recently started.
+     */
+    void end();
+}
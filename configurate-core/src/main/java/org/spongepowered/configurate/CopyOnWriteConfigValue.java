@@ -0,0 +1,161 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link ConfigValue} which shares the children of the node it was copied from, until they are
+ * first needed.
+ *
+ * <p>The first operation that needs this value's children copies the current value of the
+ * source node, which then replaces this value in its holder. Only one level is copied at a time,
+ * as the copied children are themselves copy-on-write copies of the source's children.</p>
+ *
+ * <p>Before the source node or any of its parents are modified, every pending copy of them is
+ * resolved, so a copy never observes changes made to its source after it was created. Changing
+ * a single node therefore only copies the nodes along the path to it.</p>
+ */
+final class CopyOnWriteConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValue<T> {
+    private final T source;
+    private final ValueType type;
+    private volatile @Nullable ConfigValue<T> resolved;
+
+    CopyOnWriteConfigValue(@NonNull T holder, @NonNull T source) {
+        super(holder);
+        this.source = source;
+        this.type = source.value.getType();
+        if (!this.type.canHaveChildren()) {
+            throw new IllegalArgumentException("Only maps and lists can be copied on write, but got " + this.type);
+        }
+    }
+
+    /**
+     * Gets whether this value still shares its children with its source, and is still the value
+     * of its holder.
+     *
+     * @return Whether this copy is pending
+     */
+    boolean isPending() {
+        return this.resolved == null && this.holder.value == this;
+    }
+
+    @Override
+    ConfigValue<T> resolve() {
+        ConfigValue<T> resolved = this.resolved;
+        if (resolved == null) {
+            if (this.holder.isConfined()) {
+                resolved = copySource();
+            } else {
+                synchronized (this.holder) {
+                    resolved = this.resolved;
+                    if (resolved == null) {
+                        resolved = copySource();
+                    }
+                }
+            }
+        }
+        return resolved;
+    }
+
+    private ConfigValue<T> copySource() {
+        // copies the direct children only, which are copied on write themselves
+        final ConfigValue<T> resolved = this.source.value.resolve().copy(this.holder);
+        this.resolved = resolved;
+        if (this.holder.value == this) {
+            this.holder.value = resolved;
+        }
+        return resolved;
+    }
+
+    @Override
+    ValueType getType() {
+        return this.type;
+    }
+
+    @Nullable
+    @Override
+    Object getValue() {
+        return resolve().getValue();
+    }
+
+    @Override
+    void setValue(@Nullable Object value) {
+        resolve().setValue(value);
+    }
+
+    @Nullable
+    @Override
+    T putChild(@NonNull Object key, @Nullable T value) {
+        return resolve().putChild(key, value);
+    }
+
+    @Nullable
+    @Override
+    T putChildIfAbsent(@NonNull Object key, @Nullable T value) {
+        return resolve().putChildIfAbsent(key, value);
+    }
+
+    @Nullable
+    @Override
+    T getChild(@Nullable Object key) {
+        return resolve().getChild(key);
+    }
+
+    @NonNull
+    @Override
+    Iterable<T> iterateChildren() {
+        return resolve().iterateChildren();
+    }
+
+    @NonNull
+    @Override
+    ConfigValue<T> copy(@NonNull T holder) {
+        return resolve().copy(holder);
+    }
+
+    @Override
+    boolean isEmpty() {
+        return resolve().isEmpty();
+    }
+
+    @Override
+    void clear() {
+        // no children are attached until the value has been copied
+        final ConfigValue<T> resolved = this.resolved;
+        if (resolved != null) {
+            resolved.clear();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || resolve().equals(o instanceof ConfigValue<?> ? ((ConfigValue<?>) o).resolve() : o);
+    }
+
+    @Override
+    public int hashCode() {
+        return resolve().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        final ConfigValue<T> resolved = this.resolved;
+        return resolved == null ? "CopyOnWriteConfigValue{type=" + this.type + '}' : resolved.toString();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The structural hash function used for node fingerprints.
+ *
+ * <p>A fingerprint depends only on the value of a node and its children, and not on the
+ * node's own key or position. Map fingerprints are independent of iteration order, matching
+ * map equality, while list fingerprints depend on element order.</p>
+ *
+ * <p>Like any hash, fingerprints can collide, so equal fingerprints do not prove that two
+ * values are equal.</p>
+ */
+final class Fingerprints {
+    static final long NULL = 0x5bd1e9955bd1e995L;
+    private static final long LIST_SEED = 0x27d4eb2f165667c5L;
+    private static final long MAP_SEED = 0x165667b19e3779f9L;
+    private static final long MULTIPLIER = 0x9e3779b97f4a7c15L;
+
+    private Fingerprints() {
+    }
+
+    /**
+     * Scramble the bits of a hash, using the finalizer from SplitMix64.
+     *
+     * @param z The input
+     * @return The mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    static long ofScalar(@Nullable Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        // include the type, so equal-looking values of different types are told apart
+        return mix(value.getClass().getName().hashCode() * MULTIPLIER ^ bitsOf(value));
+    }
+
+    /**
+     * Get up to 64 bits identifying a scalar value, consistent with its {@link Object#equals}.
+     *
+     * <p>The common scalar types use all of their bits, rather than the 32 bits of
+     * {@link Object#hashCode()}.</p>
+     *
+     * @param value The value
+     * @return The bits of the value
+     */
+    private static long bitsOf(@NonNull Object value) {
+        if (value instanceof String) {
+            return hashString((String) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Double) {
+            return Double.doubleToLongBits((Double) value);
+        } else if (value instanceof Float) {
+            return Float.floatToIntBits((Float) value);
+        } else {
+            return value.hashCode();
+        }
+    }
+
+    /**
+     * Hash a string with 64-bit FNV-1a.
+     *
+     * @param value The string
+     * @return The hash
+     */
+    private static long hashString(@NonNull String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); ++i) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static long startList() {
+        return LIST_SEED;
+    }
+
+    static long addListElement(long accumulator, long element) {
+        return accumulator * MULTIPLIER + element;
+    }
+
+    static long finishList(long accumulator) {
+        return mix(accumulator);
+    }
+
+    static long startMap() {
+        return MAP_SEED;
+    }
+
+    static long addMapEntry(long accumulator, @NonNull Object key, long value) {
+        return accumulator + mix(ofScalar(key) * MULTIPLIER ^ value);
+    }
+
+    static long finishMap(long accumulator) {
+        return mix(accumulator);
+    }
+
+    /**
+     * Compute the fingerprint of an arbitrary node, without caching.
+     *
+     * @param node The node
+     * @return The fingerprint
+     */
+    static long of(@NonNull ConfigurationNode<?> node) {
+        if (node.isList()) {
+            long ret = startList();
+            for (ConfigurationNode<?> child : node.getChildrenListView()) {
+                ret = addListElement(ret, child.getFingerprint());
+            }
+            return finishList(ret);
+        } else if (node.isMap()) {
+            long ret = startMap();
+            for (ConfigurationNode<?> child : node.getChildrenMapView().values()) {
+                ret = addMapEntry(ret, child.getKey(), child.getFingerprint());
+            }
+            return finishMap(ret);
+        } else {
+            return ofScalar(node.getValue());
+        }
+    }
+}
@@ -0,0 +1,805 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeParameter;
+import com.google.common.reflect.TypeToken;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.loader.ConfigurationLoader;
+import org.spongepowered.configurate.objectmapping.ObjectMappingException;
+import org.spongepowered.configurate.objectmapping.serialize.TypeSerializer;
+import org.spongepowered.configurate.transformation.NodePath;
+import org.spongepowered.configurate.util.ThrowingConsumer;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A read-only {@link ConfigurationNode} backed by a compact columnar encoding.
+ *
+ * <p>Rather than holding an object for every node and value, a flat configuration stores its
+ * whole tree in a few parallel arrays, packed into a single buffer that can optionally be
+ * allocated outside of the heap. Numbers and booleans are stored inline, and strings and keys
+ * are deduplicated. Siblings are stored next to each other, so scanning a flat configuration
+ * touches memory sequentially.</p>
+ *
+ * <p>Flat nodes are lightweight views which are created as the tree is navigated, and hold no
+ * data of their own. They are best suited to very large configurations which are loaded once
+ * and then only read. Methods inherited from {@link ConfigurationNode} which would modify the
+ * node throw an {@link UnsupportedOperationException}.</p>
+ *
+ * <p>Comments, attributes, and other additional data held by specialized node types are not
+ * captured in a flat configuration.</p>
+ */
+public final class FlatConfigurationNode implements ConfigurationNode<FlatConfigurationNode> {
+
+    @NonNull
+    private final FlatStorage storage;
+
+    @NonNull
+    private final ConfigurationOptions options;
+
+    @Nullable
+    private final FlatConfigurationNode parent;
+
+    @Nullable
+    private final Object key;
+
+    /**
+     * The index of this node in {@link #storage}, or -1 if this node is virtual
+     */
+    private final int index;
+
+    private FlatConfigurationNode(@NonNull FlatStorage storage, @NonNull ConfigurationOptions options,
+                                  @Nullable FlatConfigurationNode parent, @Nullable Object key, int index) {
+        this.storage = storage;
+        this.options = options;
+        this.parent = parent;
+        this.key = key;
+        this.index = index;
+    }
+
+    /**
+     * Create a flat copy of the provided node, which will become the root of the new tree.
+     *
+     * <p>The copy is taken without locking the source node, so it is not guaranteed to be a
+     * consistent view if the source is modified by another thread while the copy is made.</p>
+     *
+     * @param node The node to copy
+     * @return A new flat root node
+     */
+    @NonNull
+    public static FlatConfigurationNode copyOf(@NonNull ConfigurationNode<?> node) {
+        return copyOf(node, false);
+    }
+
+    /**
+     * Create a flat copy of the provided node, which will become the root of the new tree.
+     *
+     * <p>When {@code offHeap} is true, the structure of the tree and all numeric and boolean
+     * values are stored in a direct buffer outside of the Java heap. Keys and other values are
+     * always held on the heap.</p>
+     *
+     * @param node The node to copy
+     * @param offHeap Whether to store the tree outside of the heap
+     * @return A new flat root node
+     */
+    @NonNull
+    public static FlatConfigurationNode copyOf(@NonNull ConfigurationNode<?> node, boolean offHeap) {
+        requireNonNull(node, "node");
+        if (node instanceof FlatConfigurationNode && ((FlatConfigurationNode) node).parent == null && !offHeap) {
+            return (FlatConfigurationNode) node;
+        }
+        final FlatStorage.Builder builder = new FlatStorage.Builder();
+        append(builder, node.getKey(), node);
+        return new FlatConfigurationNode(builder.build(offHeap), node.getOptions(), null, node.getKey(), 0);
+    }
+
+    /**
+     * Load a configuration, and convert it into a flat tree.
+     *
+     * @param loader The loader to read from
+     * @return A new flat root node
+     * @throws IOException if the configuration could not be loaded
+     */
+    @NonNull
+    public static FlatConfigurationNode load(@NonNull ConfigurationLoader<?> loader) throws IOException {
+        return load(loader, false);
+    }
+
+    /**
+     * Load a configuration, and convert it into a flat tree.
+     *
+     * <p>The configuration is {@link ConfigurationLoader#visit(ConfigurationVisitor) visited}
+     * rather than loaded, so loaders which parse incrementally never build an intermediate
+     * tree of nodes.</p>
+     *
+     * @param loader The loader to read from
+     * @param offHeap Whether to store the tree outside of the heap
+     * @return A new flat root node
+     * @throws IOException if the configuration could not be loaded
+     * @see #copyOf(ConfigurationNode, boolean)
+     */
+    @NonNull
+    public static FlatConfigurationNode load(@NonNull ConfigurationLoader<?> loader, boolean offHeap) throws IOException {
+        requireNonNull(loader, "loader");
+        final FlatStorage.Builder builder = new FlatStorage.Builder();
+        loader.visit(new StorageVisitor(builder));
+        return new FlatConfigurationNode(builder.build(offHeap), loader.createEmptyNode().getOptions(), null, null, 0);
+    }
+
+    /**
+     * Appends visited values to storage.
+     */
+    private static final class StorageVisitor implements ConfigurationVisitor {
+        private final FlatStorage.Builder builder;
+        @Nullable private Object key;
+        private int depth;
+
+        StorageVisitor(FlatStorage.Builder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void beginMap() {
+            this.builder.beginMap(this.key);
+            this.key = null;
+            ++this.depth;
+        }
+
+        @Override
+        public void key(@NonNull Object key) {
+            this.key = requireNonNull(key, "key");
+        }
+
+        @Override
+        public void beginList() {
+            this.builder.beginList(this.key);
+            this.key = null;
+            ++this.depth;
+        }
+
+        @Override
+        public void scalar(@Nullable Object value) {
+            // as with other nodes, only the root may be empty
+            if (value != null || this.depth == 0) {
+                this.builder.scalar(this.key, value);
+            }
+            this.key = null;
+        }
+
+        @Override
+        public void comment(@NonNull String comment) {
+            // flat trees do not hold comments
+        }
+
+        @Override
+        public void end() {
+            this.builder.end();
+            --this.depth;
+        }
+    }
+
+    private static void append(FlatStorage.Builder builder, @Nullable Object key, @NonNull ConfigurationNode<?> node) {
+        if (node.isMap()) {
+            builder.beginMap(key);
+            for (Map.Entry<Object, ? extends ConfigurationNode<?>> ent : node.getChildrenMapView().entrySet()) {
+                append(builder, ent.getKey(), ent.getValue());
+            }
+            builder.end();
+        } else if (node.isList()) {
+            builder.beginList(key);
+            for (ConfigurationNode<?> child : node.getChildrenListView()) {
+                append(builder, null, child);
+            }
+            builder.end();
+        } else {
+            builder.scalar(key, node.getValue());
+        }
+    }
+
+    /**
+     * Convert the data of a node into the raw form returned by {@link #getValue()}.
+     *
+     * @param node The index of the node
+     * @return The raw value
+     */
+    @Nullable
+    private Object unwrap(int node) {
+        if (node < 0) {
+            return null;
+        }
+        final FlatStorage storage = this.storage;
+        switch (storage.type(node)) {
+            case FlatStorage.MAP: {
+                final int first = storage.firstChild(node);
+                final int count = storage.childCount(node);
+                final Map<Object, Object> ret = new LinkedHashMap<>();
+                for (int i = first; i < first + count; ++i) {
+                    ret.put(storage.key(i), unwrap(i));
+                }
+                return ret;
+            }
+            case FlatStorage.LIST: {
+                final int first = storage.firstChild(node);
+                final int count = storage.childCount(node);
+                final List<Object> ret = new ArrayList<>(count);
+                for (int i = first; i < first + count; ++i) {
+                    ret.add(unwrap(i));
+                }
+                return ret;
+            }
+            default:
+                return storage.scalar(node);
+        }
+    }
+
+    /**
+     * Gets the root node of the tree this node belongs to.
+     *
+     * @return The root node
+     */
+    @NonNull
+    public FlatConfigurationNode getRoot() {
+        FlatConfigurationNode pointer = this;
+        while (pointer.parent != null) {
+            pointer = pointer.parent;
+        }
+        return pointer;
+    }
+
+    @Nullable
+    @Override
+    public Object getKey() {
+        return this.key;
+    }
+
+    @NonNull
+    @Override
+    public NodePath getPath() {
+        FlatConfigurationNode pointer = this;
+        if (pointer.parent == null) {
+            return NodePath.create(new Object[] {this.key});
+        }
+
+        LinkedList<Object> pathElements = new LinkedList<>();
+        do {
+            pathElements.addFirst(pointer.key);
+        } while ((pointer = pointer.parent).parent != null);
+        return NodePath.create(pathElements);
+    }
+
+    @Nullable
+    @Override
+    public FlatConfigurationNode getParent() {
+        return this.parent;
+    }
+
+    @NonNull
+    @Override
+    public FlatConfigurationNode getNode(@NonNull Object... path) {
+        FlatConfigurationNode pointer = this;
+        for (Object el : path) {
+            pointer = pointer.getChild(el);
+        }
+        return pointer;
+    }
+
+    @NonNull
+    @Override
+    public FlatConfigurationNode getNode(@NonNull Iterable<Object> path) {
+        FlatConfigurationNode pointer = this;
+        for (Object el : path) {
+            pointer = pointer.getChild(el);
+        }
+        return pointer;
+    }
+
+    @Nullable
+    @Override
+    public FlatConfigurationNode findNode(@NonNull Object... path) {
+        FlatConfigurationNode pointer = this;
+        for (Object el : path) {
+            pointer = pointer.findChild(el);
+            if (pointer == null) {
+                return null;
+            }
+        }
+        return pointer.isVirtual() ? null : pointer;
+    }
+
+    @Nullable
+    @Override
+    public FlatConfigurationNode findNode(@NonNull Iterable<Object> path) {
+        FlatConfigurationNode pointer = this;
+        for (Object el : path) {
+            pointer = pointer.findChild(el);
+            if (pointer == null) {
+                return null;
+            }
+        }
+        return pointer.isVirtual() ? null : pointer;
+    }
+
+    @NonNull
+    private FlatConfigurationNode getChild(@Nullable Object key) {
+        final FlatConfigurationNode child = findChild(key);
+        return child == null ? new FlatConfigurationNode(this.storage, this.options, this, key, -1) : child;
+    }
+
+    @Nullable
+    private FlatConfigurationNode findChild(@Nullable Object key) {
+        final int index = this.index;
+        if (index < 0 || key == null) {
+            return null;
+        }
+        final byte type = this.storage.type(index);
+        if (type == FlatStorage.MAP) {
+            final int child = this.storage.mapChild(index, key);
+            if (child >= 0) {
+                return new FlatConfigurationNode(this.storage, this.options, this, key, child);
+            }
+        } else if (type == FlatStorage.LIST) {
+            final Integer position = Types.asInt(key);
+            if (position != null && position >= 0 && position < this.storage.childCount(index)) {
+                return new FlatConfigurationNode(this.storage, this.options, this, position, this.storage.firstChild(index) + position);
+            }
+        }
+        return null;
+    }
+
+    @NonNull
+    private FlatConfigurationNode child(int node) {
+        return new FlatConfigurationNode(this.storage, this.options, this, this.storage.key(node), node);
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return this.index < 0;
+    }
+
+    @NonNull
+    @Override
+    public ConfigurationOptions getOptions() {
+        return this.options;
+    }
+
+    @NonNull
+    @Override
+    public ValueType getValueType() {
+        return this.index < 0 ? ValueType.NULL : this.storage.valueType(this.index);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        final int index = this.index;
+        if (index < 0) {
+            return true;
+        }
+        switch (this.storage.type(index)) {
+            case FlatStorage.NULL:
+                return true;
+            case FlatStorage.MAP:
+            case FlatStorage.LIST:
+                return this.storage.childCount(index) == 0;
+            case FlatStorage.STRING:
+                return ((String) requireNonNull(this.storage.scalar(index))).isEmpty();
+            default:
+                return false;
+        }
+    }
+
+    private int childCount(byte type) {
+        return this.index >= 0 && this.storage.type(this.index) == type ? this.storage.childCount(this.index) : 0;
+    }
+
+    @NonNull
+    @Override
+    public List<FlatConfigurationNode> getChildrenList() {
+        final int count = childCount(FlatStorage.LIST);
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        final int first = this.storage.firstChild(this.index);
+        final ImmutableList.Builder<FlatConfigurationNode> ret = ImmutableList.builder();
+        for (int i = 0; i < count; ++i) {
+            ret.add(new FlatConfigurationNode(this.storage, this.options, this, i, first + i));
+        }
+        return ret.build();
+    }
+
+    @NonNull
+    @Override
+    public Map<Object, FlatConfigurationNode> getChildrenMap() {
+        final int count = childCount(FlatStorage.MAP);
+        if (count == 0) {
+            return Collections.emptyMap();
+        }
+        final int first = this.storage.firstChild(this.index);
+        final ImmutableMap.Builder<Object, FlatConfigurationNode> ret = ImmutableMap.builder();
+        for (int i = first; i < first + count; ++i) {
+            final FlatConfigurationNode child = child(i);
+            ret.put(requireNonNull(child.key), child);
+        }
+        return ret.build();
+    }
+
+    @NonNull
+    @Override
+    public List<FlatConfigurationNode> getChildrenListView() {
+        final int count = childCount(FlatStorage.LIST);
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        final int first = this.storage.firstChild(this.index);
+        return new AbstractList<FlatConfigurationNode>() {
+            @Override
+            public FlatConfigurationNode get(int index) {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+                }
+                return new FlatConfigurationNode(storage, options, FlatConfigurationNode.this, index, first + index);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @NonNull
+    @Override
+    public Map<Object, FlatConfigurationNode> getChildrenMapView() {
+        final int count = childCount(FlatStorage.MAP);
+        if (count == 0) {
+            return Collections.emptyMap();
+        }
+        final int first = this.storage.firstChild(this.index);
+        return new AbstractMap<Object, FlatConfigurationNode>() {
+            @Override
+            public FlatConfigurationNode get(Object key) {
+                return key == null ? null : findChild(key);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key != null && storage.mapChild(index, key) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+
+            @Override
+            public Set<Entry<Object, FlatConfigurationNode>> entrySet() {
+                return new AbstractSet<Entry<Object, FlatConfigurationNode>>() {
+                    @Override
+                    public Iterator<Entry<Object, FlatConfigurationNode>> iterator() {
+                        return new Iterator<Entry<Object, FlatConfigurationNode>>() {
+                            private int next = first;
+
+                            @Override
+                            public boolean hasNext() {
+                                return this.next < first + count;
+                            }
+
+                            @Override
+                            public Entry<Object, FlatConfigurationNode> next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                final FlatConfigurationNode child = child(this.next++);
+                                return new SimpleImmutableEntry<>(child.key, child);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return count;
+                    }
+                };
+            }
+        };
+    }
+
+    @NonNull
+    @Override
+    public Subscription subscribe(@NonNull NodePath prefix, @NonNull Executor executor, @NonNull Consumer<ChangeEvent> listener) {
+        // flat trees never change
+        return () -> { };
+    }
+
+    @Override
+    public <E extends Exception> void forEachChild(@NonNull ThrowingConsumer<? super FlatConfigurationNode, E> action) throws E {
+        final int index = this.index;
+        if (index < 0) {
+            return;
+        }
+        final byte type = this.storage.type(index);
+        if (type == FlatStorage.MAP || type == FlatStorage.LIST) {
+            final int first = this.storage.firstChild(index);
+            final int count = this.storage.childCount(index);
+            for (int i = first; i < first + count; ++i) {
+                action.accept(child(i));
+            }
+        }
+    }
+
+    @Override
+    public Object getValue(@Nullable Object def) {
+        final Object ret = unwrap(this.index);
+        return ret == null ? def : ret;
+    }
+
+    @Override
+    public Object getValue(@NonNull Supplier<Object> defSupplier) {
+        final Object ret = unwrap(this.index);
+        return ret == null ? defSupplier.get() : ret;
+    }
+
+    @Override
+    public <V> V getValue(@NonNull Function<Object, V> transformer, @Nullable V def) {
+        final V ret = transformer.apply(getValue());
+        return ret == null ? def : ret;
+    }
+
+    @Override
+    public <V> V getValue(@NonNull Function<Object, V> transformer, @NonNull Supplier<V> defSupplier) {
+        final V ret = transformer.apply(getValue());
+        return ret == null ? defSupplier.get() : ret;
+    }
+
+    // Numbers and booleans are stored unboxed, so they can be read without allocating
+
+    private byte scalarType() {
+        return this.index < 0 ? FlatStorage.NULL : this.storage.type(this.index);
+    }
+
+    @Override
+    public int getInt(int def) {
+        if (scalarType() == FlatStorage.INT) {
+            return (int) this.storage.slot(this.index);
+        }
+        return ConfigurationNode.super.getInt(def);
+    }
+
+    @Override
+    public long getLong(long def) {
+        final byte type = scalarType();
+        if (type == FlatStorage.INT || type == FlatStorage.LONG) {
+            return this.storage.slot(this.index);
+        }
+        return ConfigurationNode.super.getLong(def);
+    }
+
+    @Override
+    public float getFloat(float def) {
+        if (scalarType() == FlatStorage.FLOAT) {
+            return (float) Double.longBitsToDouble(this.storage.slot(this.index));
+        }
+        return ConfigurationNode.super.getFloat(def);
+    }
+
+    @Override
+    public double getDouble(double def) {
+        final byte type = scalarType();
+        if (type == FlatStorage.FLOAT || type == FlatStorage.DOUBLE) {
+            return Double.longBitsToDouble(this.storage.slot(this.index));
+        }
+        return ConfigurationNode.super.getDouble(def);
+    }
+
+    @Override
+    public boolean getBoolean(boolean def) {
+        if (scalarType() == FlatStorage.BOOLEAN) {
+            return this.storage.slot(this.index) != 0;
+        }
+        return ConfigurationNode.super.getBoolean(def);
+    }
+
+    @NonNull
+    @Override
+    public <V> List<V> getList(@NonNull Function<Object, V> transformer) {
+        final ImmutableList.Builder<V> ret = ImmutableList.builder();
+        final int count = childCount(FlatStorage.LIST);
+        if (count > 0) {
+            // transform each value individually if the node is a list
+            final int first = this.storage.firstChild(this.index);
+            for (int i = first; i < first + count; ++i) {
+                V transformed = transformer.apply(unwrap(i));
+                if (transformed != null) {
+                    ret.add(transformed);
+                }
+            }
+        } else if (scalarType() != FlatStorage.LIST) {
+            // transfer the value as a whole
+            V transformed = transformer.apply(unwrap(this.index));
+            if (transformed != null) {
+                ret.add(transformed);
+            }
+        }
+        return ret.build();
+    }
+
+    @Override
+    public <V> List<V> getList(@NonNull Function<Object, V> transformer, @Nullable List<V> def) {
+        final List<V> ret = getList(transformer);
+        return ret.isEmpty() ? def : ret;
+    }
+
+    @Override
+    public <V> List<V> getList(@NonNull Function<Object, V> transformer, @NonNull Supplier<List<V>> defSupplier) {
+        final List<V> ret = getList(transformer);
+        return ret.isEmpty() ? defSupplier.get() : ret;
+    }
+
+    @Override
+    public <V> List<V> getList(@NonNull TypeToken<V> type, @Nullable List<V> def) throws ObjectMappingException {
+        final List<V> ret = getValue(new TypeToken<List<V>>() {}.where(new TypeParameter<V>() {}, type), def);
+        return ret == null || ret.isEmpty() ? def : ret;
+    }
+
+    @Override
+    public <V> List<V> getList(@NonNull TypeToken<V> type, @NonNull Supplier<List<V>> defSupplier) throws ObjectMappingException {
+        final List<V> ret = getValue(new TypeToken<List<V>>() {}.where(new TypeParameter<V>() {}, type), defSupplier);
+        return ret == null || ret.isEmpty() ? defSupplier.get() : ret;
+    }
+
+    @Override
+    public <V> V getValue(@NonNull TypeToken<V> type, V def) throws ObjectMappingException {
+        if (scalarType() == FlatStorage.NULL) {
+            return def;
+        }
+        return deserialize(type, () -> def);
+    }
+
+    @Override
+    public <V> V getValue(@NonNull TypeToken<V> type, @NonNull Supplier<V> defSupplier) throws ObjectMappingException {
+        if (scalarType() == FlatStorage.NULL) {
+            return defSupplier.get();
+        }
+        return deserialize(type, defSupplier);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V deserialize(@NonNull TypeToken<V> type, @NonNull Supplier<V> defSupplier) throws ObjectMappingException {
+        final TypeSerializer<V> serial = getOptions().getSerializers().get(type);
+        if (serial == null) {
+            final Object value = getValue();
+            if (type.getRawType().isInstance(value)) {
+                return (V) type.getRawType().cast(value);
+            } else {
+                return defSupplier.get();
+            }
+        }
+        return serial.deserialize(type, this);
+    }
+
+    /**
+     * Flat nodes cannot be modified.
+     *
+     * @param value Ignored
+     * @return Never returns normally
+     * @throws UnsupportedOperationException always
+     */
+    @NonNull
+    @Override
+    public FlatConfigurationNode setValue(@Nullable Object value) {
+        throw new UnsupportedOperationException("Flat nodes cannot be modified");
+    }
+
+    /**
+     * Flat nodes cannot be modified.
+     *
+     * @param other Ignored
+     * @return Never returns normally
+     * @throws UnsupportedOperationException always
+     */
+    @NonNull
+    @Override
+    public FlatConfigurationNode mergeValuesFrom(@NonNull ConfigurationNode<?> other) {
+        throw new UnsupportedOperationException("Flat nodes cannot be modified");
+    }
+
+    /**
+     * Flat nodes cannot be modified.
+     *
+     * @param key Ignored
+     * @return Never returns normally
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeChild(@NonNull Object key) {
+        throw new UnsupportedOperationException("Flat nodes cannot be modified");
+    }
+
+    /**
+     * Flat nodes cannot be modified.
+     *
+     * @return Never returns normally
+     * @throws UnsupportedOperationException always
+     */
+    @NonNull
+    @Override
+    public FlatConfigurationNode appendListNode() {
+        throw new UnsupportedOperationException("Flat nodes cannot be modified");
+    }
+
+    /**
+     * Flat nodes do not need to be copied, so a root node returns itself.
+     *
+     * <p>Any other node is detached as a new root, which shares its storage with this node.</p>
+     *
+     * @return A root node with the same value as this node
+     */
+    @NonNull
+    @Override
+    public FlatConfigurationNode copy() {
+        if (this.parent == null) {
+            return this;
+        }
+        return new FlatConfigurationNode(this.storage, this.options, null, this.key, this.index);
+    }
+
+    @NonNull
+    @Override
+    public FlatConfigurationNode self() {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FlatConfigurationNode)) return false;
+        final FlatConfigurationNode that = (FlatConfigurationNode) o;
+        return Objects.equals(this.key, that.key) && Objects.equals(getValue(), that.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.key) ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {
+        return "FlatConfigurationNode{key=" + this.key + ", value=" + getValue() + '}';
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The columnar storage behind a tree of {@link FlatConfigurationNode}s.
+ *
+ * <p>Nodes are numbered in breadth-first order, so the children of every map or list occupy a
+ * contiguous range of indices. Each node is described by one entry in each of four parallel
+ * columns: the index of its parent, the id of its key in the object table, a type tag, and a
+ * 64-bit slot. The slot holds numeric and boolean values directly, the object table id of
+ * strings and other scalars, or the first child index and child count of maps and lists.</p>
+ *
+ * <p>The columns, and an open-addressing index of map children by parent and key, are packed
+ * into a single {@link ByteBuffer}, which may be allocated outside the heap. Keys, strings and
+ * other objects are held in a deduplicated table on the heap.</p>
+ */
+final class FlatStorage {
+    static final byte NULL = 0;
+    static final byte MAP = 1;
+    static final byte LIST = 2;
+    static final byte STRING = 3;
+    static final byte OBJECT = 4;
+    static final byte INT = 5;
+    static final byte LONG = 6;
+    static final byte FLOAT = 7;
+    static final byte DOUBLE = 8;
+    static final byte BOOLEAN = 9;
+
+    private static final int NO_KEY = -1;
+
+    private final int size;
+    private final ByteBuffer buffer;
+    private final Object[] table;
+    private final int parentOffset;
+    private final int keyOffset;
+    private final int typeOffset;
+    private final int indexOffset;
+    private final int indexMask;
+
+    private FlatStorage(int size, ByteBuffer buffer, Object[] table, int indexCapacity) {
+        this.size = size;
+        this.buffer = buffer;
+        this.table = table;
+        // longs first, so every column is naturally aligned
+        this.parentOffset = size * 8;
+        this.keyOffset = this.parentOffset + size * 4;
+        this.indexOffset = this.keyOffset + size * 4;
+        this.typeOffset = this.indexOffset + indexCapacity * 4;
+        this.indexMask = indexCapacity - 1;
+    }
+
+    private static int requiredBytes(int size, int indexCapacity) {
+        return size * 17 + indexCapacity * 4;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    int parent(int node) {
+        return this.buffer.getInt(this.parentOffset + node * 4);
+    }
+
+    byte type(int node) {
+        return this.buffer.get(this.typeOffset + node);
+    }
+
+    long slot(int node) {
+        return this.buffer.getLong(node * 8);
+    }
+
+    int firstChild(int node) {
+        return (int) (slot(node) >>> 32);
+    }
+
+    int childCount(int node) {
+        final byte type = type(node);
+        return type == MAP || type == LIST ? (int) slot(node) : 0;
+    }
+
+    /**
+     * Gets the key of a node, which is its position for list elements.
+     *
+     * @param node The node
+     * @return The key
+     */
+    @Nullable
+    Object key(int node) {
+        final int keyId = this.buffer.getInt(this.keyOffset + node * 4);
+        if (keyId != NO_KEY) {
+            return this.table[keyId];
+        }
+        if (node == 0) {
+            return null;
+        }
+        return node - firstChild(parent(node));
+    }
+
+    @NonNull
+    ValueType valueType(int node) {
+        switch (type(node)) {
+            case NULL:
+                return ValueType.NULL;
+            case MAP:
+                return ValueType.MAP;
+            case LIST:
+                return ValueType.LIST;
+            default:
+                return ValueType.SCALAR;
+        }
+    }
+
+    /**
+     * Gets the boxed scalar value of a node.
+     *
+     * @param node The node
+     * @return The value, or null if the node is not a scalar
+     */
+    @Nullable
+    Object scalar(int node) {
+        final long slot = slot(node);
+        switch (type(node)) {
+            case STRING:
+            case OBJECT:
+                return this.table[(int) slot];
+            case INT:
+                return (int) slot;
+            case LONG:
+                return slot;
+            case FLOAT:
+                return (float) Double.longBitsToDouble(slot);
+            case DOUBLE:
+                return Double.longBitsToDouble(slot);
+            case BOOLEAN:
+                return slot != 0;
+            default:
+                return null;
+        }
+    }
+
+    private static int hash(int parent, Object key) {
+        int h = parent * 0x9e3779b9 + key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Find the child of a map node with the given key.
+     *
+     * @param parent The map node
+     * @param key The key
+     * @return The index of the child, or -1 if there is none
+     */
+    int mapChild(int parent, Object key) {
+        for (int i = hash(parent, key) & this.indexMask;; i = (i + 1) & this.indexMask) {
+            final int child = this.buffer.getInt(this.indexOffset + i * 4);
+            if (child == -1) {
+                return -1;
+            }
+            if (parent(child) == parent && key.equals(this.table[this.buffer.getInt(this.keyOffset + child * 4)])) {
+                return child;
+            }
+        }
+    }
+
+    /**
+     * Accumulates the nodes of a tree in depth-first order, and packs them into storage.
+     */
+    static final class Builder {
+        private final Map<Object, Integer> tableIds = new HashMap<>();
+        private final List<Object> table = new ArrayList<>();
+        private int size;
+        private int[] parents = new int[16];
+        private int[] keys = new int[16];
+        private byte[] types = new byte[16];
+        private long[] slots = new long[16];
+        private int[] open = new int[16];
+        private int depth = -1;
+        private int mapChildren;
+
+        private int tableId(Object value) {
+            Integer id = this.tableIds.get(value);
+            if (id == null) {
+                id = this.table.size();
+                this.table.add(value);
+                this.tableIds.put(value, id);
+            }
+            return id;
+        }
+
+        private int add(@Nullable Object key, byte type, long slot) {
+            if (this.size == this.parents.length) {
+                final int newLength = this.size * 2;
+                this.parents = Arrays.copyOf(this.parents, newLength);
+                this.keys = Arrays.copyOf(this.keys, newLength);
+                this.types = Arrays.copyOf(this.types, newLength);
+                this.slots = Arrays.copyOf(this.slots, newLength);
+            }
+            final int node = this.size++;
+            if (this.depth < 0) {
+                if (node != 0) {
+                    throw new IllegalStateException("A flat configuration can only have one root");
+                }
+                this.parents[node] = -1;
+                this.keys[node] = key == null ? NO_KEY : tableId(key);
+            } else {
+                final int parent = this.open[this.depth];
+                this.parents[node] = parent;
+                if (this.types[parent] == MAP) {
+                    if (key == null) {
+                        throw new IllegalArgumentException("Map children must have a key");
+                    }
+                    this.keys[node] = tableId(key);
+                    ++this.mapChildren;
+                } else {
+                    this.keys[node] = NO_KEY;
+                }
+                ++this.slots[parent]; // the child count
+            }
+            this.types[node] = type;
+            this.slots[node] = slot;
+            return node;
+        }
+
+        private void begin(@Nullable Object key, byte type) {
+            final int node = add(key, type, 0);
+            if (++this.depth == this.open.length) {
+                this.open = Arrays.copyOf(this.open, this.depth * 2);
+            }
+            this.open[this.depth] = node;
+        }
+
+        void beginMap(@Nullable Object key) {
+            begin(key, MAP);
+        }
+
+        void beginList(@Nullable Object key) {
+            begin(key, LIST);
+        }
+
+        void end() {
+            if (this.depth < 0) {
+                throw new IllegalStateException("No map or list is open");
+            }
+            --this.depth;
+        }
+
+        void scalar(@Nullable Object key, @Nullable Object value) {
+            if (value == null) {
+                add(key, NULL, 0);
+            } else if (value instanceof String) {
+                add(key, STRING, tableId(value));
+            } else if (value instanceof Integer) {
+                add(key, INT, (Integer) value);
+            } else if (value instanceof Long) {
+                add(key, LONG, (Long) value);
+            } else if (value instanceof Float) {
+                add(key, FLOAT, Double.doubleToRawLongBits((Float) value));
+            } else if (value instanceof Double) {
+                add(key, DOUBLE, Double.doubleToRawLongBits((Double) value));
+            } else if (value instanceof Boolean) {
+                add(key, BOOLEAN, (Boolean) value ? 1 : 0);
+            } else {
+                add(key, OBJECT, tableId(value));
+            }
+        }
+
+        /**
+         * Pack the accumulated nodes into storage, reordering them breadth-first.
+         *
+         * @param direct Whether to allocate the storage outside of the heap
+         * @return The storage
+         */
+        FlatStorage build(boolean direct) {
+            if (this.depth >= 0) {
+                throw new IllegalStateException("Not all maps and lists have been ended");
+            }
+            final int size = this.size;
+            if (size == 0) {
+                scalar(null, null);
+                return build(direct);
+            }
+
+            // list the children of each node, in order
+            final int[] childStart = new int[size + 1];
+            for (int i = 1; i < size; ++i) {
+                ++childStart[this.parents[i] + 1];
+            }
+            for (int i = 0; i < size; ++i) {
+                childStart[i + 1] += childStart[i];
+            }
+            final int[] children = new int[Math.max(size - 1, 0)];
+            final int[] filled = Arrays.copyOf(childStart, size);
+            for (int i = 1; i < size; ++i) {
+                children[filled[this.parents[i]]++] = i;
+            }
+
+            // number the nodes breadth-first, so siblings are adjacent
+            final int[] order = new int[size];
+            final int[] newIndex = new int[size];
+            int tail = 1;
+            for (int head = 0; head < size; ++head) {
+                final int node = order[head];
+                newIndex[node] = head;
+                for (int i = childStart[node]; i < childStart[node + 1]; ++i) {
+                    order[tail++] = children[i];
+                }
+            }
+
+            int indexCapacity = 2;
+            while (indexCapacity < this.mapChildren * 2) {
+                indexCapacity <<= 1;
+            }
+            final ByteBuffer buffer = (direct ? ByteBuffer.allocateDirect(requiredBytes(size, indexCapacity))
+                    : ByteBuffer.allocate(requiredBytes(size, indexCapacity))).order(ByteOrder.nativeOrder());
+            final FlatStorage storage = new FlatStorage(size, buffer, this.table.toArray(), indexCapacity);
+
+            for (int i = 0; i < indexCapacity; ++i) {
+                buffer.putInt(storage.indexOffset + i * 4, -1);
+            }
+            for (int n = 0; n < size; ++n) {
+                final int old = order[n];
+                final byte type = this.types[old];
+                long slot = this.slots[old];
+                if (type == MAP || type == LIST) {
+                    final int first = slot == 0 ? 0 : newIndex[children[childStart[old]]];
+                    slot = ((long) first << 32) | slot;
+                }
+                buffer.putLong(n * 8, slot);
+                buffer.putInt(storage.parentOffset + n * 4, n == 0 ? -1 : newIndex[this.parents[old]]);
+                buffer.putInt(storage.keyOffset + n * 4, this.keys[old]);
+                buffer.put(storage.typeOffset + n, type);
+            }
+
+            // index map children by their parent and key
+            for (int n = 1; n < size; ++n) {
+                final int parent = storage.parent(n);
+                if (storage.type(parent) == MAP) {
+                    int i = hash(parent, storage.table[buffer.getInt(storage.keyOffset + n * 4)]) & storage.indexMask;
+                    while (buffer.getInt(storage.indexOffset + i * 4) != -1) {
+                        i = (i + 1) & storage.indexMask;
+                    }
+                    buffer.putInt(storage.indexOffset + i * 4, n);
+                }
+            }
+            return storage;
+        }
+    }
+}
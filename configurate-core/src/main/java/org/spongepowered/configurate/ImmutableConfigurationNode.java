@@ -0,0 +1,765 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeParameter;
+import com.google.common.reflect.TypeToken;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.objectmapping.ObjectMappingException;
+import org.spongepowered.configurate.objectmapping.serialize.TypeSerializer;
+import org.spongepowered.configurate.transformation.NodePath;
+import org.spongepowered.configurate.util.ThrowingConsumer;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link ConfigurationNode} which can never be modified.
+ *
+ * <p>Immutable nodes are backed by persistent data structures. Rather than modifying a node in
+ * place, {@link #withValue(Object)} produces a new tree, which shares every subtree that was not
+ * touched by the update with the original. This makes it cheap to keep many versions of a
+ * configuration around, and allows any version to be read from any number of threads without
+ * locking.</p>
+ *
+ * <p>Immutable nodes are usually obtained by taking a {@link AbstractConfigurationNode#snapshot()}
+ * of a mutable node. Methods inherited from {@link ConfigurationNode} which would modify the node
+ * throw an {@link UnsupportedOperationException}, and
+ * {@link ConfigurationOptions#shouldCopyDefaults()} has no effect.</p>
+ *
+ * <p>Comments, attributes, and other additional data held by specialized node types are not
+ * captured in a snapshot.</p>
+ */
+public final class ImmutableConfigurationNode implements ConfigurationNode<ImmutableConfigurationNode> {
+
+    @Nullable
+    private final ImmutableConfigurationNode parent;
+
+    @Nullable
+    private final Object key;
+
+    @NonNull
+    private final ConfigurationOptions options;
+
+    /**
+     * The data of this node.
+     *
+     * <p>This is either null, a {@link PersistentMap} of child data, a {@link PersistentVector}
+     * of child data, or a scalar value.</p>
+     */
+    @Nullable
+    private final Object data;
+
+    /**
+     * If this node is present in the tree, rather than a placeholder for a missing path
+     */
+    private final boolean attached;
+
+    private ImmutableConfigurationNode(@Nullable ImmutableConfigurationNode parent, @Nullable Object key,
+                                       @NonNull ConfigurationOptions options, @Nullable Object data, boolean attached) {
+        this.parent = parent;
+        this.key = key;
+        this.options = options;
+        this.data = data;
+        this.attached = attached;
+    }
+
+    /**
+     * Create a new empty root node.
+     *
+     * @return A new empty root node
+     */
+    @NonNull
+    public static ImmutableConfigurationNode root() {
+        return root(ConfigurationOptions.defaults());
+    }
+
+    /**
+     * Create a new empty root node with the provided options.
+     *
+     * @param options The options to use
+     * @return A new empty root node
+     */
+    @NonNull
+    public static ImmutableConfigurationNode root(@NonNull ConfigurationOptions options) {
+        return new ImmutableConfigurationNode(null, null, requireNonNull(options, "options"), null, true);
+    }
+
+    /**
+     * Create an immutable copy of the provided node, which will become the root of the new tree.
+     *
+     * <p>The copy is taken without locking the source node, so it is not guaranteed to be a
+     * consistent view if the source is modified by another thread while the copy is made.</p>
+     *
+     * @param node The node to copy
+     * @return A new immutable root node
+     */
+    @NonNull
+    public static ImmutableConfigurationNode copyOf(@NonNull ConfigurationNode<?> node) {
+        requireNonNull(node, "node");
+        if (node instanceof ImmutableConfigurationNode && ((ImmutableConfigurationNode) node).parent == null) {
+            return (ImmutableConfigurationNode) node;
+        }
+        return new ImmutableConfigurationNode(null, node.getKey(), node.getOptions(), dataOf(node), true);
+    }
+
+    /**
+     * Extract persistent data from any node.
+     *
+     * @param node The node to read
+     * @return The node's data
+     */
+    @Nullable
+    static Object dataOf(@NonNull ConfigurationNode<?> node) {
+        if (node instanceof ImmutableConfigurationNode) {
+            return ((ImmutableConfigurationNode) node).data;
+        } else if (node instanceof AbstractConfigurationNode<?>) {
+            return dataOf(((AbstractConfigurationNode<?>) node).value);
+        } else if (node.isList()) {
+            final List<? extends ConfigurationNode<?>> children = node.getChildrenList();
+            final Object[] childData = new Object[children.size()];
+            int i = 0;
+            for (ConfigurationNode<?> child : children) {
+                childData[i++] = dataOf(child);
+            }
+            return PersistentVector.fromArray(childData, i);
+        } else if (node.isMap()) {
+            PersistentMap<Object, Object> ret = PersistentMap.empty();
+            for (Map.Entry<Object, ? extends ConfigurationNode<?>> ent : node.getChildrenMap().entrySet()) {
+                ret = ret.plus(ent.getKey(), dataOf(ent.getValue()));
+            }
+            return ret;
+        } else {
+            return node.getValue();
+        }
+    }
+
+    @Nullable
+    private static Object dataOf(@NonNull ConfigValue<?> value) {
+        value = value.resolve();
+        if (value instanceof MapConfigValue<?>) {
+            PersistentMap<Object, Object> ret = PersistentMap.empty();
+            for (Map.Entry<Object, ? extends AbstractConfigurationNode<?>> ent : ((MapConfigValue<?>) value).values.entrySet()) {
+                ret = ret.plus(ent.getKey(), dataOf(ent.getValue().value));
+            }
+            return ret;
+        } else if (value instanceof ListConfigValue<?>) {
+            final List<? extends AbstractConfigurationNode<?>> children = ((ListConfigValue<?>) value).values.get();
+            final Object[] childData = new Object[children.size()];
+            int i = 0;
+            for (AbstractConfigurationNode<?> child : children) {
+                childData[i++] = dataOf(child.value);
+            }
+            return PersistentVector.fromArray(childData, i);
+        } else {
+            return value.getValue();
+        }
+    }
+
+    /**
+     * Convert a raw value into persistent data, in the same way a mutable node would store it.
+     *
+     * @param value The value to convert
+     * @return Data for the value
+     */
+    @Nullable
+    private Object toData(@Nullable Object value) {
+        if (value instanceof ConfigurationNode<?>) {
+            return dataOf((ConfigurationNode<?>) value);
+        } else if (value instanceof Collection<?>) {
+            final Collection<?> values = (Collection<?>) value;
+            final Object[] childData = new Object[values.size()];
+            int i = 0;
+            for (Object o : values) {
+                if (o != null) {
+                    childData[i++] = toData(o);
+                }
+            }
+            return PersistentVector.fromArray(childData, i);
+        } else if (value instanceof Map<?, ?>) {
+            PersistentMap<Object, Object> ret = PersistentMap.empty();
+            for (Map.Entry<?, ?> ent : ((Map<?, ?>) value).entrySet()) {
+                if (ent.getValue() != null) {
+                    ret = ret.plus(ent.getKey(), toData(ent.getValue()));
+                }
+            }
+            return ret;
+        } else if (value != null && !this.options.acceptsType(value.getClass())) {
+            throw new IllegalArgumentException("Configuration does not accept objects of type " + value.getClass());
+        }
+        return value;
+    }
+
+    /**
+     * Convert persistent data into the raw form returned by {@link #getValue()}.
+     *
+     * @param data The data to convert
+     * @return The raw value
+     */
+    @Nullable
+    private static Object unwrap(@Nullable Object data) {
+        if (data instanceof PersistentMap<?, ?>) {
+            final Map<Object, Object> ret = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> ent : ((PersistentMap<?, ?>) data).entrySet()) {
+                ret.put(ent.getKey(), unwrap(ent.getValue()));
+            }
+            return ret;
+        } else if (data instanceof PersistentVector<?>) {
+            final PersistentVector<?> vector = (PersistentVector<?>) data;
+            final List<Object> ret = new ArrayList<>(vector.size());
+            for (Object o : vector) {
+                ret.add(unwrap(o));
+            }
+            return ret;
+        } else {
+            return data;
+        }
+    }
+
+    /**
+     * Get a node with this node's value replaced by {@code value}, in a new tree.
+     *
+     * <p>This node and the tree it belongs to are unaffected. The returned node is at the same
+     * path as this node, and {@link #getRoot()} can be used to retrieve the new tree's root.
+     * Any part of the tree that is not an ancestor of this node is shared between both trees.</p>
+     *
+     * <p>As with {@link ConfigurationNode#setValue(Object)}, setting a null value removes the
+     * node from its parent.</p>
+     *
+     * @param value The new value
+     * @return The updated node
+     * @throws IllegalArgumentException if the value is of a type not accepted by this node's options
+     */
+    @NonNull
+    public ImmutableConfigurationNode withValue(@Nullable Object value) {
+        final Object newData = toData(value);
+        if (this.parent == null) {
+            return new ImmutableConfigurationNode(null, this.key, this.options, newData, true);
+        } else if (newData == null) {
+            return new ImmutableConfigurationNode(this.parent.withChild(this.key, null, true), this.key, this.options, null, false);
+        } else {
+            return new ImmutableConfigurationNode(this.parent.withChild(this.key, newData, false), this.key, this.options, newData, true);
+        }
+    }
+
+    /**
+     * Produce a new version of this node with a child updated.
+     *
+     * @param key The child's key
+     * @param childData The new data for the child
+     * @param remove If the child should be removed instead
+     * @return The new version of this node
+     */
+    @NonNull
+    private ImmutableConfigurationNode withChild(@Nullable Object key, @Nullable Object childData, boolean remove) {
+        final Object data = this.data;
+        final Object newData;
+        if (data instanceof PersistentMap<?, ?>) {
+            @SuppressWarnings("unchecked")
+            final PersistentMap<Object, Object> map = (PersistentMap<Object, Object>) data;
+            newData = remove ? map.minus(requireNonNull(key, "key")) : map.plus(requireNonNull(key, "key"), childData);
+        } else if (data instanceof PersistentVector<?>) {
+            @SuppressWarnings("unchecked")
+            final PersistentVector<Object> list = (PersistentVector<Object>) data;
+            newData = withListChild(list, key, childData, remove);
+        } else if (remove) {
+            return this; // nothing to remove
+        } else if (key instanceof Integer) {
+            // as with mutable nodes, any existing scalar value becomes the first element of the list
+            newData = withListChild(data == null ? PersistentVector.empty() : PersistentVector.empty().plus(data), key, childData, false);
+        } else {
+            newData = PersistentMap.empty().plus(requireNonNull(key, "key"), childData);
+        }
+
+        if (newData == data && this.attached) {
+            return this;
+        }
+        if (this.parent == null) {
+            return new ImmutableConfigurationNode(null, this.key, this.options, newData, true);
+        } else {
+            return new ImmutableConfigurationNode(this.parent.withChild(this.key, newData, false), this.key, this.options, newData, true);
+        }
+    }
+
+    private static PersistentVector<Object> withListChild(PersistentVector<Object> list, @Nullable Object key, @Nullable Object childData, boolean remove) {
+        final Integer index = Types.asInt(key);
+        if (index == null) {
+            throw new IllegalArgumentException("List nodes can only have integer keys, not " + key);
+        }
+        if (remove) {
+            return index >= 0 && index < list.size() ? list.without(index) : list;
+        } else if (index >= 0 && index < list.size()) {
+            return list.with(index, childData);
+        } else if (index == -1 || index == list.size()) {
+            return list.plus(childData);
+        } else {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + list.size());
+        }
+    }
+
+    /**
+     * Gets the root node of the tree this node belongs to.
+     *
+     * @return The root node
+     */
+    @NonNull
+    public ImmutableConfigurationNode getRoot() {
+        ImmutableConfigurationNode pointer = this;
+        while (pointer.parent != null) {
+            pointer = pointer.parent;
+        }
+        return pointer;
+    }
+
+    @Nullable
+    @Override
+    public Object getKey() {
+        return this.key;
+    }
+
+    @NonNull
+    @Override
+    public NodePath getPath() {
+        ImmutableConfigurationNode pointer = this;
+        if (pointer.parent == null) {
+            return NodePath.create(new Object[] {this.key});
+        }
+
+        LinkedList<Object> pathElements = new LinkedList<>();
+        do {
+            pathElements.addFirst(pointer.key);
+        } while ((pointer = pointer.parent).parent != null);
+        return NodePath.create(pathElements);
+    }
+
+    @Nullable
+    @Override
+    public ImmutableConfigurationNode getParent() {
+        return this.parent;
+    }
+
+    @NonNull
+    @Override
+    public ImmutableConfigurationNode getNode(@NonNull Object... path) {
+        ImmutableConfigurationNode pointer = this;
+        for (Object el : path) {
+            pointer = pointer.getChild(el);
+        }
+        return pointer;
+    }
+
+    @NonNull
+    @Override
+    public ImmutableConfigurationNode getNode(@NonNull Iterable<Object> path) {
+        ImmutableConfigurationNode pointer = this;
+        for (Object el : path) {
+            pointer = pointer.getChild(el);
+        }
+        return pointer;
+    }
+
+    @Nullable
+    @Override
+    public ImmutableConfigurationNode findNode(@NonNull Object... path) {
+        ImmutableConfigurationNode pointer = this;
+        for (Object el : path) {
+            pointer = pointer.findChild(el);
+            if (pointer == null) {
+                return null;
+            }
+        }
+        return pointer.isVirtual() ? null : pointer;
+    }
+
+    @Nullable
+    @Override
+    public ImmutableConfigurationNode findNode(@NonNull Iterable<Object> path) {
+        ImmutableConfigurationNode pointer = this;
+        for (Object el : path) {
+            pointer = pointer.findChild(el);
+            if (pointer == null) {
+                return null;
+            }
+        }
+        return pointer.isVirtual() ? null : pointer;
+    }
+
+    @NonNull
+    private ImmutableConfigurationNode getChild(@Nullable Object key) {
+        final ImmutableConfigurationNode child = findChild(key);
+        return child == null ? new ImmutableConfigurationNode(this, key, this.options, null, false) : child;
+    }
+
+    @Nullable
+    private ImmutableConfigurationNode findChild(@Nullable Object key) {
+        final Object data = this.data;
+        if (data instanceof PersistentMap<?, ?>) {
+            final PersistentMap<?, ?> map = (PersistentMap<?, ?>) data;
+            if (map.containsKey(key)) {
+                return new ImmutableConfigurationNode(this, key, this.options, map.get(key), true);
+            }
+        } else if (data instanceof PersistentVector<?>) {
+            final PersistentVector<?> list = (PersistentVector<?>) data;
+            final Integer index = Types.asInt(key);
+            if (index != null && index >= 0 && index < list.size()) {
+                return new ImmutableConfigurationNode(this, index, this.options, list.get(index), true);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return !this.attached;
+    }
+
+    @NonNull
+    @Override
+    public ConfigurationOptions getOptions() {
+        return this.options;
+    }
+
+    @NonNull
+    @Override
+    public ValueType getValueType() {
+        final Object data = this.data;
+        if (data == null) {
+            return ValueType.NULL;
+        } else if (data instanceof PersistentMap<?, ?>) {
+            return ValueType.MAP;
+        } else if (data instanceof PersistentVector<?>) {
+            return ValueType.LIST;
+        } else {
+            return ValueType.SCALAR;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        final Object data = this.data;
+        return data == null
+                || (data instanceof String && ((String) data).isEmpty())
+                || (data instanceof Collection<?> && ((Collection<?>) data).isEmpty())
+                || (data instanceof Map<?, ?> && ((Map<?, ?>) data).isEmpty());
+    }
+
+    @NonNull
+    @Override
+    public List<ImmutableConfigurationNode> getChildrenList() {
+        final Object data = this.data;
+        if (!(data instanceof PersistentVector<?>)) {
+            return Collections.emptyList();
+        }
+        final PersistentVector<?> list = (PersistentVector<?>) data;
+        final ImmutableList.Builder<ImmutableConfigurationNode> ret = ImmutableList.builder();
+        int i = 0;
+        for (Object child : list) {
+            ret.add(new ImmutableConfigurationNode(this, i++, this.options, child, true));
+        }
+        return ret.build();
+    }
+
+    @NonNull
+    @Override
+    public Map<Object, ImmutableConfigurationNode> getChildrenMap() {
+        final Object data = this.data;
+        if (!(data instanceof PersistentMap<?, ?>)) {
+            return Collections.emptyMap();
+        }
+        final ImmutableMap.Builder<Object, ImmutableConfigurationNode> ret = ImmutableMap.builder();
+        for (Map.Entry<?, ?> ent : ((PersistentMap<?, ?>) data).entrySet()) {
+            ret.put(ent.getKey(), new ImmutableConfigurationNode(this, ent.getKey(), this.options, ent.getValue(), true));
+        }
+        return ret.build();
+    }
+
+    @NonNull
+    @Override
+    public List<ImmutableConfigurationNode> getChildrenListView() {
+        final Object data = this.data;
+        if (!(data instanceof PersistentVector<?>)) {
+            return Collections.emptyList();
+        }
+        final PersistentVector<?> list = (PersistentVector<?>) data;
+        return new AbstractList<ImmutableConfigurationNode>() {
+            @Override
+            public ImmutableConfigurationNode get(int index) {
+                return new ImmutableConfigurationNode(ImmutableConfigurationNode.this, index, options, list.get(index), true);
+            }
+
+            @Override
+            public int size() {
+                return list.size();
+            }
+        };
+    }
+
+    @NonNull
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Object, ImmutableConfigurationNode> getChildrenMapView() {
+        final Object data = this.data;
+        if (!(data instanceof PersistentMap<?, ?>)) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(Maps.transformEntries((PersistentMap<Object, Object>) data,
+                (key, value) -> new ImmutableConfigurationNode(this, key, this.options, value, true)));
+    }
+
+    @NonNull
+    @Override
+    public Subscription subscribe(@NonNull NodePath prefix, @NonNull Executor executor, @NonNull Consumer<ChangeEvent> listener) {
+        // immutable trees never change
+        return () -> { };
+    }
+
+    @Override
+    public <E extends Exception> void forEachChild(@NonNull ThrowingConsumer<? super ImmutableConfigurationNode, E> action) throws E {
+        final Object data = this.data;
+        if (data instanceof PersistentVector<?>) {
+            int i = 0;
+            for (Object child : (PersistentVector<?>) data) {
+                action.accept(new ImmutableConfigurationNode(this, i++, this.options, child, true));
+            }
+        } else if (data instanceof PersistentMap<?, ?>) {
+            for (Map.Entry<?, ?> ent : ((PersistentMap<?, ?>) data).entrySet()) {
+                action.accept(new ImmutableConfigurationNode(this, ent.getKey(), this.options, ent.getValue(), true));
+            }
+        }
+    }
+
+    @Override
+    public Object getValue(@Nullable Object def) {
+        final Object ret = unwrap(this.data);
+        return ret == null ? def : ret;
+    }
+
+    @Override
+    public Object getValue(@NonNull Supplier<Object> defSupplier) {
+        final Object ret = unwrap(this.data);
+        return ret == null ? defSupplier.get() : ret;
+    }
+
+    @Override
+    public <V> V getValue(@NonNull Function<Object, V> transformer, @Nullable V def) {
+        final V ret = transformer.apply(getValue());
+        return ret == null ? def : ret;
+    }
+
+    @Override
+    public <V> V getValue(@NonNull Function<Object, V> transformer, @NonNull Supplier<V> defSupplier) {
+        final V ret = transformer.apply(getValue());
+        return ret == null ? defSupplier.get() : ret;
+    }
+
+    @NonNull
+    @Override
+    public <V> List<V> getList(@NonNull Function<Object, V> transformer) {
+        final ImmutableList.Builder<V> ret = ImmutableList.builder();
+        final Object data = this.data;
+        if (data instanceof PersistentVector<?>) {
+            // transform each value individually if the node is a list
+            for (Object o : (PersistentVector<?>) data) {
+                V transformed = transformer.apply(unwrap(o));
+                if (transformed != null) {
+                    ret.add(transformed);
+                }
+            }
+        } else {
+            // transfer the value as a whole
+            V transformed = transformer.apply(unwrap(data));
+            if (transformed != null) {
+                ret.add(transformed);
+            }
+        }
+        return ret.build();
+    }
+
+    @Override
+    public <V> List<V> getList(@NonNull Function<Object, V> transformer, @Nullable List<V> def) {
+        final List<V> ret = getList(transformer);
+        return ret.isEmpty() ? def : ret;
+    }
+
+    @Override
+    public <V> List<V> getList(@NonNull Function<Object, V> transformer, @NonNull Supplier<List<V>> defSupplier) {
+        final List<V> ret = getList(transformer);
+        return ret.isEmpty() ? defSupplier.get() : ret;
+    }
+
+    @Override
+    public <V> List<V> getList(@NonNull TypeToken<V> type, @Nullable List<V> def) throws ObjectMappingException {
+        final List<V> ret = getValue(new TypeToken<List<V>>() {}.where(new TypeParameter<V>() {}, type), def);
+        return ret == null || ret.isEmpty() ? def : ret;
+    }
+
+    @Override
+    public <V> List<V> getList(@NonNull TypeToken<V> type, @NonNull Supplier<List<V>> defSupplier) throws ObjectMappingException {
+        final List<V> ret = getValue(new TypeToken<List<V>>() {}.where(new TypeParameter<V>() {}, type), defSupplier);
+        return ret == null || ret.isEmpty() ? defSupplier.get() : ret;
+    }
+
+    @Override
+    public <V> V getValue(@NonNull TypeToken<V> type, V def) throws ObjectMappingException {
+        if (this.data == null) {
+            return def;
+        }
+        return deserialize(type, () -> def);
+    }
+
+    @Override
+    public <V> V getValue(@NonNull TypeToken<V> type, @NonNull Supplier<V> defSupplier) throws ObjectMappingException {
+        if (this.data == null) {
+            return defSupplier.get();
+        }
+        return deserialize(type, defSupplier);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V deserialize(@NonNull TypeToken<V> type, @NonNull Supplier<V> defSupplier) throws ObjectMappingException {
+        final TypeSerializer<V> serial = getOptions().getSerializers().get(type);
+        if (serial == null) {
+            final Object value = getValue();
+            if (type.getRawType().isInstance(value)) {
+                return (V) type.getRawType().cast(value);
+            } else {
+                return defSupplier.get();
+            }
+        }
+        return serial.deserialize(type, this);
+    }
+
+    /**
+     * Immutable nodes cannot be modified.
+     *
+     * @param value Ignored
+     * @return Never returns normally
+     * @throws UnsupportedOperationException always
+     * @see #withValue(Object)
+     */
+    @NonNull
+    @Override
+    public ImmutableConfigurationNode setValue(@Nullable Object value) {
+        throw new UnsupportedOperationException("Immutable nodes cannot be modified, use withValue to create an updated tree");
+    }
+
+    /**
+     * Immutable nodes cannot be modified.
+     *
+     * @param other Ignored
+     * @return Never returns normally
+     * @throws UnsupportedOperationException always
+     */
+    @NonNull
+    @Override
+    public ImmutableConfigurationNode mergeValuesFrom(@NonNull ConfigurationNode<?> other) {
+        throw new UnsupportedOperationException("Immutable nodes cannot be modified");
+    }
+
+    /**
+     * Immutable nodes cannot be modified.
+     *
+     * @param key Ignored
+     * @return Never returns normally
+     * @throws UnsupportedOperationException always
+     * @see #withValue(Object)
+     */
+    @Override
+    public boolean removeChild(@NonNull Object key) {
+        throw new UnsupportedOperationException("Immutable nodes cannot be modified, use withValue(null) on the child to remove it");
+    }
+
+    /**
+     * Gets a virtual node positioned after the last element of this node's list. Calling
+     * {@link #withValue(Object)} on the returned node appends a new element.
+     *
+     * @return A virtual node for the next list element
+     */
+    @NonNull
+    @Override
+    public ImmutableConfigurationNode appendListNode() {
+        final Object data = this.data;
+        final int index;
+        if (data instanceof PersistentVector<?>) {
+            index = ((PersistentVector<?>) data).size();
+        } else if (data == null) {
+            index = 0;
+        } else if (data instanceof PersistentMap<?, ?>) {
+            index = -1;
+        } else {
+            index = 1; // the existing scalar will become the first element
+        }
+        return new ImmutableConfigurationNode(this, index, this.options, null, false);
+    }
+
+    /**
+     * Immutable nodes do not need to be copied, so a root node returns itself.
+     *
+     * <p>Any other node is detached as a new root, which shares its data with this node.</p>
+     *
+     * @return A root node with the same value as this node
+     */
+    @NonNull
+    @Override
+    public ImmutableConfigurationNode copy() {
+        if (this.parent == null) {
+            return this;
+        }
+        return new ImmutableConfigurationNode(null, this.key, this.options, this.data, true);
+    }
+
+    @NonNull
+    @Override
+    public ImmutableConfigurationNode self() {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ImmutableConfigurationNode)) return false;
+        final ImmutableConfigurationNode that = (ImmutableConfigurationNode) o;
+        return Objects.equals(this.key, that.key) && Objects.equals(this.data, that.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.key) ^ Objects.hashCode(this.data);
+    }
+
+    @Override
+    public String toString() {
+        return "ImmutableConfigurationNode{key=" + this.key + ", value=" + this.data + '}';
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link ConfigValue} which holds a {@link LazyValue} that has not yet been read.
+ *
+ * <p>The first operation that needs the value's children materializes it into a
+ * {@link MapConfigValue} or {@link ListConfigValue}, which then replaces this value in its
+ * holder. Every operation on this value delegates to that resolved value.</p>
+ */
+final class LazyConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValue<T> {
+    private final LazyValue source;
+    private volatile @Nullable ConfigValue<T> resolved;
+
+    LazyConfigValue(@NonNull T holder, @NonNull LazyValue source) {
+        super(holder);
+        if (!source.getType().canHaveChildren()) {
+            throw new IllegalArgumentException("Lazy values must be either maps or lists, but got " + source.getType());
+        }
+        this.source = source;
+    }
+
+    @Override
+    ConfigValue<T> resolve() {
+        ConfigValue<T> resolved = this.resolved;
+        if (resolved == null) {
+            if (this.holder.isConfined()) {
+                resolved = materialize();
+            } else {
+                synchronized (this.holder) {
+                    resolved = this.resolved;
+                    if (resolved == null) {
+                        resolved = materialize();
+                    }
+                }
+                ChangeListeners.dispatchDeferred();
+            }
+        }
+        return resolved;
+    }
+
+    private ConfigValue<T> materialize() {
+        final Object data = this.source.materialize();
+        final ConfigValue<T> resolved = this.source.getType() == ValueType.MAP ? new MapConfigValue<>(this.holder) : new ListConfigValue<>(this.holder);
+        resolved.setValue(data);
+        this.resolved = resolved;
+        if (this.holder.value == this) {
+            this.holder.value = resolved;
+        }
+        return resolved;
+    }
+
+    @Override
+    ValueType getType() {
+        return this.source.getType();
+    }
+
+    @Nullable
+    @Override
+    Object getValue() {
+        return resolve().getValue();
+    }
+
+    @Override
+    void setValue(@Nullable Object value) {
+        resolve().setValue(value);
+    }
+
+    @Nullable
+    @Override
+    T putChild(@NonNull Object key, @Nullable T value) {
+        return resolve().putChild(key, value);
+    }
+
+    @Nullable
+    @Override
+    T putChildIfAbsent(@NonNull Object key, @Nullable T value) {
+        return resolve().putChildIfAbsent(key, value);
+    }
+
+    @Nullable
+    @Override
+    T getChild(@Nullable Object key) {
+        return resolve().getChild(key);
+    }
+
+    @NonNull
+    @Override
+    Iterable<T> iterateChildren() {
+        return resolve().iterateChildren();
+    }
+
+    @NonNull
+    @Override
+    ConfigValue<T> copy(@NonNull T holder) {
+        final ConfigValue<T> resolved = this.resolved;
+        // the source is never modified, so an unread value can be copied without reading it
+        return resolved == null ? new LazyConfigValue<>(holder, this.source) : resolved.copy(holder);
+    }
+
+    @Override
+    boolean isEmpty() {
+        return resolve().isEmpty();
+    }
+
+    @Override
+    void clear() {
+        // no children are attached until the value has been read
+        final ConfigValue<T> resolved = this.resolved;
+        if (resolved != null) {
+            resolved.clear();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || resolve().equals(o instanceof ConfigValue<?> ? ((ConfigValue<?>) o).resolve() : o);
+    }
+
+    @Override
+    public int hashCode() {
+        return resolve().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        final ConfigValue<T> resolved = this.resolved;
+        return resolved == null ? "LazyConfigValue{type=" + this.source.getType() + '}' : resolved.toString();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A map or list value whose children are only read when they are first needed.
+ *
+ * <p>When a {@link LazyValue} is set as the value of a node, the node reports the lazy value's
+ * {@link #getType() type} straight away, but does not create any child nodes until its children
+ * are accessed, for example through {@link ConfigurationNode#getNode(Object...)},
+ * {@link ConfigurationNode#getChildrenMap()} or {@link ConfigurationNode#getValue()}. At that
+ * point {@link #materialize()} is called once, and its result is set on the node as if it had
+ * been passed to {@link ConfigurationNode#setValue(Object)}.</p>
+ *
+ * <p>The materialized map or collection may itself contain further {@link LazyValue}s, so a
+ * loader can expand a large document one level at a time.</p>
+ */
+public interface LazyValue {
+
+    /**
+     * Gets the type of value this will materialize to.
+     *
+     * @return Either {@link ValueType#MAP} or {@link ValueType#LIST}
+     */
+    @NonNull
+    ValueType getType();
+
+    /**
+     * Reads the direct children of this value.
+     *
+     * <p>This method is called at most once per node the value is set on, and may be called from
+     * whichever thread first accesses the node. Any failure should be reported by throwing an
+     * unchecked exception.</p>
+     *
+     * @return A {@link java.util.Map} if this value is a map, or a {@link java.util.Collection}
+     *         if it is a list
+     */
+    @NonNull
+    Object materialize();
+
+}
@@ -16,7 +16,6 @@
  */
 package org.spongepowered.configurate;
 
-import com.google.common.collect.ImmutableList;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -29,9 +28,13 @@ import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A {@link ConfigValue} which holds a list of values.
+ *
+ * <p>The children are held in an immutable {@link PersistentVector}, which is replaced atomically
+ * on every modification. Reads only need a single volatile load, and iteration works directly on
+ * the current snapshot without copying or locking.</p>
  */
 class ListConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValue<T> {
-    final AtomicReference<List<T>> values = new AtomicReference<>(new ArrayList<>());
+    final AtomicReference<PersistentVector<T>> values = new AtomicReference<>(PersistentVector.empty());
 
     ListConfigValue(T holder) {
         super(holder);
@@ -46,31 +49,30 @@ class ListConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValu
         super(holder);
 
         T child = holder.createNode(0);
-        child.attached = true;
+        child.markAttached();
         child.setValue(startValue);
-        this.values.get().add(child);
+        this.values.set(PersistentVector.<T>empty().plus(child));
     }
 
     @Nullable
     @Override
     public Object getValue() {
-        final List<T> values = this.values.get();
-        synchronized (values) {
-            final List<Object> ret = new ArrayList<>(values.size());
-            for (T obj : values) {
-                ret.add(obj.getValue()); // unwrap
-            }
-            return ret;
+        final PersistentVector<T> values = this.values.get();
+        final List<Object> ret = new ArrayList<>(values.size());
+        for (T obj : values) {
+            ret.add(obj.getValue()); // unwrap
         }
+        return ret;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void setValue(@Nullable Object value) {
         if (!(value instanceof Collection)) {
             value = Collections.singleton(value);
         }
         final Collection<?> valueAsList = (Collection<?>) value;
-        final List<T> newValue = new ArrayList<>(valueAsList.size());
+        final Object[] newValue = new Object[valueAsList.size()];
 
         int count = 0;
         for (Object o : valueAsList) {
@@ -79,12 +81,17 @@ class ListConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValu
             }
 
             T child = holder.createNode(count);
-            newValue.add(count, child);
-            child.attached = true;
+            newValue[count] = child;
+            child.markAttached();
             child.setValue(o);
             ++count;
         }
-        detachNodes(values.getAndSet(newValue));
+        // detach the old children, then attach the new ones in the current generation
+        this.holder.detachChildren();
+        for (int i = 0; i < count; ++i) {
+            ((T) newValue[i]).markAttached();
+        }
+        this.values.set(PersistentVector.fromArray(newValue, count));
     }
 
     @Nullable
@@ -100,41 +107,44 @@ class ListConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValu
     }
 
     private T putChild(int index, @Nullable T value, boolean onlyIfAbsent) {
-        T ret = null;
-        List<T> values;
+        PersistentVector<T> oldValues, newValues;
+        T ret;
         do {
-            values = this.values.get();
-            synchronized (values) {
-                if (value == null) {
-                    if (index < values.size()) {
-                        // remove the value
-                        ret = values.remove(index);
-                        // update indexes for subsequent elements
-                        for (int i = index; i < values.size(); ++i) {
-                            values.get(i).key = index;
-                        }
-                    }
-                } else {
-                    // check if the index is in range
-                    if (index >= 0 && index < values.size()) {
-                        if (onlyIfAbsent) {
-                            return values.get(index);
-                        } else {
-                            ret = values.set(index, value);
-                        }
-                    } else if (index == -1) { // Gotta correct the child path for the correct path name
-                        values.add(value);
-                        value.key = values.lastIndexOf(value);
-                    } else {
-                        values.add(index, value);
-                    }
+            oldValues = this.values.get();
+            ret = null;
+            if (value == null) {
+                if (index < 0 || index >= oldValues.size()) {
+                    return null;
+                }
+                // remove the value
+                ret = oldValues.get(index);
+                newValues = oldValues.without(index);
+            } else if (index >= 0 && index < oldValues.size()) {
+                // the index is in range
+                if (onlyIfAbsent) {
+                    return oldValues.get(index);
                 }
+                ret = oldValues.get(index);
+                newValues = oldValues.with(index, value);
+            } else if (index == -1 || index == oldValues.size()) {
+                newValues = oldValues.plus(value);
+            } else {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + oldValues.size());
             }
-        } while (!this.values.compareAndSet(values, values));
+        } while (!this.values.compareAndSet(oldValues, newValues));
+
+        if (value == null) {
+            // update indexes for subsequent elements, from the latest snapshot in case of a concurrent removal
+            final PersistentVector<T> current = this.values.get();
+            for (int i = index; i < current.size(); ++i) {
+                current.get(i).key = i;
+            }
+        } else if (index == -1) { // Gotta correct the child path for the correct path name
+            value.key = oldValues.size();
+        }
         return ret;
     }
 
-
     @Nullable
     @Override
     public T getChild(@Nullable Object key) {
@@ -143,39 +153,31 @@ class ListConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValu
             return null;
         }
 
-        final List<T> values = this.values.get();
-        synchronized (values) {
-            if (value >= values.size()) {
-                return null;
-            }
-            return values.get(value);
+        final PersistentVector<T> values = this.values.get();
+        if (value >= values.size()) {
+            return null;
         }
+        return values.get(value);
     }
 
     @NonNull
     @Override
     public Iterable<T> iterateChildren() {
-        List<T> values = this.values.get();
-        synchronized (values) {
-            return ImmutableList.copyOf(values);
-        }
+        return this.values.get();
     }
 
     @NonNull
     @Override
     ListConfigValue<T> copy(@NonNull T holder) {
         ListConfigValue<T> copy = new ListConfigValue<T>(holder);
-        List<T> copyValues;
-
-        final List<T> values = this.values.get();
-        synchronized (values) {
-            copyValues = new ArrayList<>(values.size());
-            for (T obj : values) {
-                copyValues.add(obj.copy(holder)); // recursively copy
-            }
+        final PersistentVector<T> values = this.values.get();
+        final Object[] copyValues = new Object[values.size()];
+        int i = 0;
+        for (T obj : values) {
+            copyValues[i++] = obj.copy(holder); // recursively copy
         }
 
-        copy.values.set(copyValues);
+        copy.values.set(PersistentVector.fromArray(copyValues, i));
         return copy;
     }
 
@@ -184,21 +186,6 @@ class ListConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValu
         return this.values.get().isEmpty();
     }
 
-    private static void detachNodes(List<? extends AbstractConfigurationNode<?>> children) {
-        synchronized (children) {
-            for (AbstractConfigurationNode<?> node : children) {
-                node.attached = false;
-                node.clear();
-            }
-        }
-    }
-
-    @Override
-    public void clear() {
-        List<T> oldValues = values.getAndSet(new ArrayList<>());
-        detachNodes(oldValues);
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) {
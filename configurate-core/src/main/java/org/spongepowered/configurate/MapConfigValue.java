@@ -18,6 +18,7 @@ package org.spongepowered.configurate;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.util.MapFactory;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -28,7 +29,7 @@ import java.util.concurrent.ConcurrentMap;
  * A {@link ConfigValue} which holds a map of values.
  */
 class MapConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValue<T> {
-    volatile ConcurrentMap<Object, T> values;
+    volatile Map<Object, T> values;
 
     public MapConfigValue(T holder) {
         super(holder);
@@ -40,8 +41,9 @@ class MapConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValue
         return ValueType.MAP;
     }
 
-    private ConcurrentMap<Object, T> newMap() {
-        return holder.getOptions().getMapFactory().create();
+    private Map<Object, T> newMap() {
+        return this.holder.isConfined() ? this.holder.getOptions().getMapFactory().createConfined()
+                : this.holder.getOptions().getMapFactory().create();
     }
 
     @Nullable
@@ -57,20 +59,22 @@ class MapConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValue
     @Override
     public void setValue(@Nullable Object value) {
         if (value instanceof Map) {
-            final ConcurrentMap<Object, T> newValue = newMap();
+            final Map<Object, T> newValue = newMap();
             for (Map.Entry<?, ?> ent : ((Map<?, ?>) value).entrySet()) {
                 if (ent.getValue() == null) {
                     continue;
                 }
                 T child = holder.createNode(ent.getKey());
                 newValue.put(ent.getKey(), child);
-                child.attached = true;
+                child.markAttached();
                 child.setValue(ent.getValue());
             }
-            synchronized (this) {
-                ConcurrentMap<Object, T> oldMap = this.values;
-                this.values = newValue;
-                detachChildren(oldMap);
+            if (this.holder.isConfined()) {
+                replaceValues(newValue);
+            } else {
+                synchronized (this) {
+                    replaceValues(newValue);
+                }
             }
         } else {
             throw new IllegalArgumentException("Map configuration values can only be set to values of type Map");
@@ -124,20 +128,26 @@ class MapConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValue
         return values.isEmpty();
     }
 
-    private static void detachChildren(Map<Object, ? extends AbstractConfigurationNode<?>> map) {
-        for (AbstractConfigurationNode<?> value : map.values()) {
-            value.attached = false;
-            value.clear();
+    private void replaceValues(Map<Object, T> newValues) {
+        // detach the old children, then attach the new ones in the current generation
+        this.holder.detachChildren();
+        for (T child : newValues.values()) {
+            child.markAttached();
         }
+        this.values = newValues;
     }
 
-    @Override
-    public void clear() {
-        synchronized (this) {
-            ConcurrentMap<Object, T> oldMap = this.values;
-            this.values = newMap();
-            detachChildren(oldMap);
+    /**
+     * Move the children of this value into a map created by {@link MapFactory#create()}, once
+     * the holder is no longer confined to a single thread.
+     */
+    void publish() {
+        if (this.values instanceof ConcurrentMap<?, ?>) {
+            return; // the factory did not provide a separate map for confined use
         }
+        final Map<Object, T> published = this.holder.getOptions().getMapFactory().create();
+        published.putAll(this.values);
+        this.values = published;
     }
 
     @Override
@@ -0,0 +1,144 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.transformation.NodePath;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A precompiled path which can be repeatedly resolved against a node.
+ *
+ * <p>An accessor remembers the node it last resolved to. Later lookups from the same starting
+ * node return the remembered node without walking the path again, as long as no nodes have
+ * been added to or removed from the tree in the meantime. Lookups of missing paths return
+ * the same virtual node each time, rather than creating new ones.</p>
+ *
+ * <p>Accessors are safe to share between threads, and are intended to be stored in a
+ * constant and reused. An accessor holds a reference to the last node it resolved, which
+ * keeps that node's tree from being garbage collected until the accessor is resolved
+ * against a different tree.</p>
+ *
+ * @see NodePath#compile(Object...)
+ */
+public final class NodeAccessor {
+    /**
+     * Stamp used for trees which can never change structure.
+     */
+    private static final long IMMUTABLE = 0;
+
+    private final Object[] path;
+    private volatile @Nullable Resolved resolved;
+
+    private NodeAccessor(Object[] path) {
+        this.path = path;
+    }
+
+    /**
+     * Create an accessor for the given path.
+     *
+     * @param path The path to access. The provided array will be copied.
+     * @return A new accessor
+     */
+    @NonNull
+    public static NodeAccessor of(@NonNull Object... path) {
+        requireNonNull(path, "path");
+        final Object[] copy = Arrays.copyOf(path, path.length);
+        for (Object element : copy) {
+            requireNonNull(element, "path element");
+        }
+        return new NodeAccessor(copy);
+    }
+
+    /**
+     * Gets the path this accessor resolves.
+     *
+     * @return The path
+     */
+    @NonNull
+    public NodePath getPath() {
+        return NodePath.create(this.path);
+    }
+
+    /**
+     * Gets the node at this accessor's path, relative to {@code start}.
+     *
+     * <p>This is equivalent to calling {@link ConfigurationNode#getNode(Object...)} on
+     * {@code start} with this accessor's path.</p>
+     *
+     * @param start The node to resolve the path from
+     * @param <N> The node type
+     * @return The node at the path, which may be virtual
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public <N extends ConfigurationNode<N>> N resolve(@NonNull N start) {
+        final long stamp;
+        if (start instanceof AbstractConfigurationNode<?>) {
+            stamp = ((AbstractConfigurationNode<?>) start).getStructureStamp();
+        } else if (start instanceof ImmutableConfigurationNode) {
+            stamp = IMMUTABLE;
+        } else {
+            return start.getNode(this.path);
+        }
+
+        final Resolved resolved = this.resolved;
+        if (resolved != null && resolved.start == start && resolved.stamp == stamp) {
+            return (N) resolved.node;
+        }
+
+        // the stamp is read before walking the path, so any change made during the walk
+        // invalidates the result on the next lookup
+        final N node = start.getNode(this.path);
+        this.resolved = new Resolved(start, stamp, node);
+        return node;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof NodeAccessor && Arrays.equals(this.path, ((NodeAccessor) o).path));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.path);
+    }
+
+    @Override
+    public String toString() {
+        return "NodeAccessor" + Arrays.toString(this.path);
+    }
+
+    /**
+     * The result of a lookup, published as a single object so it is always seen consistently.
+     */
+    private static final class Resolved {
+        final ConfigurationNode<?> start;
+        final long stamp;
+        final ConfigurationNode<?> node;
+
+        Resolved(ConfigurationNode<?> start, long stamp, ConfigurationNode<?> node) {
+            this.start = start;
+            this.stamp = stamp;
+            this.node = node;
+        }
+    }
+}
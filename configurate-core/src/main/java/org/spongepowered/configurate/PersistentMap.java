@@ -0,0 +1,480 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable, insertion-ordered map which shares structure between versions.
+ *
+ * <p>Lookups go through a hash array mapped trie, and iteration order is kept in a
+ * {@link PersistentVector} of entries. Removed entries leave a gap in the order vector, which is
+ * compacted once gaps make up more than half of it.</p>
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+final class PersistentMap<K, V> extends AbstractMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, PersistentVector.empty(), 0);
+
+    private final Node index;
+    private final PersistentVector<Entry<K, V>> order;
+    private final int size;
+    private transient @Nullable Set<Map.Entry<K, V>> entrySet;
+
+    private PersistentMap(Node index, PersistentVector<Entry<K, V>> order, int size) {
+        this.index = index;
+        this.order = order;
+        this.size = size;
+    }
+
+    /**
+     * Gets the empty map.
+     *
+     * @param <K> The key type
+     * @param <V> The value type
+     * @return The empty map
+     */
+    @SuppressWarnings("unchecked")
+    @NonNull
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    private static int hash(Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && this.index.find(hash(key), key, 0) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        final Entry<?, ?> ent = this.index.find(hash(key), key, 0);
+        return ent == null ? null : (V) ent.value;
+    }
+
+    /**
+     * Returns a map with {@code key} mapped to {@code value}. Replacing the value of an existing
+     * key keeps its position in iteration order.
+     *
+     * @param key The key
+     * @param value The value
+     * @return The updated map
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    PersistentMap<K, V> plus(@NonNull K key, @Nullable V value) {
+        final int hash = hash(key);
+        final Entry<K, V> existing = (Entry<K, V>) this.index.find(hash, key, 0);
+        if (existing != null) {
+            if (existing.value == value) {
+                return this;
+            }
+            final Entry<K, V> replacement = new Entry<>(key, value, hash, existing.position);
+            return new PersistentMap<>(this.index.put(replacement, 0), this.order.with(existing.position, replacement), this.size);
+        }
+        final Entry<K, V> added = new Entry<>(key, value, hash, this.order.size());
+        return new PersistentMap<>(this.index.put(added, 0), this.order.plus(added), this.size + 1);
+    }
+
+    /**
+     * Returns a map without any mapping for {@code key}.
+     *
+     * @param key The key to remove
+     * @return The updated map
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    PersistentMap<K, V> minus(@NonNull Object key) {
+        final int hash = hash(key);
+        final Entry<K, V> existing = (Entry<K, V>) this.index.find(hash, key, 0);
+        if (existing == null) {
+            return this;
+        }
+        if (this.size == 1) {
+            return empty();
+        }
+
+        final PersistentVector<Entry<K, V>> newOrder = this.order.with(existing.position, null);
+        Node newIndex = this.index.remove(hash, key, 0);
+        if (newIndex == null) {
+            newIndex = BitmapNode.EMPTY;
+        }
+        final int newSize = this.size - 1;
+        if (newOrder.size() > 2 * newSize + MASK) {
+            return compact(newOrder);
+        }
+        return new PersistentMap<>(newIndex, newOrder, newSize);
+    }
+
+    private static <K, V> PersistentMap<K, V> compact(PersistentVector<Entry<K, V>> order) {
+        PersistentMap<K, V> ret = empty();
+        for (Entry<K, V> ent : order) {
+            if (ent != null) {
+                ret = ret.plus(ent.key, ent.value);
+            }
+        }
+        return ret;
+    }
+
+    @NonNull
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new EntrySet();
+        }
+        return this.entrySet;
+    }
+
+    /**
+     * A view of the entries, skipping any gaps left by removals.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public int size() {
+            return PersistentMap.this.size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> test = (Map.Entry<?, ?>) o;
+            final Object key = test.getKey();
+            if (key == null) {
+                return false;
+            }
+            final Entry<?, ?> ent = PersistentMap.this.index.find(hash(key), key, 0);
+            return ent != null && Objects.equals(ent.value, test.getValue());
+        }
+
+        @NonNull
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            final Iterator<Entry<K, V>> it = PersistentMap.this.order.iterator();
+            return new Iterator<Map.Entry<K, V>>() {
+                private @Nullable Entry<K, V> next = advance();
+
+                private @Nullable Entry<K, V> advance() {
+                    while (it.hasNext()) {
+                        final Entry<K, V> ent = it.next();
+                        if (ent != null) {
+                            return ent;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return this.next != null;
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    final Entry<K, V> ret = this.next;
+                    if (ret == null) {
+                        throw new NoSuchElementException();
+                    }
+                    this.next = advance();
+                    return ret;
+                }
+            };
+        }
+    }
+
+    /**
+     * An immutable map entry, which also remembers its hash and position in iteration order.
+     *
+     * @param <K> The key type
+     * @param <V> The value type
+     */
+    static final class Entry<K, V> implements Map.Entry<K, V> {
+        final K key;
+        final V value;
+        final int hash;
+        final int position;
+
+        Entry(K key, V value, int hash, int position) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+            this.position = position;
+        }
+
+        @Override
+        public K getKey() {
+            return this.key;
+        }
+
+        @Override
+        public V getValue() {
+            return this.value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException("Entries of a persistent map cannot be modified");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Map.Entry)) return false;
+            final Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+            return this.key.equals(that.getKey()) && Objects.equals(this.value, that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.key.hashCode() ^ Objects.hashCode(this.value);
+        }
+
+        @Override
+        public String toString() {
+            return this.key + "=" + this.value;
+        }
+    }
+
+    /**
+     * A node of the hash trie.
+     */
+    private abstract static class Node {
+        abstract @Nullable Entry<?, ?> find(int hash, Object key, int shift);
+
+        abstract @NonNull Node put(Entry<?, ?> entry, int shift);
+
+        /**
+         * Remove the entry for a key.
+         *
+         * @return The updated node, or null if the node is now empty
+         */
+        abstract @Nullable Node remove(int hash, Object key, int shift);
+    }
+
+    /**
+     * A node whose slots are each either an {@link Entry} or a child {@link Node}, indexed by a
+     * bitmap of the occupied hash fragments.
+     */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private int slot(int bit) {
+            return Integer.bitCount(this.bitmap & (bit - 1));
+        }
+
+        @Override
+        Entry<?, ?> find(int hash, Object key, int shift) {
+            final int bit = bit(hash, shift);
+            if ((this.bitmap & bit) == 0) {
+                return null;
+            }
+            final Object slot = this.slots[slot(bit)];
+            if (slot instanceof Entry) {
+                final Entry<?, ?> ent = (Entry<?, ?>) slot;
+                return ent.hash == hash && ent.key.equals(key) ? ent : null;
+            }
+            return ((Node) slot).find(hash, key, shift + BITS);
+        }
+
+        @Override
+        Node put(Entry<?, ?> entry, int shift) {
+            final int bit = bit(entry.hash, shift);
+            final int idx = slot(bit);
+            if ((this.bitmap & bit) == 0) {
+                final Object[] newSlots = new Object[this.slots.length + 1];
+                System.arraycopy(this.slots, 0, newSlots, 0, idx);
+                newSlots[idx] = entry;
+                System.arraycopy(this.slots, idx, newSlots, idx + 1, this.slots.length - idx);
+                return new BitmapNode(this.bitmap | bit, newSlots);
+            }
+
+            final Object existing = this.slots[idx];
+            final Object replacement;
+            if (existing instanceof Entry) {
+                final Entry<?, ?> existingEntry = (Entry<?, ?>) existing;
+                if (existingEntry.hash == entry.hash && existingEntry.key.equals(entry.key)) {
+                    replacement = entry;
+                } else if (existingEntry.hash == entry.hash) {
+                    replacement = new CollisionNode(entry.hash, new Entry<?, ?>[] {existingEntry, entry});
+                } else {
+                    replacement = EMPTY.put(existingEntry, shift + BITS).put(entry, shift + BITS);
+                }
+            } else {
+                replacement = ((Node) existing).put(entry, shift + BITS);
+            }
+            final Object[] newSlots = this.slots.clone();
+            newSlots[idx] = replacement;
+            return new BitmapNode(this.bitmap, newSlots);
+        }
+
+        @Override
+        Node remove(int hash, Object key, int shift) {
+            final int bit = bit(hash, shift);
+            if ((this.bitmap & bit) == 0) {
+                return this;
+            }
+            final int idx = slot(bit);
+            final Object existing = this.slots[idx];
+            if (existing instanceof Entry) {
+                final Entry<?, ?> ent = (Entry<?, ?>) existing;
+                if (ent.hash != hash || !ent.key.equals(key)) {
+                    return this;
+                }
+                return without(bit, idx);
+            }
+
+            final Node child = (Node) existing;
+            final Node newChild = child.remove(hash, key, shift + BITS);
+            if (newChild == child) {
+                return this;
+            } else if (newChild == null) {
+                return without(bit, idx);
+            }
+            final Object[] newSlots = this.slots.clone();
+            // pull single entries back up into this node
+            if (newChild instanceof BitmapNode && ((BitmapNode) newChild).slots.length == 1
+                    && ((BitmapNode) newChild).slots[0] instanceof Entry) {
+                newSlots[idx] = ((BitmapNode) newChild).slots[0];
+            } else {
+                newSlots[idx] = newChild;
+            }
+            return new BitmapNode(this.bitmap, newSlots);
+        }
+
+        private @Nullable Node without(int bit, int idx) {
+            if (this.slots.length == 1) {
+                return null;
+            }
+            final Object[] newSlots = new Object[this.slots.length - 1];
+            System.arraycopy(this.slots, 0, newSlots, 0, idx);
+            System.arraycopy(this.slots, idx + 1, newSlots, idx, newSlots.length - idx);
+            return new BitmapNode(this.bitmap & ~bit, newSlots);
+        }
+    }
+
+    /**
+     * A node holding entries whose keys have identical hashes.
+     */
+    private static final class CollisionNode extends Node {
+        private final int hash;
+        private final Entry<?, ?>[] entries;
+
+        CollisionNode(int hash, Entry<?, ?>[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < this.entries.length; ++i) {
+                if (this.entries[i].key.equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Entry<?, ?> find(int hash, Object key, int shift) {
+            if (hash != this.hash) {
+                return null;
+            }
+            final int idx = indexOf(key);
+            return idx == -1 ? null : this.entries[idx];
+        }
+
+        @Override
+        Node put(Entry<?, ?> entry, int shift) {
+            if (entry.hash != this.hash) {
+                // split this node out into a bitmap node alongside the new entry
+                final BitmapNode wrapper = new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[] {this});
+                return wrapper.put(entry, shift);
+            }
+            final int idx = indexOf(entry.key);
+            final Entry<?, ?>[] newEntries;
+            if (idx == -1) {
+                newEntries = new Entry<?, ?>[this.entries.length + 1];
+                System.arraycopy(this.entries, 0, newEntries, 0, this.entries.length);
+                newEntries[this.entries.length] = entry;
+            } else {
+                newEntries = this.entries.clone();
+                newEntries[idx] = entry;
+            }
+            return new CollisionNode(this.hash, newEntries);
+        }
+
+        @Override
+        Node remove(int hash, Object key, int shift) {
+            if (hash != this.hash) {
+                return this;
+            }
+            final int idx = indexOf(key);
+            if (idx == -1) {
+                return this;
+            } else if (this.entries.length == 1) {
+                return null;
+            }
+            final Entry<?, ?>[] newEntries = new Entry<?, ?>[this.entries.length - 1];
+            System.arraycopy(this.entries, 0, newEntries, 0, idx);
+            System.arraycopy(this.entries, idx + 1, newEntries, idx, newEntries.length - idx);
+            return new CollisionNode(this.hash, newEntries);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list which shares structure between versions.
+ *
+ * <p>Elements are stored in a 32-way trie, with the last (up to) 32 elements kept in a separate
+ * tail array. Appending and replacing elements copy only the path to the changed element, so
+ * every version of the vector can be safely read from any thread without locking.</p>
+ *
+ * <p>Removing an element from anywhere other than the end requires rebuilding the vector.</p>
+ *
+ * @param <E> The element type
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Object[] EMPTY_ARRAY = new Object[0];
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, new Object[WIDTH], EMPTY_ARRAY);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Gets the empty vector.
+     *
+     * @param <E> The element type
+     * @return The empty vector
+     */
+    @SuppressWarnings("unchecked")
+    @NonNull
+    static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Creates a vector containing the elements of the given collection, in iteration order.
+     *
+     * @param elements The elements
+     * @param <E> The element type
+     * @return A new vector
+     */
+    @NonNull
+    static <E> PersistentVector<E> copyOf(@NonNull Collection<? extends E> elements) {
+        if (elements instanceof PersistentVector) {
+            @SuppressWarnings("unchecked")
+            PersistentVector<E> ret = (PersistentVector<E>) elements;
+            return ret;
+        }
+        Object[] array = elements.toArray();
+        return fromArray(array, array.length);
+    }
+
+    /**
+     * Creates a vector containing the first {@code length} elements of the given array.
+     *
+     * <p>The array is not retained by the vector.</p>
+     *
+     * @param array The source array
+     * @param length The number of elements to use
+     * @param <E> The element type
+     * @return A new vector
+     */
+    @NonNull
+    static <E> PersistentVector<E> fromArray(@NonNull Object[] array, int length) {
+        if (length == 0) {
+            return empty();
+        }
+
+        final int tailOffset = tailOffset(length);
+        final Object[] tail = Arrays.copyOfRange(array, tailOffset, length);
+
+        // build the full leaves, then group them into parents until they fit in a single root
+        int count = tailOffset >>> BITS;
+        Object[] level = new Object[count];
+        for (int i = 0; i < count; ++i) {
+            level[i] = Arrays.copyOfRange(array, i << BITS, (i + 1) << BITS);
+        }
+
+        int shift = BITS;
+        while (count > WIDTH) {
+            final int parentCount = (count + MASK) >>> BITS;
+            final Object[] parents = new Object[parentCount];
+            for (int i = 0; i < parentCount; ++i) {
+                final Object[] parent = new Object[WIDTH];
+                System.arraycopy(level, i << BITS, parent, 0, Math.min(WIDTH, count - (i << BITS)));
+                parents[i] = parent;
+            }
+            level = parents;
+            count = parentCount;
+            shift += BITS;
+        }
+
+        final Object[] root = new Object[WIDTH];
+        System.arraycopy(level, 0, root, 0, count);
+        return new PersistentVector<>(length, shift, root, tail);
+    }
+
+    private static int tailOffset(int size) {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) arrayFor(index)[index & MASK];
+    }
+
+    private Object[] arrayFor(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        if (index >= tailOffset(this.size)) {
+            return this.tail;
+        }
+        Object[] node = this.root;
+        for (int level = this.shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    /**
+     * Returns a vector with the element at {@code index} replaced.
+     *
+     * @param index The index to replace at
+     * @param element The new element
+     * @return The updated vector
+     */
+    @NonNull
+    PersistentVector<E> with(int index, @Nullable E element) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        if (index >= tailOffset(this.size)) {
+            final Object[] newTail = this.tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentVector<>(this.size, this.shift, this.root, newTail);
+        }
+        return new PersistentVector<>(this.size, this.shift, assoc(this.shift, this.root, index, element), this.tail);
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object element) {
+        final Object[] ret = node.clone();
+        if (level == 0) {
+            ret[index & MASK] = element;
+        } else {
+            final int subIndex = (index >>> level) & MASK;
+            ret[subIndex] = assoc(level - BITS, (Object[]) node[subIndex], index, element);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a vector with the element appended to the end.
+     *
+     * @param element The element to append
+     * @return The updated vector
+     */
+    @NonNull
+    PersistentVector<E> plus(@Nullable E element) {
+        // room in the tail?
+        if (this.size - tailOffset(this.size) < WIDTH) {
+            final Object[] newTail = Arrays.copyOf(this.tail, this.tail.length + 1);
+            newTail[this.tail.length] = element;
+            return new PersistentVector<>(this.size + 1, this.shift, this.root, newTail);
+        }
+
+        // full tail, push it into the tree
+        final Object[] newRoot;
+        int newShift = this.shift;
+        if ((this.size >>> BITS) > (1 << this.shift)) { // root overflow
+            newRoot = new Object[WIDTH];
+            newRoot[0] = this.root;
+            newRoot[1] = newPath(this.shift, this.tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(this.shift, this.root, this.tail);
+        }
+        return new PersistentVector<>(this.size + 1, newShift, newRoot, new Object[] {element});
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        final int subIndex = ((this.size - 1) >>> level) & MASK;
+        final Object[] ret = parent.clone();
+        final Object[] toInsert;
+        if (level == BITS) {
+            toInsert = tailNode;
+        } else {
+            final Object[] child = (Object[]) parent[subIndex];
+            toInsert = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+        }
+        ret[subIndex] = toInsert;
+        return ret;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        final Object[] ret = new Object[WIDTH];
+        ret[0] = newPath(level - BITS, node);
+        return ret;
+    }
+
+    /**
+     * Returns a vector with the element at {@code index} removed. Subsequent elements are
+     * shifted down by one.
+     *
+     * @param index The index to remove
+     * @return The updated vector
+     */
+    @NonNull
+    PersistentVector<E> without(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        final Object[] elements = toArray();
+        System.arraycopy(elements, index + 1, elements, index, this.size - index - 1);
+        return fromArray(elements, this.size - 1);
+    }
+
+    @NonNull
+    @Override
+    public Object[] toArray() {
+        final Object[] ret = new Object[this.size];
+        int i = 0;
+        while (i < this.size) {
+            final Object[] chunk = arrayFor(i);
+            final int length = Math.min(chunk.length, this.size - i);
+            System.arraycopy(chunk, 0, ret, i, length);
+            i += length;
+        }
+        return ret;
+    }
+
+    @NonNull
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * An iterator which walks the vector one leaf at a time.
+     */
+    private final class Itr implements Iterator<E> {
+        private int index;
+        private Object[] chunk = EMPTY_ARRAY;
+        private int chunkStart;
+
+        @Override
+        public boolean hasNext() {
+            return this.index < PersistentVector.this.size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (this.index >= PersistentVector.this.size) {
+                throw new NoSuchElementException();
+            }
+            if (this.index - this.chunkStart >= WIDTH || this.chunk == EMPTY_ARRAY) {
+                this.chunk = arrayFor(this.index);
+                this.chunkStart = this.index;
+            }
+            return (E) this.chunk[this.index++ - this.chunkStart];
+        }
+    }
+}
@@ -21,37 +21,214 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Objects;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * A {@link ConfigValue} which holds a single ("scalar") value.
+ *
+ * <p>Scalar values are immutable, and a new instance is created each time a node's scalar value
+ * changes. Integers, longs, floats and doubles are held by a variant which stores only the
+ * primitive, so typed getters like {@link ConfigurationNode#getInt()} read them without
+ * unboxing, and the value is only boxed when {@link #getValue()} is called. Any other value is
+ * held as an object. Strings remember the last primitive they were converted to, so repeated
+ * typed reads of text values do not parse them again.</p>
  */
-class ScalarConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValue<T> {
-    private volatile Object value;
+abstract class ScalarConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigValue<T> {
+    static final byte KIND_INT = 1;
+    static final byte KIND_LONG = 2;
+    static final byte KIND_FLOAT = 3;
+    static final byte KIND_DOUBLE = 4;
+    static final byte KIND_BOOLEAN = 5;
 
     ScalarConfigValue(T holder) {
         super(holder);
     }
 
+    static <T extends AbstractConfigurationNode<T>> ScalarConfigValue<T> of(T holder, Object value) {
+        return of(holder, value, true);
+    }
+
+    /**
+     * Create a new scalar value, in the variant matching the type of {@code value}.
+     *
+     * @param holder The node holding the value
+     * @param value The value
+     * @param checkType Whether to verify the type of the value is accepted by the holder's
+     *                  options. Callers that have already verified the type may skip this.
+     * @param <T> The type of node
+     * @return The new value
+     */
+    static <T extends AbstractConfigurationNode<T>> ScalarConfigValue<T> of(T holder, Object value, boolean checkType) {
+        requireNonNull(value, "value");
+        if (checkType && !holder.getOptions().acceptsType(value.getClass())) {
+            throw new IllegalArgumentException("Configuration does not accept objects of type " + value.getClass());
+        }
+        if (value instanceof Integer) {
+            return new IntScalar<>(holder, (Integer) value);
+        } else if (value instanceof Long) {
+            return new LongScalar<>(holder, (Long) value);
+        } else if (value instanceof Float) {
+            return new FloatScalar<>(holder, (Float) value);
+        } else if (value instanceof Double) {
+            return new DoubleScalar<>(holder, (Double) value);
+        } else {
+            return new ObjectScalar<>(holder, value);
+        }
+    }
+
     @Override
     ValueType getType() {
         return ValueType.SCALAR;
     }
 
-    @Nullable
+    @NonNull
     @Override
-    public Object getValue() {
-        return value;
-    }
+    public abstract Object getValue();
 
+    /**
+     * Scalar values are immutable, a new value should be created instead.
+     *
+     * @param value Ignored
+     * @throws UnsupportedOperationException always
+     */
     @Override
     public void setValue(@Nullable Object value) {
-        if (!holder.getOptions().acceptsType(requireNonNull(value).getClass())) {
-            throw new IllegalArgumentException("Configuration does not accept objects of type " + value.getClass());
+        throw new UnsupportedOperationException("Scalar values are immutable");
+    }
+
+    // Primitive accessors
+    // Each hasX method returns true only when the result of the matching xValue method is
+    // identical to what the conversion in Types would produce for the boxed value.
+
+    boolean hasInt() {
+        return false;
+    }
+
+    int intValue() {
+        throw new UnsupportedOperationException();
+    }
+
+    boolean hasLong() {
+        return false;
+    }
+
+    long longValue() {
+        throw new UnsupportedOperationException();
+    }
+
+    boolean hasFloat() {
+        return false;
+    }
+
+    float floatValue() {
+        throw new UnsupportedOperationException();
+    }
+
+    boolean hasDouble() {
+        return false;
+    }
+
+    double doubleValue() {
+        throw new UnsupportedOperationException();
+    }
+
+    boolean hasBoolean() {
+        return false;
+    }
+
+    boolean booleanValue() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Convert a {@link String} value to a primitive, as the conversions in {@link Types} would.
+     *
+     * <p>Values stored as text are parsed at most once for each run of reads of the same
+     * kind. The cache holds only the most recent conversion, and belongs to this value, so
+     * it is discarded along with it when the node's value is replaced.</p>
+     *
+     * @param kind The kind to convert to, one of the {@code KIND_} constants
+     * @return The conversion, or null if the value is not a string
+     */
+    @Nullable
+    Coerced coerce(byte kind) {
+        return null;
+    }
+
+    /**
+     * The result of converting a string to a primitive.
+     */
+    static final class Coerced {
+        final byte kind;
+
+        /**
+         * Whether the string could be converted. If false, {@link #bits} is meaningless
+         */
+        final boolean valid;
+
+        /**
+         * The converted value. Integral values are stored directly, floating-point values as
+         * the raw bits of a double, and booleans as 0 or 1.
+         */
+        final long bits;
+
+        Coerced(byte kind, String value) {
+            this.kind = kind;
+            final Object result;
+            final long bits;
+            switch (kind) {
+                case KIND_INT:
+                    final Integer intResult = Types.asInt(value);
+                    result = intResult;
+                    bits = intResult == null ? 0 : intResult;
+                    break;
+                case KIND_LONG:
+                    final Long longResult = Types.asLong(value);
+                    result = longResult;
+                    bits = longResult == null ? 0 : longResult;
+                    break;
+                case KIND_FLOAT:
+                    final Float floatResult = Types.asFloat(value);
+                    result = floatResult;
+                    bits = floatResult == null ? 0 : Double.doubleToRawLongBits(floatResult);
+                    break;
+                case KIND_DOUBLE:
+                    final Double doubleResult = Types.asDouble(value);
+                    result = doubleResult;
+                    bits = doubleResult == null ? 0 : Double.doubleToRawLongBits(doubleResult);
+                    break;
+                case KIND_BOOLEAN:
+                    final Boolean booleanResult = Types.asBoolean(value);
+                    result = booleanResult;
+                    bits = booleanResult != null && booleanResult ? 1 : 0;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown kind " + kind);
+            }
+            this.valid = result != null;
+            this.bits = bits;
+        }
+
+        int intValue() {
+            return (int) this.bits;
+        }
+
+        long longValue() {
+            return this.bits;
+        }
+
+        float floatValue() {
+            return (float) Double.longBitsToDouble(this.bits);
+        }
+
+        double doubleValue() {
+            return Double.longBitsToDouble(this.bits);
+        }
+
+        boolean booleanValue() {
+            return this.bits != 0;
         }
-        this.value = value;
     }
 
     @Nullable
@@ -78,24 +255,14 @@ class ScalarConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigVa
         return Collections.emptySet();
     }
 
-    @NonNull
-    @Override
-    ScalarConfigValue<T> copy(@NonNull T holder) {
-        ScalarConfigValue<T> copy = new ScalarConfigValue<>(holder);
-        copy.value = this.value;
-        return copy;
-    }
-
     @Override
     boolean isEmpty() {
-        final Object value = this.value;
-        return (value instanceof String && ((String) value).isEmpty())
-                || (value instanceof Collection<?> && ((Collection<?>) value).isEmpty());
+        return false;
     }
 
     @Override
     public void clear() {
-       this.value = null;
+        // scalar values have no children to detach
     }
 
     @Override
@@ -103,20 +270,347 @@ class ScalarConfigValue<T extends AbstractConfigurationNode<T>> extends ConfigVa
         if (this == o) {
             return true;
         }
-        if (o == null || getClass() != o.getClass()) {
+        if (!(o instanceof ScalarConfigValue<?>)) {
             return false;
         }
-        ScalarConfigValue<?> that = (ScalarConfigValue<?>) o;
-        return Objects.equals(value, that.value);
+        return getValue().equals(((ScalarConfigValue<?>) o).getValue());
     }
 
     @Override
     public int hashCode() {
-        return 7 + Objects.hashCode(value);
+        return 7 + getValue().hashCode();
     }
 
     @Override
     public String toString() {
-        return "ScalarConfigValue{value=" + this.value + '}';
+        return "ScalarConfigValue{value=" + getValue() + '}';
+    }
+
+    /**
+     * A scalar holding any value other than the specialized primitives.
+     */
+    static final class ObjectScalar<T extends AbstractConfigurationNode<T>> extends ScalarConfigValue<T> {
+        private final Object value;
+
+        /**
+         * The most recent conversion of a {@link String} value to a primitive, or null if there
+         * has been none
+         */
+        private volatile @Nullable Coerced coerced;
+
+        ObjectScalar(T holder, Object value) {
+            super(holder);
+            this.value = value;
+        }
+
+        @NonNull
+        @Override
+        public Object getValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasBoolean() {
+            return this.value instanceof Boolean;
+        }
+
+        @Override
+        boolean booleanValue() {
+            return (Boolean) this.value;
+        }
+
+        @Nullable
+        @Override
+        Coerced coerce(byte kind) {
+            if (!(this.value instanceof String)) {
+                return null;
+            }
+            Coerced coerced = this.coerced;
+            if (coerced == null || coerced.kind != kind) {
+                coerced = new Coerced(kind, (String) this.value);
+                this.coerced = coerced;
+            }
+            return coerced;
+        }
+
+        @NonNull
+        @Override
+        ObjectScalar<T> copy(@NonNull T holder) {
+            final ObjectScalar<T> copy = new ObjectScalar<>(holder, this.value);
+            copy.coerced = this.coerced;
+            return copy;
+        }
+
+        @Override
+        boolean isEmpty() {
+            final Object value = this.value;
+            return (value instanceof String && ((String) value).isEmpty())
+                    || (value instanceof Collection<?> && ((Collection<?>) value).isEmpty());
+        }
+    }
+
+    static final class IntScalar<T extends AbstractConfigurationNode<T>> extends ScalarConfigValue<T> {
+        private final int value;
+
+        IntScalar(T holder, int value) {
+            super(holder);
+            this.value = value;
+        }
+
+        @NonNull
+        @Override
+        public Object getValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasInt() {
+            return true;
+        }
+
+        @Override
+        int intValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasLong() {
+            return true;
+        }
+
+        @Override
+        long longValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasFloat() {
+            return true;
+        }
+
+        @Override
+        float floatValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasDouble() {
+            return true;
+        }
+
+        @Override
+        double doubleValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasBoolean() {
+            return true;
+        }
+
+        @Override
+        boolean booleanValue() {
+            // Types.asBoolean only treats an Integer zero as false, any other number is true
+            return this.value != 0;
+        }
+
+        @NonNull
+        @Override
+        IntScalar<T> copy(@NonNull T holder) {
+            return new IntScalar<>(holder, this.value);
+        }
+    }
+
+    static final class LongScalar<T extends AbstractConfigurationNode<T>> extends ScalarConfigValue<T> {
+        private final long value;
+
+        LongScalar(T holder, long value) {
+            super(holder);
+            this.value = value;
+        }
+
+        @NonNull
+        @Override
+        public Object getValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasInt() {
+            return this.value == (int) this.value;
+        }
+
+        @Override
+        int intValue() {
+            return (int) this.value;
+        }
+
+        @Override
+        boolean hasLong() {
+            return true;
+        }
+
+        @Override
+        long longValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasDouble() {
+            return true;
+        }
+
+        @Override
+        double doubleValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasBoolean() {
+            return true;
+        }
+
+        @Override
+        boolean booleanValue() {
+            return true;
+        }
+
+        @NonNull
+        @Override
+        LongScalar<T> copy(@NonNull T holder) {
+            return new LongScalar<>(holder, this.value);
+        }
+    }
+
+    static final class FloatScalar<T extends AbstractConfigurationNode<T>> extends ScalarConfigValue<T> {
+        private final float value;
+
+        FloatScalar(T holder, float value) {
+            super(holder);
+            this.value = value;
+        }
+
+        @NonNull
+        @Override
+        public Object getValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasInt() {
+            return this.value == Math.floor(this.value);
+        }
+
+        @Override
+        int intValue() {
+            return (int) this.value;
+        }
+
+        @Override
+        boolean hasLong() {
+            return this.value == Math.floor(this.value);
+        }
+
+        @Override
+        long longValue() {
+            return (long) this.value;
+        }
+
+        @Override
+        boolean hasFloat() {
+            return true;
+        }
+
+        @Override
+        float floatValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasDouble() {
+            return true;
+        }
+
+        @Override
+        double doubleValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasBoolean() {
+            return true;
+        }
+
+        @Override
+        boolean booleanValue() {
+            return true;
+        }
+
+        @NonNull
+        @Override
+        FloatScalar<T> copy(@NonNull T holder) {
+            return new FloatScalar<>(holder, this.value);
+        }
+    }
+
+    static final class DoubleScalar<T extends AbstractConfigurationNode<T>> extends ScalarConfigValue<T> {
+        private final double value;
+
+        DoubleScalar(T holder, double value) {
+            super(holder);
+            this.value = value;
+        }
+
+        @NonNull
+        @Override
+        public Object getValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasInt() {
+            return this.value == Math.floor(this.value);
+        }
+
+        @Override
+        int intValue() {
+            return (int) this.value;
+        }
+
+        @Override
+        boolean hasLong() {
+            return this.value == Math.floor(this.value);
+        }
+
+        @Override
+        long longValue() {
+            return (long) this.value;
+        }
+
+        @Override
+        boolean hasDouble() {
+            return true;
+        }
+
+        @Override
+        double doubleValue() {
+            return this.value;
+        }
+
+        @Override
+        boolean hasBoolean() {
+            return true;
+        }
+
+        @Override
+        boolean booleanValue() {
+            return true;
+        }
+
+        @NonNull
+        @Override
+        DoubleScalar<T> copy(@NonNull T holder) {
+            return new DoubleScalar<>(holder, this.value);
+        }
     }
 }
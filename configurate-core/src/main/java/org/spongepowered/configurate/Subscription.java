@@ -0,0 +1,32 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+/**
+ * A handle to a registered listener, which can be used to stop receiving events.
+ */
+public interface Subscription extends AutoCloseable {
+
+    /**
+     * Stop delivering events to the listener.
+     *
+     * <p>Events which are already being delivered may still reach the listener.</p>
+     */
+    @Override
+    void close();
+
+}
@@ -30,6 +30,50 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 public final class Types {
     private Types() {}
 
+    /**
+     * The broad kinds of value the conversions in this class distinguish between.
+     */
+    private enum SourceKind {
+        INTEGER,
+        LONG,
+        FLOAT,
+        DOUBLE,
+        /**
+         * Any other {@link Number}
+         */
+        NUMBER,
+        BOOLEAN,
+        /**
+         * Anything else, which is converted from its string representation
+         */
+        OTHER
+    }
+
+    /**
+     * The kind of each class of value, so conversions can dispatch with a single lookup rather
+     * than a chain of type checks.
+     */
+    private static final ClassValue<SourceKind> SOURCE_KINDS = new ClassValue<SourceKind>() {
+        @Override
+        protected SourceKind computeValue(Class<?> type) {
+            if (type == Integer.class) {
+                return SourceKind.INTEGER;
+            } else if (type == Long.class) {
+                return SourceKind.LONG;
+            } else if (type == Float.class) {
+                return SourceKind.FLOAT;
+            } else if (type == Double.class) {
+                return SourceKind.DOUBLE;
+            } else if (Number.class.isAssignableFrom(type)) {
+                return SourceKind.NUMBER;
+            } else if (type == Boolean.class) {
+                return SourceKind.BOOLEAN;
+            } else {
+                return SourceKind.OTHER;
+            }
+        }
+    };
+
     /**
      * Attempts to convert <code>value</code> to a {@link String}.
      *
@@ -73,16 +117,13 @@ public final class Types {
             return null;
         }
 
-        if (value instanceof Float) {
-            return (Float) value;
-        } else if (value instanceof Integer) {
-            return ((Number) value).floatValue();
-        }
-
-        try {
-            return Float.parseFloat(value.toString());
-        } catch (IllegalArgumentException ex) {
-            return null;
+        switch (SOURCE_KINDS.get(value.getClass())) {
+            case FLOAT:
+                return (Float) value;
+            case INTEGER:
+                return ((Number) value).floatValue();
+            default:
+                return parseFloat(value.toString());
         }
     }
 
@@ -123,18 +164,15 @@ public final class Types {
             return null;
         }
 
-        if (value instanceof Double) {
-            return (Double) value;
-        } else if (value instanceof Integer
-                || value instanceof Long
-                || value instanceof Float) {
-            return ((Number) value).doubleValue();
-        }
-
-        try {
-            return Double.parseDouble(value.toString());
-        } catch (IllegalArgumentException ex) {
-            return null;
+        switch (SOURCE_KINDS.get(value.getClass())) {
+            case DOUBLE:
+                return (Double) value;
+            case INTEGER:
+            case LONG:
+            case FLOAT:
+                return ((Number) value).doubleValue();
+            default:
+                return parseDouble(value.toString());
         }
     }
 
@@ -177,23 +215,22 @@ public final class Types {
             return null;
         }
 
-        if (value instanceof Integer) {
-            return (Integer) value;
-        }
-
-        if (value instanceof Float
-            || value instanceof Double) {
-            double val = ((Number) value).doubleValue();
-            if (val == Math.floor(val)) {
-                return (int) val;
-            }
+        switch (SOURCE_KINDS.get(value.getClass())) {
+            case INTEGER:
+                return (Integer) value;
+            case FLOAT:
+            case DOUBLE:
+                final double val = ((Number) value).doubleValue();
+                if (val == Math.floor(val)) {
+                    return (int) val;
+                }
+                break;
+            default:
+                break;
         }
 
-        try {
-            return Integer.parseInt(value.toString());
-        } catch (IllegalArgumentException ex) {
-            return null;
-        }
+        final Long parsed = parseInteger(value.toString(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return parsed == null ? null : parsed.intValue();
     }
 
     /**
@@ -228,25 +265,23 @@ public final class Types {
             return null;
         }
 
-        if (value instanceof Long) {
-            return (Long) value;
-        } else if (value instanceof Integer) {
-            return ((Number) value).longValue();
-        }
-
-        if (value instanceof Float
-                || value instanceof Double) {
-            double val = ((Number) value).doubleValue();
-            if (val == Math.floor(val)) {
-                return (long) val;
-            }
+        switch (SOURCE_KINDS.get(value.getClass())) {
+            case LONG:
+                return (Long) value;
+            case INTEGER:
+                return ((Number) value).longValue();
+            case FLOAT:
+            case DOUBLE:
+                final double val = ((Number) value).doubleValue();
+                if (val == Math.floor(val)) {
+                    return (long) val;
+                }
+                break;
+            default:
+                break;
         }
 
-        try {
-            return Long.parseLong(value.toString());
-        } catch (IllegalArgumentException ex) {
-            return null;
-        }
+        return parseInteger(value.toString(), Long.MIN_VALUE, Long.MAX_VALUE);
     }
 
     /**
@@ -290,30 +325,36 @@ public final class Types {
             return null;
         }
 
-        if (value instanceof Boolean) {
-            return (Boolean) value;
+        switch (SOURCE_KINDS.get(value.getClass())) {
+            case BOOLEAN:
+                return (Boolean) value;
+            case INTEGER:
+                return (Integer) value != 0;
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+            case NUMBER:
+                return true;
+            default:
+                break;
         }
 
-        if (value instanceof Number) {
-            return !value.equals(0);
+        switch (value.toString()) {
+            case "true":
+            case "t":
+            case "yes":
+            case "y":
+            case "1":
+                return true;
+            case "false":
+            case "f":
+            case "no":
+            case "n":
+            case "0":
+                return false;
+            default:
+                return null;
         }
-
-        final String potential = value.toString();
-        if (potential.equals("true")
-                || potential.equals("t")
-                || potential.equals("yes")
-                || potential.equals("y")
-                || potential.equals("1")) {
-            return true;
-        } else if (potential.equals("false")
-                || potential.equals("f")
-                || potential.equals("no")
-                || potential.equals("n")
-                || potential.equals("0")) {
-            return false;
-        }
-
-        return null;
     }
 
     /**
@@ -330,4 +371,173 @@ public final class Types {
 
         return value instanceof Boolean ? (Boolean) value : null;
     }
+
+    // String parsing
+    // These methods accept exactly what the parse methods of the wrapper types accept, but check
+    // the syntax up front, so the common case of a string that is not a number does not
+    // construct and throw an exception.
+
+    /**
+     * Parse a decimal integer within the given bounds, as {@link Long#parseLong(String)} would.
+     *
+     * @param str The string to parse
+     * @param min The minimum accepted value
+     * @param max The maximum accepted value
+     * @return The parsed value, or null if the string is not an integer within bounds
+     */
+    @Nullable
+    private static Long parseInteger(String str, long min, long max) {
+        final int length = str.length();
+        if (length == 0) {
+            return null;
+        }
+        final char first = str.charAt(0);
+        final boolean negative = first == '-';
+        int i = negative || first == '+' ? 1 : 0;
+        if (i == length) {
+            return null;
+        }
+
+        // accumulate negatively, since the negative range is the larger one
+        final long limit = negative ? min : -max;
+        final long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < length; ++i) {
+            final char c = str.charAt(i);
+            if (c > 0x7f) {
+                // other scripts' digits are accepted by the JDK, leave those to it
+                return parseIntegerSlow(str, min, max);
+            }
+            final int digit = c - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                return null;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    @Nullable
+    private static Long parseIntegerSlow(String str, long min, long max) {
+        try {
+            final long result = Long.parseLong(str);
+            return result < min || result > max ? null : result;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static final int INVALID = 0;
+    private static final int VALID = 1;
+    private static final int UNKNOWN = 2;
+
+    /**
+     * Check whether a string is a floating-point number in decimal notation.
+     *
+     * @param str The string to check
+     * @return {@link #VALID} or {@link #INVALID}, or {@link #UNKNOWN} for the hexadecimal and
+     *         named forms, which this does not check
+     */
+    private static int checkFloatingPoint(String str) {
+        int start = 0;
+        int end = str.length();
+        // parsing trims whitespace
+        while (start < end && str.charAt(start) <= ' ') {
+            ++start;
+        }
+        while (end > start && str.charAt(end - 1) <= ' ') {
+            --end;
+        }
+        if (start < end && (str.charAt(start) == '-' || str.charAt(start) == '+')) {
+            ++start;
+        }
+        if (start == end) {
+            return INVALID;
+        }
+
+        final char first = str.charAt(start);
+        if (first == 'N' || first == 'I'
+                || (first == '0' && start + 1 < end && (str.charAt(start + 1) == 'x' || str.charAt(start + 1) == 'X'))) {
+            return UNKNOWN;
+        }
+
+        int i = start;
+        int digits = 0;
+        while (i < end && isDigit(str.charAt(i))) {
+            ++i;
+            ++digits;
+        }
+        if (i < end && str.charAt(i) == '.') {
+            ++i;
+            while (i < end && isDigit(str.charAt(i))) {
+                ++i;
+                ++digits;
+            }
+        }
+        if (digits == 0) {
+            return INVALID;
+        }
+
+        if (i < end && (str.charAt(i) == 'e' || str.charAt(i) == 'E')) {
+            ++i;
+            if (i < end && (str.charAt(i) == '-' || str.charAt(i) == '+')) {
+                ++i;
+            }
+            final int exponentStart = i;
+            while (i < end && isDigit(str.charAt(i))) {
+                ++i;
+            }
+            if (i == exponentStart) {
+                return INVALID;
+            }
+        }
+
+        if (i < end) {
+            final char suffix = str.charAt(i);
+            if (suffix == 'f' || suffix == 'F' || suffix == 'd' || suffix == 'D') {
+                ++i;
+            }
+        }
+        return i == end ? VALID : INVALID;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    @Nullable
+    private static Float parseFloat(String str) {
+        switch (checkFloatingPoint(str)) {
+            case VALID:
+                return Float.parseFloat(str);
+            case UNKNOWN:
+                try {
+                    return Float.parseFloat(str);
+                } catch (IllegalArgumentException ex) {
+                    return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static Double parseDouble(String str) {
+        switch (checkFloatingPoint(str)) {
+            case VALID:
+                return Double.parseDouble(str);
+            case UNKNOWN:
+                try {
+                    return Double.parseDouble(str);
+                } catch (IllegalArgumentException ex) {
+                    return null;
+                }
+            default:
+                return null;
+        }
+    }
 }
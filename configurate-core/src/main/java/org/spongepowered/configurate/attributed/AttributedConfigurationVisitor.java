@@ -0,0 +1,45 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.attributed;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.spongepowered.configurate.ConfigurationVisitor;
+
+/**
+ * A {@link ConfigurationVisitor} which also receives the tag names and attributes used by
+ * {@link AttributedConfigurationNode}s.
+ *
+ * <p>Like comments, tag names and attributes are reported before the value they belong to.
+ * Formats which have attributes report them only to visitors implementing this interface.</p>
+ */
+public interface AttributedConfigurationVisitor extends ConfigurationVisitor {
+
+    /**
+     * Visit the tag name of the next value.
+     *
+     * @param name The tag name
+     */
+    void tagName(@NonNull String name);
+
+    /**
+     * Visit an attribute of the next value.
+     *
+     * @param name The name of the attribute
+     * @param value The value of the attribute
+     */
+    void attribute(@NonNull String name, @NonNull String value);
+}
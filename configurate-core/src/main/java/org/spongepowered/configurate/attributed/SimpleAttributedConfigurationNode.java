@@ -22,7 +22,9 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spongepowered.configurate.ConfigurationNode;
 import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.ConfigurationVisitor;
 import org.spongepowered.configurate.AbstractConfigurationNode;
+import org.spongepowered.configurate.ValueType;
 
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -73,6 +75,7 @@ public class SimpleAttributedConfigurationNode extends AbstractConfigurationNode
             throw new IllegalArgumentException("Tag name cannot be null/empty");
         }
 
+        prepareForWrite();
         this.tagName = tagName;
         return this;
     }
@@ -84,6 +87,7 @@ public class SimpleAttributedConfigurationNode extends AbstractConfigurationNode
             throw new IllegalArgumentException("Attribute name cannot be null/empty");
         }
 
+        prepareForWrite();
         attributes.put(name, value);
         return this;
     }
@@ -91,6 +95,7 @@ public class SimpleAttributedConfigurationNode extends AbstractConfigurationNode
     @NonNull
     @Override
     public SimpleAttributedConfigurationNode removeAttribute(@NonNull String name) {
+        prepareForWrite();
         attributes.remove(name);
         return this;
     }
@@ -104,6 +109,7 @@ public class SimpleAttributedConfigurationNode extends AbstractConfigurationNode
             }
         }
 
+        prepareForWrite();
         this.attributes.clear();
         this.attributes.putAll(attributes);
         return this;
@@ -126,6 +132,18 @@ public class SimpleAttributedConfigurationNode extends AbstractConfigurationNode
         return ImmutableMap.copyOf(attributes);
     }
 
+    @Override
+    public void visit(@NonNull ConfigurationVisitor visitor) {
+        if (getValueType() != ValueType.NULL && visitor instanceof AttributedConfigurationVisitor) {
+            final AttributedConfigurationVisitor attributedVisitor = (AttributedConfigurationVisitor) visitor;
+            attributedVisitor.tagName(getTagName());
+            for (Map.Entry<String, String> ent : getAttributes().entrySet()) {
+                attributedVisitor.attribute(ent.getKey(), ent.getValue());
+            }
+        }
+        super.visit(visitor);
+    }
+
     // Methods from superclass overridden to have correct return types
 
 
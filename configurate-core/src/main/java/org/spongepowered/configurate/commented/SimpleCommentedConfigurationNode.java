@@ -20,8 +20,10 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spongepowered.configurate.ConfigurationNode;
 import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.ConfigurationVisitor;
 import org.spongepowered.configurate.AbstractConfigurationNode;
 import org.spongepowered.configurate.SimpleConfigurationNode;
+import org.spongepowered.configurate.ValueType;
 
 import java.util.List;
 import java.util.Map;
@@ -61,11 +63,20 @@ public class SimpleCommentedConfigurationNode extends AbstractConfigurationNode<
     @NonNull
     @Override
     public SimpleCommentedConfigurationNode setComment(@Nullable String comment) {
+        prepareForWrite();
         attachIfNecessary();
         this.comment = comment;
         return this;
     }
 
+    @Override
+    public void visit(@NonNull ConfigurationVisitor visitor) {
+        if (getValueType() != ValueType.NULL) {
+            getComment().ifPresent(visitor::comment);
+        }
+        super.visit(visitor);
+    }
+
     // Methods from superclass overridden to have correct return types
 
     @Override
@@ -88,6 +99,7 @@ public class SimpleCommentedConfigurationNode extends AbstractConfigurationNode<
         if (other instanceof CommentedConfigurationNode) {
             Optional<String> otherComment = ((CommentedConfigurationNode<?>) other).getComment();
             if (comment == null && otherComment.isPresent()) {
+                prepareForWrite();
                 comment = otherComment.get();
             }
         }
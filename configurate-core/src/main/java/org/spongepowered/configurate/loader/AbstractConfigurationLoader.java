@@ -21,7 +21,10 @@ import com.google.common.collect.ImmutableList;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNodeBuilder;
 import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.ConfigurationVisitor;
+import org.spongepowered.configurate.util.StringPool;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -148,6 +151,49 @@ public abstract class AbstractConfigurationLoader<NodeType extends Configuration
 
     protected abstract void loadInternal(NodeType node, BufferedReader reader) throws IOException;
 
+    @Override
+    public void visit(@NonNull ConfigurationVisitor visitor) throws IOException {
+        Objects.requireNonNull(visitor, "visitor");
+        if (source == null) {
+            throw new IOException("No source present to read from!");
+        }
+        try (BufferedReader reader = source.call()) {
+            if (headerMode == HeaderMode.PRESERVE || headerMode == HeaderMode.NONE) {
+                // the header belongs to the options of a loaded node, so is skipped here
+                CommentHandlers.extractComment(reader, commentHandlers);
+            }
+            visitInternal(visitor, reader, getDefaultOptions());
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            // Squash -- there's nothing to read
+        } catch (Exception e) {
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            } else {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Read a configuration, reporting its structure to a visitor.
+     *
+     * <p>Loaders able to parse incrementally should override this to drive the visitor directly
+     * from their parser, and implement {@link #loadInternal(ConfigurationNode, BufferedReader)}
+     * by visiting with a {@link ConfigurationNodeBuilder#asVisitor() node builder}. By default,
+     * the configuration is loaded into a node, which is then visited.</p>
+     *
+     * @param visitor The visitor to report to
+     * @param reader The reader to read the configuration from
+     * @param options The options for reading, such as the {@link StringPool} used for keys
+     *                and strings
+     * @throws IOException if any sort of error occurs with reading or parsing the configuration
+     */
+    protected void visitInternal(ConfigurationVisitor visitor, BufferedReader reader, ConfigurationOptions options) throws IOException {
+        final NodeType node = createEmptyNode(options);
+        loadInternal(node, reader);
+        node.visit(visitor);
+    }
+
     @Override
     public void save(@NonNull ConfigurationNode<?> node) throws IOException {
         if (sink == null) {
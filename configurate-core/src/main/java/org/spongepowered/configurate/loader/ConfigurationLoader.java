@@ -19,6 +19,7 @@ package org.spongepowered.configurate.loader;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.spongepowered.configurate.ConfigurationNode;
 import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.ConfigurationVisitor;
 
 import java.io.IOException;
 
@@ -70,6 +71,21 @@ public interface ConfigurationLoader<NodeType extends ConfigurationNode<NodeType
     @NonNull
     NodeType load(@NonNull ConfigurationOptions options) throws IOException;
 
+    /**
+     * Reads the configuration from the defined source, reporting its structure to a visitor.
+     *
+     * <p>Unless a loader states otherwise, the configuration is fully loaded and then
+     * {@link ConfigurationNode#visit(ConfigurationVisitor) visited}. Loaders which read their
+     * format incrementally instead report events as they are parsed, without building any
+     * nodes.</p>
+     *
+     * @param visitor The visitor to report to
+     * @throws IOException if any sort of error occurs with reading or parsing the configuration
+     */
+    default void visit(@NonNull ConfigurationVisitor visitor) throws IOException {
+        load().visit(visitor);
+    }
+
     /**
      * Attempts to save a {@link ConfigurationNode} using this loader, to the defined sink.
      *
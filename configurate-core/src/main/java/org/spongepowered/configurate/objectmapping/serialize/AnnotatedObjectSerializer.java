@@ -28,7 +28,8 @@ import java.lang.reflect.Modifier;
 class AnnotatedObjectSerializer implements TypeSerializer<Object> {
     @Override
     public <Node extends ConfigurationNode<Node>> Object deserialize(@NonNull TypeToken<?> type, @NonNull Node value) throws ObjectMappingException {
-        TypeToken<?> clazz = getInstantiableType(type, value.getNode("__class__").getString());
+        final Node classNode = value.findNode("__class__");
+        TypeToken<?> clazz = getInstantiableType(type, classNode == null ? null : classNode.getString());
         return value.getOptions().getObjectMapperFactory().getMapper(clazz).bindToNew().populate(value);
     }
 
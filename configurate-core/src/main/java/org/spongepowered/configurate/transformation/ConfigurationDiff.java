@@ -0,0 +1,263 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.transformation;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ValueType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The set of differences between two configuration trees.
+ *
+ * <p>A diff is made up of the paths that were added, removed, or changed between an old and a new
+ * tree. Paths are relative to the roots the diff was computed from. Maps are compared key by
+ * key. Lists and scalars are compared as whole values, so a change anywhere within a list is
+ * reported as a change to the list itself.</p>
+ *
+ * <p>Subtrees are compared by their {@link ConfigurationNode#getFingerprint() fingerprints}
+ * first, so subtrees which differ are found without visiting their children when the trees
+ * cache fingerprints, as {@link org.spongepowered.configurate.SimpleConfigurationNode} does.
+ * Fingerprints can collide, so subtrees with equal fingerprints are confirmed to be identical
+ * by walking both of them, unless they are the same node. No values are copied while
+ * comparing.</p>
+ */
+public final class ConfigurationDiff {
+    private final Map<NodePath, ConfigurationNode<?>> added;
+    private final Set<NodePath> removed;
+    private final Map<NodePath, ConfigurationNode<?>> changed;
+
+    private ConfigurationDiff(Map<NodePath, ConfigurationNode<?>> added, Set<NodePath> removed, Map<NodePath, ConfigurationNode<?>> changed) {
+        this.added = added;
+        this.removed = removed;
+        this.changed = changed;
+    }
+
+    /**
+     * Compute the differences between two trees.
+     *
+     * <p>The diff keeps references to nodes from {@code newRoot}, which are read when the diff is
+     * {@link #apply(ConfigurationNode) applied}.</p>
+     *
+     * @param oldRoot The previous state of the tree
+     * @param newRoot The current state of the tree
+     * @return The differences between the two trees
+     */
+    @NonNull
+    public static ConfigurationDiff compute(@NonNull ConfigurationNode<?> oldRoot, @NonNull ConfigurationNode<?> newRoot) {
+        requireNonNull(oldRoot, "oldRoot");
+        requireNonNull(newRoot, "newRoot");
+        final Builder builder = new Builder();
+        builder.diff(oldRoot, newRoot, 0);
+        return new ConfigurationDiff(Collections.unmodifiableMap(builder.added), Collections.unmodifiableSet(builder.removed),
+                Collections.unmodifiableMap(builder.changed));
+    }
+
+    /**
+     * Gets the paths which are present in the new tree but were not present in the old tree.
+     *
+     * @return The added paths
+     */
+    @NonNull
+    public Set<NodePath> getAdded() {
+        return this.added.keySet();
+    }
+
+    /**
+     * Gets the paths which were present in the old tree but are not present in the new tree.
+     *
+     * @return The removed paths
+     */
+    @NonNull
+    public Set<NodePath> getRemoved() {
+        return this.removed;
+    }
+
+    /**
+     * Gets the paths which are present in both trees, but hold a different value.
+     *
+     * @return The changed paths
+     */
+    @NonNull
+    public Set<NodePath> getChanged() {
+        return this.changed.keySet();
+    }
+
+    /**
+     * Gets whether the two trees were identical.
+     *
+     * @return If there are no differences
+     */
+    public boolean isEmpty() {
+        return this.added.isEmpty() && this.removed.isEmpty() && this.changed.isEmpty();
+    }
+
+    /**
+     * Apply the differences in this diff to another tree.
+     *
+     * <p>Applying a diff to a copy of the old tree makes it equal to the new tree. Applying it to
+     * any other tree only touches the paths included in this diff.</p>
+     *
+     * @param target The root of the tree to modify
+     */
+    public void apply(@NonNull ConfigurationNode<?> target) {
+        requireNonNull(target, "target");
+        for (NodePath path : this.removed) {
+            target.getNode(path.getArray()).setValue(null);
+        }
+        for (Map.Entry<NodePath, ConfigurationNode<?>> ent : this.changed.entrySet()) {
+            target.getNode(ent.getKey().getArray()).setValue(ent.getValue());
+        }
+        for (Map.Entry<NodePath, ConfigurationNode<?>> ent : this.added.entrySet()) {
+            target.getNode(ent.getKey().getArray()).setValue(ent.getValue());
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConfigurationDiff)) {
+            return false;
+        }
+        final ConfigurationDiff that = (ConfigurationDiff) o;
+        return this.added.keySet().equals(that.added.keySet())
+                && this.removed.equals(that.removed)
+                && this.changed.keySet().equals(that.changed.keySet());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * this.added.keySet().hashCode() + this.removed.hashCode()) + this.changed.keySet().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigurationDiff{added=" + this.added.keySet() + ", removed=" + this.removed + ", changed=" + this.changed.keySet() + '}';
+    }
+
+    /**
+     * Accumulates differences while walking both trees.
+     */
+    private static final class Builder {
+        final Map<NodePath, ConfigurationNode<?>> added = new LinkedHashMap<>();
+        final Set<NodePath> removed = new LinkedHashSet<>();
+        final Map<NodePath, ConfigurationNode<?>> changed = new LinkedHashMap<>();
+        private Object[] path = new Object[8];
+
+        private NodePath path(int depth) {
+            return new NodePathImpl(Arrays.copyOf(this.path, depth), false);
+        }
+
+        void diff(ConfigurationNode<?> oldNode, ConfigurationNode<?> newNode, int depth) {
+            if (isIdentical(oldNode, newNode)) {
+                return;
+            }
+
+            if (oldNode.isMap() && newNode.isMap()) {
+                if (depth == this.path.length) {
+                    this.path = Arrays.copyOf(this.path, depth * 2);
+                }
+                final Map<Object, ? extends ConfigurationNode<?>> newChildren = newNode.getChildrenMapView();
+                for (Map.Entry<Object, ? extends ConfigurationNode<?>> ent : oldNode.getChildrenMapView().entrySet()) {
+                    this.path[depth] = ent.getKey();
+                    final ConfigurationNode<?> newChild = newChildren.get(ent.getKey());
+                    if (newChild == null) {
+                        this.removed.add(path(depth + 1));
+                    } else {
+                        diff(ent.getValue(), newChild, depth + 1);
+                    }
+                }
+                final Map<Object, ? extends ConfigurationNode<?>> oldChildren = oldNode.getChildrenMapView();
+                for (Map.Entry<Object, ? extends ConfigurationNode<?>> ent : newChildren.entrySet()) {
+                    if (!oldChildren.containsKey(ent.getKey())) {
+                        this.path[depth] = ent.getKey();
+                        this.added.put(path(depth + 1), ent.getValue());
+                    }
+                }
+            } else if (oldNode.getValueType() == ValueType.NULL) {
+                this.added.put(path(depth), newNode);
+            } else if (newNode.getValueType() == ValueType.NULL) {
+                this.removed.add(path(depth));
+            } else {
+                this.changed.put(path(depth), newNode);
+            }
+        }
+
+        /**
+         * Check if two subtrees have equal values, using fingerprints to rule out differences.
+         *
+         * @param oldNode The old node
+         * @param newNode The new node
+         * @return If the subtrees are equal
+         */
+        private static boolean isIdentical(ConfigurationNode<?> oldNode, ConfigurationNode<?> newNode) {
+            if (oldNode == newNode) {
+                return true;
+            } else if (oldNode.getFingerprint() != newNode.getFingerprint()) {
+                return false;
+            }
+
+            // equal fingerprints may still be a collision
+            if (oldNode.isMap()) {
+                if (!newNode.isMap()) {
+                    return false;
+                }
+                final Map<Object, ? extends ConfigurationNode<?>> oldChildren = oldNode.getChildrenMapView();
+                final Map<Object, ? extends ConfigurationNode<?>> newChildren = newNode.getChildrenMapView();
+                if (oldChildren.size() != newChildren.size()) {
+                    return false;
+                }
+                for (Map.Entry<Object, ? extends ConfigurationNode<?>> ent : oldChildren.entrySet()) {
+                    final ConfigurationNode<?> newChild = newChildren.get(ent.getKey());
+                    if (newChild == null || !isIdentical(ent.getValue(), newChild)) {
+                        return false;
+                    }
+                }
+                return true;
+            } else if (oldNode.isList()) {
+                if (!newNode.isList()) {
+                    return false;
+                }
+                final List<? extends ConfigurationNode<?>> oldChildren = oldNode.getChildrenListView();
+                final List<? extends ConfigurationNode<?>> newChildren = newNode.getChildrenListView();
+                if (oldChildren.size() != newChildren.size()) {
+                    return false;
+                }
+                for (int i = 0; i < oldChildren.size(); ++i) {
+                    if (!isIdentical(oldChildren.get(i), newChildren.get(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            } else {
+                return !newNode.isMap() && !newNode.isList() && Objects.equals(oldNode.getValue(), newNode.getValue());
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.spongepowered.configurate.transformation;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.spongepowered.configurate.NodeAccessor;
 
 import java.util.Collection;
 import java.util.Iterator;
@@ -85,5 +86,18 @@ public interface NodePath extends Iterable<Object>, Cloneable {
         return new NodePathImpl(path.toArray(), false);
     }
 
+    /**
+     * Create an accessor which can be used to look up the node at a path repeatedly.
+     *
+     * <p>This should be preferred to {@link org.spongepowered.configurate.ConfigurationNode#getNode(Object...)} for paths that
+     * are looked up frequently, as the accessor caches the node it resolves to.</p>
+     *
+     * @param path The path to access. The provided array will be copied.
+     * @return The accessor
+     */
+    static NodeAccessor compile(Object... path) {
+        return NodeAccessor.of(path);
+    }
+
     NodePath clone();
 }
@@ -0,0 +1,358 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.util;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An insertion-ordered {@link ConcurrentMap} optimized for a small number of entries.
+ *
+ * <p>While the map holds at most {@code threshold} entries, they are stored as alternating keys
+ * and values in a single immutable array, which is searched linearly and replaced with a
+ * modified copy on every write. Once the map grows past the threshold, its contents are moved
+ * into a map created by the {@code promoted} factory, which handles all later operations.</p>
+ *
+ * <p>Reads never lock, and writes to the compact form are published by compare-and-set.
+ * Iterating over a map in its compact form operates on a snapshot of its entries.</p>
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+final class CompactMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>, CompactStorage {
+    private static final Object[] EMPTY = new Object[0];
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<CompactMap, Object> STATE =
+            AtomicReferenceFieldUpdater.newUpdater(CompactMap.class, Object.class, "state");
+
+    private final int threshold;
+    private final MapFactory promoted;
+
+    /**
+     * Either an {@code Object[]} of alternating keys and values, or the promoted map
+     */
+    private volatile Object state = EMPTY;
+
+    private transient @Nullable Set<Entry<K, V>> entrySet;
+
+    CompactMap(int threshold, MapFactory promoted) {
+        this.threshold = threshold;
+        this.promoted = promoted;
+    }
+
+    private static int indexOf(Object[] entries, Object key) {
+        for (int i = 0; i < entries.length; i += 2) {
+            if (entries[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> ConcurrentMap<K, V> asMap(Object state) {
+        return (ConcurrentMap<K, V>) state;
+    }
+
+    @Override
+    public int getArrayLength() {
+        final Object state = this.state;
+        return state instanceof Object[] ? ((Object[]) state).length : 0;
+    }
+
+    @Nullable
+    @Override
+    public Map<?, ?> getPromoted() {
+        final Object state = this.state;
+        return state instanceof Object[] ? null : asMap(state);
+    }
+
+    @Override
+    public int size() {
+        final Object state = this.state;
+        return state instanceof Object[] ? ((Object[]) state).length >> 1 : asMap(state).size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        final Object state = this.state;
+        return state instanceof Object[] ? ((Object[]) state).length == 0 : asMap(state).isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        final Object state = this.state;
+        return state instanceof Object[] ? indexOf((Object[]) state, requireNonNull(key, "key")) != -1 : asMap(state).containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        final Object state = this.state;
+        if (state instanceof Object[]) {
+            final Object[] entries = (Object[]) state;
+            final int idx = indexOf(entries, requireNonNull(key, "key"));
+            return idx == -1 ? null : (V) entries[idx + 1];
+        }
+        return CompactMap.<K, V>asMap(state).get(key);
+    }
+
+    /**
+     * Insert or replace a value.
+     *
+     * @param key The key
+     * @param value The value
+     * @param onlyIfAbsent Only insert if no value is present
+     * @param onlyIfPresent Only replace if a value is present
+     * @return The previous value, if any
+     */
+    @SuppressWarnings("unchecked")
+    private V doPut(K key, V value, boolean onlyIfAbsent, boolean onlyIfPresent) {
+        requireNonNull(key, "key");
+        requireNonNull(value, "value");
+        while (true) {
+            final Object state = this.state;
+            if (!(state instanceof Object[])) {
+                final ConcurrentMap<K, V> map = asMap(state);
+                return onlyIfAbsent ? map.putIfAbsent(key, value) : onlyIfPresent ? map.replace(key, value) : map.put(key, value);
+            }
+
+            final Object[] entries = (Object[]) state;
+            final int idx = indexOf(entries, key);
+            final Object newState;
+            if (idx != -1) {
+                if (onlyIfAbsent) {
+                    return (V) entries[idx + 1];
+                }
+                final Object[] newEntries = entries.clone();
+                newEntries[idx + 1] = value;
+                newState = newEntries;
+            } else if (onlyIfPresent) {
+                return null;
+            } else if ((entries.length >> 1) >= this.threshold) {
+                final ConcurrentMap<K, V> map = this.promoted.create();
+                for (int i = 0; i < entries.length; i += 2) {
+                    map.put((K) entries[i], (V) entries[i + 1]);
+                }
+                map.put(key, value);
+                newState = map;
+            } else {
+                final Object[] newEntries = Arrays.copyOf(entries, entries.length + 2);
+                newEntries[entries.length] = key;
+                newEntries[entries.length + 1] = value;
+                newState = newEntries;
+            }
+
+            if (STATE.compareAndSet(this, state, newState)) {
+                return idx == -1 ? null : (V) entries[idx + 1];
+            }
+        }
+    }
+
+    /**
+     * Remove a value.
+     *
+     * @param key The key
+     * @param expected The value that must be present, or null to remove any value
+     * @return The removed value, or null if nothing was removed
+     */
+    @SuppressWarnings("unchecked")
+    private V doRemove(Object key, @Nullable Object expected) {
+        requireNonNull(key, "key");
+        while (true) {
+            final Object state = this.state;
+            if (!(state instanceof Object[])) {
+                final ConcurrentMap<K, V> map = asMap(state);
+                if (expected == null) {
+                    return map.remove(key);
+                }
+                return map.remove(key, expected) ? (V) expected : null;
+            }
+
+            final Object[] entries = (Object[]) state;
+            final int idx = indexOf(entries, key);
+            if (idx == -1 || (expected != null && !expected.equals(entries[idx + 1]))) {
+                return null;
+            }
+            final Object[] newEntries = new Object[entries.length - 2];
+            System.arraycopy(entries, 0, newEntries, 0, idx);
+            System.arraycopy(entries, idx + 2, newEntries, idx, newEntries.length - idx);
+            if (STATE.compareAndSet(this, state, newEntries.length == 0 ? EMPTY : newEntries)) {
+                return (V) entries[idx + 1];
+            }
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return doPut(key, value, false, false);
+    }
+
+    @Override
+    public V putIfAbsent(@NonNull K key, V value) {
+        return doPut(key, value, true, false);
+    }
+
+    @Override
+    public V replace(@NonNull K key, @NonNull V value) {
+        return doPut(key, value, false, true);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean replace(@NonNull K key, @NonNull V oldValue, @NonNull V newValue) {
+        requireNonNull(oldValue, "oldValue");
+        requireNonNull(newValue, "newValue");
+        while (true) {
+            final Object state = this.state;
+            if (!(state instanceof Object[])) {
+                return CompactMap.<K, V>asMap(state).replace(key, oldValue, newValue);
+            }
+
+            final Object[] entries = (Object[]) state;
+            final int idx = indexOf(entries, requireNonNull(key, "key"));
+            if (idx == -1 || !oldValue.equals(entries[idx + 1])) {
+                return false;
+            }
+            final Object[] newEntries = entries.clone();
+            newEntries[idx + 1] = newValue;
+            if (STATE.compareAndSet(this, state, newEntries)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        return doRemove(key, null);
+    }
+
+    @Override
+    public boolean remove(@NonNull Object key, Object value) {
+        return value != null && doRemove(key, value) != null;
+    }
+
+    @Override
+    public void clear() {
+        while (true) {
+            final Object state = this.state;
+            if (!(state instanceof Object[])) {
+                // entries written concurrently with a clear may or may not remain, as with other concurrent maps
+                asMap(state).clear();
+                return;
+            } else if (state == EMPTY || STATE.compareAndSet(this, state, EMPTY)) {
+                return;
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new EntrySet();
+        }
+        return this.entrySet;
+    }
+
+    /**
+     * A view of the map's entries, which iterates over a snapshot while the map is compact.
+     */
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> ent = (Map.Entry<?, ?>) o;
+            final V value = CompactMap.this.get(ent.getKey());
+            return value != null && value.equals(ent.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> ent = (Map.Entry<?, ?>) o;
+            return CompactMap.this.remove(ent.getKey(), ent.getValue());
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+
+        @NonNull
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            final Object state = CompactMap.this.state;
+            if (!(state instanceof Object[])) {
+                return CompactMap.<K, V>asMap(state).entrySet().iterator();
+            }
+
+            final Object[] entries = (Object[]) state;
+            return new Iterator<Entry<K, V>>() {
+                private int next;
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return this.next < entries.length;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Entry<K, V> next() {
+                    if (this.next >= entries.length) {
+                        throw new NoSuchElementException();
+                    }
+                    this.last = this.next;
+                    this.next += 2;
+                    return new SimpleImmutableEntry<>((K) entries[this.last], (V) entries[this.last + 1]);
+                }
+
+                @Override
+                public void remove() {
+                    if (this.last == -1) {
+                        throw new IllegalStateException();
+                    }
+                    CompactMap.this.remove(entries[this.last]);
+                    this.last = -1;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Map;
+
+/**
+ * Describes the layout of a map which stores a small number of entries as alternating keys and
+ * values in a single array.
+ *
+ * <p>This is implemented by the maps created by {@link MapFactories#compact()}, so that memory
+ * estimates can account for their layout.</p>
+ */
+public interface CompactStorage {
+
+    /**
+     * Gets the length of the array currently holding this map's entries.
+     *
+     * @return The length, or 0 if the map has grown past its threshold
+     */
+    int getArrayLength();
+
+    /**
+     * Gets the map holding this map's entries, once it has grown past its threshold.
+     *
+     * @return The promoted map, or null if the entries are still held in an array
+     */
+    @Nullable
+    Map<?, ?> getPromoted();
+
+}
@@ -0,0 +1,374 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.util;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An insertion-ordered {@link ConcurrentMap}.
+ *
+ * <p>Entries are indexed by a {@link ConcurrentHashMap}, and linked together in the order they
+ * were first inserted. Replacing the value of an existing key does not change its position.</p>
+ *
+ * <p>Reads never lock. Writes are serialized by the map's monitor, and relink at most one
+ * entry. Iterators walk the links directly, without copying, and are weakly consistent: they
+ * never throw {@link java.util.ConcurrentModificationException}, skip entries removed before
+ * they are reached, and may or may not see entries added after they were created.</p>
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+final class ConcurrentLinkedMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    private final ConcurrentHashMap<K, Node> index = new ConcurrentHashMap<>();
+
+    /**
+     * A sentinel, whose successor is the eldest entry
+     */
+    private final Node head = new Node(null, null);
+
+    /**
+     * The youngest entry, or the head if the map is empty. Guarded by this map's monitor
+     */
+    private Node tail = this.head;
+
+    private transient @Nullable Set<Entry<K, V>> entrySet;
+
+    @Override
+    public int size() {
+        return this.index.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.index.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.index.containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        final Node node = this.index.get(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Insert or replace a value.
+     *
+     * @param key The key
+     * @param value The value
+     * @param onlyIfAbsent Only insert if no value is present
+     * @param onlyIfPresent Only replace if a value is present
+     * @return The previous value, if any
+     */
+    private V doPut(K key, V value, boolean onlyIfAbsent, boolean onlyIfPresent) {
+        requireNonNull(key, "key");
+        requireNonNull(value, "value");
+        synchronized (this) {
+            final Node existing = this.index.get(key);
+            if (existing != null) {
+                final V old = existing.value;
+                if (!onlyIfAbsent) {
+                    existing.value = value;
+                }
+                return old;
+            } else if (onlyIfPresent) {
+                return null;
+            }
+
+            final Node node = new Node(key, value);
+            node.prev = this.tail;
+            this.index.put(key, node);
+            this.tail.next = node;
+            this.tail = node;
+            return null;
+        }
+    }
+
+    /**
+     * Remove a value.
+     *
+     * @param key The key
+     * @param expected The value that must be present, or null to remove any value
+     * @return The removed value, or null if nothing was removed
+     */
+    private V doRemove(Object key, @Nullable Object expected) {
+        requireNonNull(key, "key");
+        synchronized (this) {
+            final Node node = this.index.get(key);
+            if (node == null || (expected != null && !expected.equals(node.value))) {
+                return null;
+            }
+            this.index.remove(key);
+            return unlink(node);
+        }
+    }
+
+    /**
+     * Remove a node from the chain of entries. Must be called while holding this map's monitor.
+     *
+     * <p>The node keeps its link to its successor, so iterators positioned on it can continue
+     * on to the entries that remain.</p>
+     *
+     * @param node The node to unlink
+     * @return The node's value
+     */
+    private V unlink(Node node) {
+        node.removed = true;
+        final Node prev = node.prev;
+        final Node next = node.next;
+        prev.next = next;
+        if (next == null) {
+            this.tail = prev;
+        } else {
+            next.prev = prev;
+        }
+        return node.value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return doPut(key, value, false, false);
+    }
+
+    @Override
+    public V putIfAbsent(@NonNull K key, V value) {
+        return doPut(key, value, true, false);
+    }
+
+    @Override
+    public V replace(@NonNull K key, @NonNull V value) {
+        return doPut(key, value, false, true);
+    }
+
+    @Override
+    public boolean replace(@NonNull K key, @NonNull V oldValue, @NonNull V newValue) {
+        requireNonNull(key, "key");
+        requireNonNull(oldValue, "oldValue");
+        requireNonNull(newValue, "newValue");
+        synchronized (this) {
+            final Node node = this.index.get(key);
+            if (node == null || !oldValue.equals(node.value)) {
+                return false;
+            }
+            node.value = newValue;
+            return true;
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        return doRemove(key, null);
+    }
+
+    @Override
+    public boolean remove(@NonNull Object key, Object value) {
+        return value != null && doRemove(key, value) != null;
+    }
+
+    @Override
+    public void clear() {
+        synchronized (this) {
+            this.index.clear();
+            // mark every entry as removed, for the benefit of iterators in progress
+            for (Node node = this.head.next; node != null; node = node.next) {
+                node.removed = true;
+            }
+            this.head.next = null;
+            this.tail = this.head;
+        }
+    }
+
+    @NonNull
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new EntrySet();
+        }
+        return this.entrySet;
+    }
+
+    /**
+     * An entry in the map, linked to its neighbours in insertion order.
+     *
+     * <p>An entry keeps its last value once it has been removed from the map.</p>
+     */
+    private final class Node implements Entry<K, V> {
+        private final K key;
+        volatile V value;
+        volatile boolean removed;
+        volatile @Nullable Node next;
+        @Nullable Node prev;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return this.key;
+        }
+
+        @Override
+        public V getValue() {
+            return this.value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            requireNonNull(value, "value");
+            synchronized (ConcurrentLinkedMap.this) {
+                if (this.removed) {
+                    throw new IllegalStateException("Entry for key " + this.key + " has been removed");
+                }
+                final V old = this.value;
+                this.value = value;
+                return old;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> ent = (Map.Entry<?, ?>) o;
+            return Objects.equals(this.key, ent.getKey()) && Objects.equals(this.value, ent.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.key) ^ Objects.hashCode(this.value);
+        }
+
+        @Override
+        public String toString() {
+            return this.key + "=" + this.value;
+        }
+    }
+
+    /**
+     * A view of the map's entries, which walks the chain of live nodes.
+     */
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public int size() {
+            return ConcurrentLinkedMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> ent = (Map.Entry<?, ?>) o;
+            final V value = ConcurrentLinkedMap.this.get(ent.getKey());
+            return value != null && value.equals(ent.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> ent = (Map.Entry<?, ?>) o;
+            return ConcurrentLinkedMap.this.remove(ent.getKey(), ent.getValue());
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentLinkedMap.this.clear();
+        }
+
+        @NonNull
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new Iterator<Entry<K, V>>() {
+                /**
+                 * The last node returned, or the head before iteration has started
+                 */
+                private Node position = ConcurrentLinkedMap.this.head;
+                private @Nullable Node next;
+                private @Nullable Node last;
+
+                private @Nullable Node advance() {
+                    Node node = this.position.next;
+                    while (node != null && node.removed) {
+                        node = node.next;
+                    }
+                    return node;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    // look ahead again if the entry found by a previous call has since been removed
+                    Node node = this.next;
+                    if (node == null || node.removed) {
+                        node = this.next = advance();
+                    }
+                    return node != null;
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    Node node = this.next;
+                    if (node == null) {
+                        node = advance();
+                        if (node == null) {
+                            throw new NoSuchElementException();
+                        }
+                    }
+                    this.position = node;
+                    this.last = node;
+                    this.next = null;
+                    return node;
+                }
+
+                @Override
+                public void remove() {
+                    final Node last = this.last;
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    synchronized (ConcurrentLinkedMap.this) {
+                        // only remove this exact entry, not one since inserted under the same key
+                        if (ConcurrentLinkedMap.this.index.remove(last.key, last)) {
+                            unlink(last);
+                        }
+                    }
+                    this.last = null;
+                }
+            };
+        }
+    }
+}
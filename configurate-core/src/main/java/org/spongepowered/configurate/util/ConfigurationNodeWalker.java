@@ -156,14 +156,14 @@ public abstract class ConfigurationNodeWalker {
         T node = from.getNode();
         switch (node.getValueType()) {
             case LIST: {
-                return Iterators.transform(node.getChildrenList().iterator(), child -> {
+                return Iterators.transform(node.getChildrenListView().iterator(), child -> {
                     Objects.requireNonNull(child);
 
                     return new VisitedNodeImpl<>(from.getPath().withAppendedChild(child.getKey()), child);
                 });
             }
             case MAP: {
-                return Iterators.transform(node.getChildrenMap().entrySet().iterator(), child -> {
+                return Iterators.transform(node.getChildrenMapView().entrySet().iterator(), child -> {
                     Objects.requireNonNull(child);
 
                     return new VisitedNodeImpl<>(from.getPath().withAppendedChild(child.getKey()), child.getValue());
@@ -0,0 +1,257 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.util;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An insertion-ordered map optimized for a small number of entries, for use by a single thread.
+ *
+ * <p>This is the unsynchronized counterpart of {@link CompactMap}. While the map holds at most
+ * {@code threshold} entries, they are stored as alternating keys and values in a single array,
+ * which is searched linearly and modified in place. Once the map grows past the threshold, its
+ * contents are moved into a map created by the {@code promoted} factory's
+ * {@link MapFactory#createConfined()}, which handles all later operations.</p>
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+final class ConfinedCompactMap<K, V> extends AbstractMap<K, V> implements CompactStorage {
+    private static final Object[] EMPTY = new Object[0];
+
+    private final int threshold;
+    private final MapFactory promoted;
+
+    /**
+     * Alternating keys and values, of which the first {@code size * 2} elements are in use.
+     * Null once the map has been promoted
+     */
+    private Object[] entries = EMPTY;
+    private int size;
+    private @Nullable Map<K, V> map;
+    private int modCount;
+
+    private transient @Nullable Set<Entry<K, V>> entrySet;
+
+    ConfinedCompactMap(int threshold, MapFactory promoted) {
+        this.threshold = threshold;
+        this.promoted = promoted;
+    }
+
+    private int indexOf(Object key) {
+        final Object[] entries = this.entries;
+        for (int i = 0; i < this.size << 1; i += 2) {
+            if (entries[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getArrayLength() {
+        return this.entries == null ? 0 : this.entries.length;
+    }
+
+    @Nullable
+    @Override
+    public Map<?, ?> getPromoted() {
+        return this.map;
+    }
+
+    @Override
+    public int size() {
+        return this.map == null ? this.size : this.map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.map == null ? this.size == 0 : this.map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.map == null ? indexOf(requireNonNull(key, "key")) != -1 : this.map.containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (this.map != null) {
+            return this.map.get(key);
+        }
+        final int idx = indexOf(requireNonNull(key, "key"));
+        return idx == -1 ? null : (V) this.entries[idx + 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        requireNonNull(key, "key");
+        requireNonNull(value, "value");
+        if (this.map != null) {
+            return this.map.put(key, value);
+        }
+
+        final int idx = indexOf(key);
+        if (idx != -1) {
+            final V old = (V) this.entries[idx + 1];
+            this.entries[idx + 1] = value;
+            return old;
+        }
+
+        ++this.modCount;
+        if (this.size >= this.threshold) {
+            final Map<K, V> map = this.promoted.createConfined();
+            for (int i = 0; i < this.size << 1; i += 2) {
+                map.put((K) this.entries[i], (V) this.entries[i + 1]);
+            }
+            map.put(key, value);
+            this.map = map;
+            this.entries = null;
+            this.size = 0;
+            return null;
+        }
+
+        final int end = this.size << 1;
+        if (end == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries, Math.min(Math.max(4, end * 2), this.threshold << 1));
+        }
+        this.entries[end] = key;
+        this.entries[end + 1] = value;
+        ++this.size;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (this.map != null) {
+            return this.map.remove(key);
+        }
+        final int idx = indexOf(requireNonNull(key, "key"));
+        if (idx == -1) {
+            return null;
+        }
+        final V old = (V) this.entries[idx + 1];
+        removeAt(idx);
+        return old;
+    }
+
+    private void removeAt(int idx) {
+        final int end = this.size << 1;
+        System.arraycopy(this.entries, idx + 2, this.entries, idx, end - idx - 2);
+        this.entries[end - 2] = null;
+        this.entries[end - 1] = null;
+        --this.size;
+        ++this.modCount;
+    }
+
+    @Override
+    public void clear() {
+        if (this.map != null) {
+            this.map.clear();
+        } else if (this.size > 0) {
+            Arrays.fill(this.entries, 0, this.size << 1, null);
+            this.size = 0;
+            ++this.modCount;
+        }
+    }
+
+    @NonNull
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new EntrySet();
+        }
+        return this.entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public int size() {
+            return ConfinedCompactMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            ConfinedCompactMap.this.clear();
+        }
+
+        @NonNull
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            if (ConfinedCompactMap.this.map != null) {
+                return ConfinedCompactMap.this.map.entrySet().iterator();
+            }
+
+            return new Iterator<Entry<K, V>>() {
+                private int next;
+                private int last = -1;
+                private int expectedModCount = ConfinedCompactMap.this.modCount;
+
+                private void checkForComodification() {
+                    if (ConfinedCompactMap.this.modCount != this.expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return this.next < ConfinedCompactMap.this.size << 1;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Entry<K, V> next() {
+                    checkForComodification();
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    this.last = this.next;
+                    this.next += 2;
+                    final Object[] entries = ConfinedCompactMap.this.entries;
+                    return new SimpleImmutableEntry<>((K) entries[this.last], (V) entries[this.last + 1]);
+                }
+
+                @Override
+                public void remove() {
+                    if (this.last == -1) {
+                        throw new IllegalStateException();
+                    }
+                    checkForComodification();
+                    removeAt(this.last);
+                    this.next = this.last;
+                    this.last = -1;
+                    this.expectedModCount = ConfinedCompactMap.this.modCount;
+                }
+            };
+        }
+    }
+}
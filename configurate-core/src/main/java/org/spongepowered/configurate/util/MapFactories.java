@@ -16,15 +16,13 @@
  */
 package org.spongepowered.configurate.util;
 
-import com.google.common.collect.ImmutableSet;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
-import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
@@ -69,12 +67,49 @@ public final class MapFactories {
     /**
      * Returns a {@link MapFactory} which creates maps which are sorted by insertion order.
      *
+     * <p>Reads from these maps never lock, and iterating over them does not copy their
+     * entries.</p>
+     *
      * @return A map factory which produces maps sorted by insertion order
      */
     public static MapFactory insertionOrdered() {
         return DefaultFactory.INSERTION_ORDERED;
     }
 
+    /**
+     * Returns a {@link MapFactory} which creates insertion-ordered maps optimized for holding
+     * only a few entries.
+     *
+     * <p>Maps hold up to {@value #DEFAULT_COMPACT_THRESHOLD} entries in a single flat array, and
+     * switch to maps from {@link #insertionOrdered()} once they grow past that size. This
+     * substantially reduces the memory used by configurations with many small sections.</p>
+     *
+     * @return A map factory which produces compact, insertion-ordered maps
+     */
+    public static MapFactory compact() {
+        return DefaultFactory.COMPACT;
+    }
+
+    /**
+     * Returns a {@link MapFactory} which creates insertion-ordered maps that hold up to
+     * {@code threshold} entries in a single flat array.
+     *
+     * @param threshold The maximum number of entries to store in compact form
+     * @return A map factory which produces compact, insertion-ordered maps
+     * @see #compact()
+     */
+    public static MapFactory compact(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative, was " + threshold);
+        }
+        return threshold == DEFAULT_COMPACT_THRESHOLD ? compact() : new CompactMapFactory(threshold);
+    }
+
+    /**
+     * The number of entries held by a {@link #compact()} map before it switches to a hash map.
+     */
+    static final int DEFAULT_COMPACT_THRESHOLD = 8;
+
     private enum DefaultFactory implements MapFactory {
         UNORDERED {
             @NonNull
@@ -82,6 +117,12 @@ public final class MapFactories {
             public <K, V> ConcurrentMap<K, V> create() {
                 return new ConcurrentHashMap<>();
             }
+
+            @NonNull
+            @Override
+            public <K, V> Map<K, V> createConfined() {
+                return new HashMap<>();
+            }
         },
         SORTED_NATURAL {
             @NonNull
@@ -89,201 +130,108 @@ public final class MapFactories {
             public <K, V> ConcurrentMap<K, V> create() {
                 return new ConcurrentSkipListMap<>();
             }
+
+            @NonNull
+            @Override
+            public <K, V> Map<K, V> createConfined() {
+                return new TreeMap<>();
+            }
         },
         INSERTION_ORDERED {
             @NonNull
             @Override
             public <K, V> ConcurrentMap<K, V> create() {
-                return new SynchronizedWrapper<>(new LinkedHashMap<>());
-            }
-        }
-    }
-
-    private static final class SortedMapFactory implements MapFactory {
-        private final Comparator<Object> comparator;
-
-        private SortedMapFactory(Comparator<Object> comparator) {
-            this.comparator = comparator;
-        }
-
-        @NonNull
-        @Override
-        public <K, V> ConcurrentMap<K, V> create() {
-            return new ConcurrentSkipListMap<>(comparator);
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            return obj instanceof SortedMapFactory && comparator.equals(((SortedMapFactory) obj).comparator);
-        }
-
-        @Override
-        public int hashCode() {
-            return comparator.hashCode();
-        }
-
-        @Override
-        public String toString() {
-            return "SortedMapFactory{comparator=" + comparator + '}';
-        }
-    }
-
-    private static class SynchronizedWrapper<K, V> implements ConcurrentMap<K, V> {
-        private final Map<K, V> wrapped;
-
-        private SynchronizedWrapper(Map<K, V> wrapped) {
-            this.wrapped = wrapped;
-        }
-
-        @Override
-        public V putIfAbsent(K k, V v) {
-            synchronized (wrapped) {
-                if (!wrapped.containsKey(k)) {
-                    wrapped.put(k, v);
-                } else {
-                    return wrapped.get(k);
-                }
-            }
-            return null;
-        }
-
-        @Override
-        public boolean remove(Object key, Object expected) {
-            synchronized (wrapped) {
-                if (Objects.equals(expected, wrapped.get(key))) {
-                    return wrapped.remove(key) != null;
-                }
+                return new ConcurrentLinkedMap<>();
             }
-            return false;
-        }
 
-        @Override
-        public boolean replace(K key, V old, V replace) {
-            synchronized (wrapped) {
-                if (Objects.equals(old, wrapped.get(key))) {
-                    wrapped.put(key, replace);
-                    return true;
-                }
+            @NonNull
+            @Override
+            public <K, V> Map<K, V> createConfined() {
+                return new LinkedHashMap<>();
             }
-            return false;
-        }
-
-        @Override
-        public V replace(K k, V v) {
-            synchronized (wrapped) {
-                if (wrapped.containsKey(k)) {
-                    return wrapped.put(k, v);
-                }
+        },
+        COMPACT {
+            @NonNull
+            @Override
+            public <K, V> ConcurrentMap<K, V> create() {
+                return new CompactMap<>(DEFAULT_COMPACT_THRESHOLD, INSERTION_ORDERED);
             }
-            return null;
-        }
 
-        @Override
-        public int size() {
-            synchronized (wrapped) {
-                return wrapped.size();
+            @NonNull
+            @Override
+            public <K, V> Map<K, V> createConfined() {
+                return new ConfinedCompactMap<>(DEFAULT_COMPACT_THRESHOLD, INSERTION_ORDERED);
             }
         }
+    }
 
-        @Override
-        public boolean isEmpty() {
-            synchronized (wrapped) {
-                return wrapped.isEmpty();
-            }
-        }
+    private static final class CompactMapFactory implements MapFactory {
+        private final int threshold;
 
-        @Override
-        public boolean containsKey(Object o) {
-            synchronized (wrapped) {
-                return wrapped.containsKey(o);
-            }
+        private CompactMapFactory(int threshold) {
+            this.threshold = threshold;
         }
 
+        @NonNull
         @Override
-        public boolean containsValue(Object o) {
-            synchronized (wrapped) {
-                return wrapped.containsKey(o);
-            }
+        public <K, V> ConcurrentMap<K, V> create() {
+            return new CompactMap<>(threshold, DefaultFactory.INSERTION_ORDERED);
         }
 
+        @NonNull
         @Override
-        public V get(Object o) {
-            synchronized (wrapped) {
-                return wrapped.get(o);
-            }
+        public <K, V> Map<K, V> createConfined() {
+            return new ConfinedCompactMap<>(threshold, DefaultFactory.INSERTION_ORDERED);
         }
 
         @Override
-        public V put(K k, V v) {
-            synchronized (wrapped) {
-                return wrapped.put(k, v);
-            }
+        public boolean equals(Object obj) {
+            return obj instanceof CompactMapFactory && threshold == ((CompactMapFactory) obj).threshold;
         }
 
         @Override
-        public V remove(Object o) {
-            synchronized (wrapped) {
-                return wrapped.remove(o);
-            }
+        public int hashCode() {
+            return threshold;
         }
 
         @Override
-        public void putAll(Map<? extends K, ? extends V> map) {
-            synchronized (wrapped) {
-                wrapped.putAll(map);
-            }
+        public String toString() {
+            return "CompactMapFactory{threshold=" + threshold + '}';
         }
+    }
 
-        @Override
-        public void clear() {
-            synchronized (wrapped) {
-                wrapped.clear();
-            }
-        }
+    private static final class SortedMapFactory implements MapFactory {
+        private final Comparator<Object> comparator;
 
-        @Override
-        public Set<K> keySet() {
-            synchronized (wrapped) {
-                return ImmutableSet.copyOf(wrapped.keySet());
-            }
+        private SortedMapFactory(Comparator<Object> comparator) {
+            this.comparator = comparator;
         }
 
+        @NonNull
         @Override
-        public Collection<V> values() {
-            synchronized (wrapped) {
-                return ImmutableSet.copyOf(wrapped.values());
-            }
+        public <K, V> ConcurrentMap<K, V> create() {
+            return new ConcurrentSkipListMap<>(comparator);
         }
 
+        @NonNull
         @Override
-        public Set<Entry<K, V>> entrySet() {
-            synchronized (wrapped) {
-                return ImmutableSet.copyOf(wrapped.entrySet());
-            }
+        public <K, V> Map<K, V> createConfined() {
+            return new TreeMap<>(comparator);
         }
 
         @Override
         public boolean equals(Object obj) {
-            if (obj == this) {
-                return true;
-            }
-            synchronized (wrapped) {
-                return wrapped.equals(obj);
-            }
+            return obj instanceof SortedMapFactory && comparator.equals(((SortedMapFactory) obj).comparator);
         }
 
         @Override
         public int hashCode() {
-            synchronized (wrapped) {
-                return wrapped.hashCode();
-            }
+            return comparator.hashCode();
         }
 
         @Override
         public String toString() {
-            synchronized (wrapped) {
-                return "SynchronizedWrapper{backing=" + wrapped.toString() + '}';
-            }
+            return "SortedMapFactory{comparator=" + comparator + '}';
         }
     }
 
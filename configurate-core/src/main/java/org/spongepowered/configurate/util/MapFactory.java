@@ -18,6 +18,7 @@ package org.spongepowered.configurate.util;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
 /**
@@ -36,4 +37,20 @@ public interface MapFactory {
     @NonNull
     <K, V> ConcurrentMap<K, V> create();
 
+    /**
+     * Create a new map instance for the given types, which will only be accessed by one thread
+     * at a time.
+     *
+     * <p>The map should iterate in the same order as maps produced by {@link #create()}. By
+     * default, this returns a map from {@link #create()}.</p>
+     *
+     * @param <K> The key
+     * @param <V> The value
+     * @return A new map instance
+     */
+    @NonNull
+    default <K, V> Map<K, V> createConfined() {
+        return create();
+    }
+
 }
@@ -0,0 +1,86 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.util;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A pool used to deduplicate strings read by configuration loaders.
+ *
+ * <p>Configuration files frequently repeat the same keys and values many times over. Loaders
+ * pass map keys and scalar strings through the pool specified in the
+ * {@link org.spongepowered.configurate.ConfigurationOptions} used for loading, allowing identical
+ * strings to share a single instance in the loaded configuration.</p>
+ *
+ * <p>Implementations must be safe to use from multiple threads.</p>
+ *
+ * @see StringPools
+ */
+public interface StringPool {
+
+    /**
+     * Gets a canonical instance of the given string.
+     *
+     * <p>The returned string must be equal to {@code value}, but does not have to be the same
+     * instance.</p>
+     *
+     * @param value The string to deduplicate
+     * @return A string equal to {@code value}
+     */
+    @NonNull
+    String intern(@NonNull String value);
+
+    /**
+     * Gets the number of {@link #intern(String)} calls that returned a previously pooled string.
+     *
+     * @return The number of hits
+     */
+    long getHits();
+
+    /**
+     * Gets the number of {@link #intern(String)} calls that did not return a previously pooled
+     * string.
+     *
+     * @return The number of misses
+     */
+    long getMisses();
+
+    /**
+     * Gets the fraction of {@link #intern(String)} calls which returned a previously pooled
+     * string, between 0 and 1.
+     *
+     * @return The hit rate, or 0 if the pool has not been used
+     */
+    default double getHitRate() {
+        final long hits = getHits();
+        final long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Gets the number of distinct strings currently held by this pool.
+     *
+     * @return The pool size
+     */
+    int size();
+
+    /**
+     * Removes all pooled strings and resets statistics.
+     */
+    void clear();
+
+}
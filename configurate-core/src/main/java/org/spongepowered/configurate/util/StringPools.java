@@ -0,0 +1,157 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.util;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementations of {@link StringPool}.
+ */
+public final class StringPools {
+    private StringPools() {}
+
+    /**
+     * The default maximum length of strings pooled by {@link #deduplicating()}
+     */
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    /**
+     * Returns a {@link StringPool} which performs no deduplication.
+     *
+     * @return A pool which returns every string unchanged
+     */
+    @NonNull
+    public static StringPool none() {
+        return NoOpPool.INSTANCE;
+    }
+
+    /**
+     * Returns a new {@link StringPool} which deduplicates strings of up to
+     * {@value #DEFAULT_MAX_LENGTH} characters.
+     *
+     * @return A new deduplicating pool
+     */
+    @NonNull
+    public static StringPool deduplicating() {
+        return deduplicating(DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Returns a new {@link StringPool} which deduplicates strings of up to {@code maxLength}
+     * characters. Longer strings are rarely repeated, and are returned unchanged without being
+     * counted in the pool's statistics.
+     *
+     * @param maxLength The maximum length of strings to pool
+     * @return A new deduplicating pool
+     */
+    @NonNull
+    public static StringPool deduplicating(int maxLength) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("maxLength must not be negative, was " + maxLength);
+        }
+        return new DeduplicatingPool(maxLength);
+    }
+
+    private enum NoOpPool implements StringPool {
+        INSTANCE;
+
+        @NonNull
+        @Override
+        public String intern(@NonNull String value) {
+            return requireNonNull(value, "value");
+        }
+
+        @Override
+        public long getHits() {
+            return 0;
+        }
+
+        @Override
+        public long getMisses() {
+            return 0;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public void clear() {
+        }
+    }
+
+    private static final class DeduplicatingPool implements StringPool {
+        private final ConcurrentMap<String, String> pool = new ConcurrentHashMap<>();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final int maxLength;
+
+        private DeduplicatingPool(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        @NonNull
+        @Override
+        public String intern(@NonNull String value) {
+            if (value.length() > maxLength) {
+                return value;
+            }
+            final String existing = pool.putIfAbsent(value, value);
+            if (existing == null) {
+                misses.increment();
+                return value;
+            }
+            hits.increment();
+            return existing;
+        }
+
+        @Override
+        public long getHits() {
+            return hits.sum();
+        }
+
+        @Override
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        @Override
+        public int size() {
+            return pool.size();
+        }
+
+        @Override
+        public void clear() {
+            pool.clear();
+            hits.reset();
+            misses.reset();
+        }
+
+        @Override
+        public String toString() {
+            return "DeduplicatingPool{maxLength=" + maxLength + ", size=" + size() + ", hitRate=" + getHitRate() + '}';
+        }
+    }
+
+}
@@ -18,23 +18,34 @@ package org.spongepowered.configurate;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.TypeToken;
+import org.checkerframework.checker.nullness.qual.NonNull;
 import org.junit.jupiter.api.Test;
 import org.spongepowered.configurate.objectmapping.ObjectMappingException;
+import org.spongepowered.configurate.transformation.NodePath;
+import org.spongepowered.configurate.util.MapFactories;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AbstractConfigurationNodeTest {
@@ -227,4 +238,573 @@ public class AbstractConfigurationNodeTest {
         assertEquals("default value", subject.getValue());
     }
 
+    @Test
+    public void testListRemovalUpdatesKeys() {
+        ConfigurationNode<?> subject = SimpleConfigurationNode.root();
+        subject.setValue(ImmutableList.of("a", "b", "c", "d"));
+        assertTrue(subject.removeChild(1));
+        assertEquals(ImmutableList.of("a", "c", "d"), subject.getValue());
+        List<? extends ConfigurationNode<?>> children = subject.getChildrenList();
+        for (int i = 0; i < children.size(); ++i) {
+            assertEquals(i, children.get(i).getKey());
+        }
+        assertEquals("d", subject.getNode(2).getValue());
+    }
+
+    @Test
+    public void testPrimitiveGettersMatchTypes() {
+        final Object[] values = {0, 5, -12, Integer.MAX_VALUE, 0L, 7L, Long.MAX_VALUE, 1.0f, 2.5f, 0.0, 3.0, -4.5,
+                Double.NaN, Double.POSITIVE_INFINITY, 1e20, true, false, "12", "1.5", "yes", "nope", (short) 3};
+        ConfigurationNode<?> subject = SimpleConfigurationNode.root();
+        for (Object value : values) {
+            subject.setValue(value);
+            assertEquals((int) orDefault(Types.asInt(value), -1), subject.getInt(-1), "int for " + value);
+            assertEquals((long) orDefault(Types.asLong(value), -1L), subject.getLong(-1L), "long for " + value);
+            assertEquals((float) orDefault(Types.asFloat(value), -1f), subject.getFloat(-1f), "float for " + value);
+            assertEquals((double) orDefault(Types.asDouble(value), -1d), subject.getDouble(-1d), "double for " + value);
+            assertEquals(orDefault(Types.asBoolean(value), false), subject.getBoolean(false), "boolean for " + value);
+            assertEquals(value, subject.getValue());
+        }
+    }
+
+    @Test
+    public void testNumbersStoredWithoutBoxes() {
+        SimpleConfigurationNode subject = SimpleConfigurationNode.root();
+        assertTrue(subject.setValue(1000).value instanceof ScalarConfigValue.IntScalar<?>);
+        assertTrue(subject.setValue(1L << 40).value instanceof ScalarConfigValue.LongScalar<?>);
+        assertTrue(subject.setValue(0.5f).value instanceof ScalarConfigValue.FloatScalar<?>);
+        assertTrue(subject.setValue(0.25).value instanceof ScalarConfigValue.DoubleScalar<?>);
+        assertTrue(subject.setValue("text").value instanceof ScalarConfigValue.ObjectScalar<?>);
+
+        // values are boxed again when read as objects, and keep their types
+        assertEquals(0.25, subject.setValue(0.25).getValue());
+        assertEquals(1000, subject.setValue(1000).copy().getValue());
+        assertEquals(subject.setValue(7L).value, SimpleConfigurationNode.root().setValue(7L).value);
+    }
+
+    @Test
+    public void testStringConversionsCached() {
+        SimpleConfigurationNode subject = SimpleConfigurationNode.root();
+        subject.setValue("42");
+        assertEquals(42, subject.getInt());
+        final ScalarConfigValue<?> scalar = (ScalarConfigValue<?>) subject.value;
+        final ScalarConfigValue.Coerced coerced = scalar.coerce(ScalarConfigValue.KIND_INT);
+        assertSame(coerced, scalar.coerce(ScalarConfigValue.KIND_INT));
+
+        // switching kinds replaces the cached conversion, and alternating reads stay correct
+        assertEquals(42.0, subject.getDouble());
+        assertEquals(42, subject.getInt());
+        assertEquals(42L, subject.getLong());
+        assertEquals(42f, subject.getFloat());
+
+        // failed conversions fall back to the default
+        subject.setValue("forty-two");
+        assertEquals(-1, subject.getInt(-1));
+        assertEquals(-1, subject.getInt(-1));
+        assertFalse(subject.getBoolean());
+
+        // a new value does not see the old conversion
+        subject.setValue("yes");
+        assertTrue(subject.getBoolean());
+        assertTrue(subject.copy().getBoolean());
+        assertNull(((ScalarConfigValue<?>) SimpleConfigurationNode.root().setValue(5).value).coerce(ScalarConfigValue.KIND_INT));
+    }
+
+    @Test
+    public void testFailedStringConversionsCached() {
+        final int[] conversions = {0};
+        SimpleConfigurationNode subject = new SimpleConfigurationNode(null, null, ConfigurationOptions.defaults()) {
+            @Override
+            public <V> V getValue(@NonNull Function<Object, V> transformer, V def) {
+                // reached whenever a getter falls back to a conversion from Types
+                conversions[0]++;
+                return super.getValue(transformer, def);
+            }
+        };
+        subject.setValue("forty-two");
+        final ScalarConfigValue<?> scalar = (ScalarConfigValue<?>) subject.value;
+
+        assertEquals(-1, subject.getInt(-1));
+        final ScalarConfigValue.Coerced coerced = scalar.coerce(ScalarConfigValue.KIND_INT);
+        assertFalse(coerced.valid);
+        assertEquals(-2, subject.getInt(-2));
+        assertSame(coerced, scalar.coerce(ScalarConfigValue.KIND_INT));
+        assertEquals(5L, subject.getLong(5L));
+        assertEquals(0.5, subject.getDouble(0.5));
+        assertEquals(0, conversions[0]);
+    }
+
+    @Test
+    public void testLazyValueMaterializedOnAccess() {
+        final int[] materialized = new int[1];
+        final LazyValue inner = new LazyValue() {
+            @Override
+            public ValueType getType() {
+                return ValueType.LIST;
+            }
+
+            @Override
+            public Object materialize() {
+                materialized[0]++;
+                return ImmutableList.of("a", "b");
+            }
+        };
+        final LazyValue outer = new LazyValue() {
+            @Override
+            public ValueType getType() {
+                return ValueType.MAP;
+            }
+
+            @Override
+            public Object materialize() {
+                materialized[0]++;
+                return ImmutableMap.of("list", inner, "scalar", 3);
+            }
+        };
+
+        ConfigurationNode<?> subject = SimpleConfigurationNode.root();
+        subject.getNode("lazy").setValue(outer);
+        assertTrue(subject.getNode("lazy").isMap());
+        ConfigurationNode<?> copy = subject.copy();
+        assertEquals(0, materialized[0]);
+
+        assertEquals(3, subject.getNode("lazy", "scalar").getInt());
+        assertEquals(1, materialized[0]);
+        assertTrue(subject.getNode("lazy", "list").isList());
+        assertEquals(1, materialized[0]);
+        assertEquals("b", subject.getNode("lazy", "list", 1).getString());
+        assertEquals(2, materialized[0]);
+
+        subject.getNode("lazy", "list").appendListNode().setValue("c");
+        assertEquals(ImmutableList.of("a", "b", "c"), subject.getNode("lazy", "list").getValue());
+        assertEquals(ImmutableList.of("a", "b"), copy.getNode("lazy", "list").getValue());
+        assertEquals(4, materialized[0]);
+    }
+
+    @Test
+    public void testChildViewsAreLive() {
+        ConfigurationNode<?> subject = SimpleConfigurationNode.root();
+        Map<Object, ? extends ConfigurationNode<?>> mapView = subject.getChildrenMapView();
+        assertTrue(mapView.isEmpty());
+
+        subject.getNode("a").setValue(1);
+        subject.getNode("b").setValue(2);
+        assertEquals(2, mapView.size());
+        assertSame(subject.getNode("b"), mapView.get("b"));
+        assertEquals(ImmutableList.of("a", "b"), ImmutableList.copyOf(mapView.keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> mapView.remove("a"));
+
+        ConfigurationNode<?> list = subject.getNode("list");
+        List<? extends ConfigurationNode<?>> listView = list.getChildrenListView();
+        list.appendListNode().setValue("x");
+        list.appendListNode().setValue("y");
+        assertEquals(2, listView.size());
+        assertEquals("y", listView.get(1).getValue());
+
+        subject.getNode("a").setValue(null);
+        assertFalse(mapView.containsKey("a"));
+    }
+
+    @Test
+    public void testForEachChild() {
+        ConfigurationNode<?> subject = SimpleConfigurationNode.root();
+        subject.getNode("a").setValue(1);
+        subject.getNode("b").setValue(2);
+        List<Object> visited = new ArrayList<>();
+        subject.forEachChild(child -> visited.add(child.getKey() + "=" + child.getValue()));
+        assertEquals(ImmutableList.of("a=1", "b=2"), visited);
+
+        visited.clear();
+        subject.setValue(ImmutableList.of("x", "y"));
+        subject.forEachChild(child -> visited.add(child.getKey() + "=" + child.getValue()));
+        assertEquals(ImmutableList.of("0=x", "1=y"), visited);
+
+        visited.clear();
+        subject.setValue("scalar");
+        subject.forEachChild(visited::add);
+        assertTrue(visited.isEmpty());
+    }
+
+    @Test
+    public void testFingerprints() {
+        SimpleConfigurationNode subject = SimpleConfigurationNode.root();
+        subject.getNode("server", "limits", "maxConnections").setValue(20);
+        subject.getNode("server", "name").setValue("test");
+        subject.getNode("list").setValue(ImmutableList.of(1, 2, 3));
+        final long original = subject.getFingerprint();
+
+        SimpleConfigurationNode copy = subject.copy();
+        assertEquals(original, copy.getFingerprint());
+        assertEquals(original, subject.snapshot().getFingerprint());
+
+        // map order does not matter, list order does
+        SimpleConfigurationNode reordered = SimpleConfigurationNode.root();
+        reordered.getNode("list").setValue(ImmutableList.of(1, 2, 3));
+        reordered.getNode("server", "name").setValue("test");
+        reordered.getNode("server", "limits", "maxConnections").setValue(20);
+        assertEquals(original, reordered.getFingerprint());
+        assertEquals(subject, reordered);
+        assertEquals(subject.hashCode(), reordered.hashCode());
+
+        final long unchangedSibling = subject.getNode("list").getFingerprint();
+        subject.getNode("server", "limits", "maxConnections").setValue(21);
+        assertNotEquals(original, subject.getFingerprint());
+        assertEquals(unchangedSibling, subject.getNode("list").getFingerprint());
+        assertNotEquals(subject, copy);
+
+        subject.getNode("server", "limits", "maxConnections").setValue(20);
+        assertEquals(original, subject.getFingerprint());
+
+        subject.getNode("list").setValue(ImmutableList.of(3, 2, 1));
+        assertNotEquals(original, subject.getFingerprint());
+        subject.getNode("list").setValue(ImmutableList.of(1, 2, 3));
+        assertEquals(original, subject.getFingerprint());
+
+        subject.getNode("server", "name").setValue(null);
+        assertNotEquals(original, subject.getFingerprint());
+        assertNotEquals(SimpleConfigurationNode.root().setValue(1L).getFingerprint(),
+                SimpleConfigurationNode.root().setValue(1).getFingerprint());
+    }
+
+    @Test
+    public void testFingerprintsOfCollidingHashCodes() {
+        // each pair has equal hashCode()s
+        assertNotEquals(SimpleConfigurationNode.root().setValue(-1L).getFingerprint(),
+                SimpleConfigurationNode.root().setValue(0L).getFingerprint());
+        assertNotEquals(SimpleConfigurationNode.root().setValue(1L).getFingerprint(),
+                SimpleConfigurationNode.root().setValue(-2L).getFingerprint());
+        assertNotEquals(SimpleConfigurationNode.root().setValue("Aa").getFingerprint(),
+                SimpleConfigurationNode.root().setValue("BB").getFingerprint());
+        assertNotEquals(SimpleConfigurationNode.root().setValue(ImmutableMap.of("Aa", 1)).getFingerprint(),
+                SimpleConfigurationNode.root().setValue(ImmutableMap.of("BB", 1)).getFingerprint());
+        assertEquals(SimpleConfigurationNode.root().setValue(0.5d).getFingerprint(),
+                SimpleConfigurationNode.root().setValue(0.5d).getFingerprint());
+    }
+
+    @Test
+    public void testMutateAppliesAtomically() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        root.getNode("section", "keep").setValue("kept");
+        root.getNode("section", "remove").setValue("removed");
+        SimpleConfigurationNode section = root.getNode("section");
+        SimpleConfigurationNode oldChild = section.getNode("remove");
+
+        List<ChangeEvent> events = new ArrayList<>();
+        root.subscribe(NodePath.create(new Object[0]), Runnable::run, events::add);
+
+        int[] runs = {0};
+        section.mutate(tx -> {
+            runs[0]++;
+            for (int i = 0; i < 1000; ++i) {
+                tx.getNode("key" + i).setValue(i);
+            }
+            tx.getNode("remove").setValue(null);
+            // nothing is visible until the action completes
+            assertTrue(section.getNode("key0").isVirtual());
+            assertEquals("removed", section.getNode("remove").getString());
+            if (runs[0] == 1) {
+                // a concurrent change causes the action to be run again
+                root.getNode("section", "keep").setValue("changed");
+            }
+        });
+
+        assertEquals(2, runs[0]);
+        assertEquals(999, section.getNode("key999").getInt());
+        assertEquals("changed", section.getNode("keep").getString());
+        assertTrue(section.getNode("remove").isVirtual());
+        assertTrue(oldChild.isVirtual());
+        assertEquals(ImmutableList.of("section", "key5"), ImmutableList.copyOf(section.getNode("key5").getPath().getArray()));
+
+        // one event for the concurrent change, and one for the whole batch
+        assertEquals(2, events.size());
+        assertEquals(ImmutableList.of(NodePath.create(new Object[] {"section"})),
+                ImmutableList.copyOf(events.get(1).getChangedPaths()));
+
+        // later changes are made to the published children
+        section.getNode("key1", "nested").setValue(true);
+        assertTrue(root.getNode("section", "key1", "nested").getBoolean());
+
+        section.mutate(tx -> tx.setValue(null));
+        assertTrue(root.getNode("section").isVirtual());
+        assertTrue(root.getChildrenMap().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentMutate() throws InterruptedException {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        SimpleConfigurationNode section = root.getNode("section");
+        section.getNode("count").setValue(0);
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            final int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 250; ++i) {
+                    final int iteration = i;
+                    // mutations of the same node retry rather than overwrite each other
+                    section.mutate(tx -> {
+                        tx.getNode("count").setValue(tx.getNode("count").getInt() + 1);
+                        tx.getNode("thread" + thread).setValue(iteration);
+                    });
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, root.getNode("section", "count").getInt());
+        for (int t = 0; t < threads.length; ++t) {
+            assertEquals(249, root.getNode("section", "thread" + t).getInt());
+        }
+    }
+
+    @Test
+    public void testMergeInPlace() {
+        SimpleConfigurationNode defaults = SimpleConfigurationNode.root();
+        defaults.getNode("section", "a").setValue("default-a");
+        defaults.getNode("section", "b", "c").setValue("default-c");
+        defaults.getNode("list").setValue(ImmutableList.of(1, 2));
+
+        SimpleConfigurationNode config = SimpleConfigurationNode.root();
+        config.getNode("section", "a").setValue("a");
+        final SimpleConfigurationNode section = config.getNode("section");
+        final SimpleConfigurationNode a = section.getNode("a");
+
+        config.mergeValuesFrom(defaults);
+        // existing nodes are kept, and only missing values are added
+        assertSame(section, config.getChildrenMap().get("section"));
+        assertSame(a, section.getChildrenMap().get("a"));
+        assertEquals("a", a.getString());
+        assertEquals("default-c", config.getNode("section", "b", "c").getString());
+        assertEquals(ImmutableList.of(1, 2), config.getNode("list").getValue());
+
+        // inserted values are copies
+        defaults.getNode("section", "b", "c").setValue("changed");
+        assertEquals("default-c", config.getNode("section", "b", "c").getString());
+        assertSame(section, config.getNode("section", "b").getParent());
+
+        // merging again changes nothing
+        defaults.getNode("section", "b", "c").setValue("default-c");
+        final long fingerprint = config.getFingerprint();
+        config.mergeValuesFrom(defaults);
+        assertEquals(fingerprint, config.getFingerprint());
+    }
+
+    @Test
+    public void testAppendLargeList() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        // appending must not compare each new element against the existing ones
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 100_000; ++i) {
+                SimpleConfigurationNode element = root.appendListNode();
+                element.getNode("id").setValue(i);
+                element.getNode("name").setValue("element");
+            }
+        });
+        assertEquals(100_000, root.getChildrenList().size());
+        assertEquals(99_999, root.getNode(99_999, "id").getInt());
+        assertEquals(54_321, root.getChildrenList().get(54_321).getKey());
+    }
+
+    @Test
+    public void testFindNode() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        root.getNode("a", "b").setValue("value");
+        root.getNode("list").setValue(ImmutableList.of("first", "second"));
+
+        assertSame(root.getNode("a", "b"), root.findNode("a", "b"));
+        assertSame(root.getNode("list", 1), root.findNode(Arrays.asList("list", 1)));
+        assertSame(root, root.findNode());
+
+        assertNull(root.findNode("a", "c"));
+        assertNull(root.findNode("a", "b", "c"));
+        assertNull(root.findNode("list", 2));
+        assertNull(root.getNode("missing").findNode());
+
+        // finding nodes does not change the tree
+        assertEquals(ImmutableMap.of("b", "value"), root.getNode("a").getValue());
+    }
+
+    @Test
+    public void testDetachedSubtrees() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        for (int i = 0; i < 100; ++i) {
+            root.getNode("section", "child" + i, "value").setValue(i);
+        }
+        SimpleConfigurationNode section = root.getNode("section");
+        SimpleConfigurationNode child = root.getNode("section", "child5");
+        SimpleConfigurationNode leaf = child.getNode("value");
+
+        root.removeChild("section");
+        assertTrue(section.isVirtual());
+        assertTrue(child.isVirtual());
+        assertTrue(leaf.isVirtual());
+        assertNull(root.findNode("section"));
+        // detached nodes keep the value they had when removed
+        assertEquals(5, leaf.getInt());
+
+        // writing to a detached node attaches a new path, without the removed values
+        leaf.setValue("new");
+        assertFalse(leaf.isVirtual());
+        assertFalse(child.isVirtual());
+        assertEquals(ImmutableMap.of("child5", ImmutableMap.of("value", "new")), root.getNode("section").getValue());
+
+        // replacing a value detaches all of its previous children
+        root.getNode("section").setValue(ImmutableMap.of("other", 1));
+        assertTrue(child.isVirtual());
+        assertTrue(leaf.isVirtual());
+        SimpleConfigurationNode other = root.getNode("section", "other");
+        assertFalse(other.isVirtual());
+
+        root.getNode("section").setValue("scalar");
+        assertTrue(other.isVirtual());
+        assertEquals("scalar", root.getNode("section").getValue());
+
+        SimpleConfigurationNode element = root.getNode("list").appendListNode().setValue("a");
+        root.getNode("list", "key").setValue("b");
+        assertTrue(element.isVirtual());
+        assertEquals(ImmutableMap.of("key", "b"), root.getNode("list").getValue());
+    }
+
+    @Test
+    public void testConfinedNodes() {
+        final ConfigurationOptions options = ConfigurationOptions.defaults()
+                .withMapFactory(MapFactories.insertionOrdered())
+                .withConcurrency(ConcurrencyMode.CONFINED);
+        SimpleConfigurationNode root = SimpleConfigurationNode.root(options);
+        root.getNode("a", "b").setValue("value");
+        root.getNode("a", "c").setValue(ImmutableMap.of("d", 1));
+        root.getNode("list").appendListNode().getNode("e").setValue(true);
+        root.getNode("removed", "child").setValue(1);
+        root.removeChild("removed");
+
+        assertEquals(ImmutableMap.of("b", "value", "c", ImmutableMap.of("d", 1)), root.getNode("a").getValue());
+        assertEquals(ImmutableList.of("a", "list"), ImmutableList.copyOf(root.getChildrenMap().keySet()));
+        assertTrue(root.getNode("a").isConfined());
+        assertFalse(((MapConfigValue<?>) root.getNode("a").value).values instanceof ConcurrentMap<?, ?>);
+    }
+
+    @Test
+    public void testConfinedNodesWithDefaultMapFactory() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root(ConfigurationOptions.defaults()
+                .withConcurrency(ConcurrencyMode.CONFINED));
+        root.getNode("small", "a").setValue(1);
+        for (int i = 0; i < 11; ++i) {
+            root.getNode("large", "key" + i).setValue(i);
+        }
+
+        // both compact and promoted maps avoid the synchronization of concurrent maps
+        assertFalse(((MapConfigValue<?>) root.getNode("small").value).values instanceof ConcurrentMap<?, ?>);
+        assertFalse(((MapConfigValue<?>) root.getNode("large").value).values instanceof ConcurrentMap<?, ?>);
+        assertEquals(ImmutableMap.of("a", 1), root.getNode("small").getValue());
+        assertEquals(10, root.getNode("large", "key10").getInt());
+
+        root.getNode("small").publish();
+        assertTrue(((MapConfigValue<?>) root.getNode("small").value).values instanceof ConcurrentMap<?, ?>);
+    }
+
+    /**
+     * Run an action while another thread holds the monitor of {@code monitor}, failing if the
+     * action waits for it.
+     */
+    private static void assertDoesNotLock(Object monitor, Runnable action) throws InterruptedException {
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread holder = new Thread(() -> {
+            synchronized (monitor) {
+                locked.countDown();
+                try {
+                    done.await();
+                } catch (InterruptedException ignored) {
+                    // release the monitor
+                }
+            }
+        });
+        holder.setDaemon(true);
+        holder.start();
+        locked.await();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), action::run);
+        } finally {
+            done.countDown();
+            holder.join();
+        }
+    }
+
+    @Test
+    public void testConfinedNodesTakeNoLocks() throws InterruptedException {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root(ConfigurationOptions.defaults()
+                .withConcurrency(ConcurrencyMode.CONFINED)
+                .withCopyOnWrite(true));
+        SimpleConfigurationNode section = root.getNode("section").setValue(ImmutableMap.of("a", 1));
+        assertDoesNotLock(section, () -> section.mutate(node -> node.getNode("b").setValue(2)));
+        assertEquals(2, section.getNode("b").getInt());
+
+        SimpleConfigurationNode built = root.getNode("built");
+        assertDoesNotLock(built, () -> ConfigurationNodeBuilder.into(built).scalar(3));
+        assertEquals(3, built.getInt());
+
+        SimpleConfigurationNode copy = section.copy();
+        assertDoesNotLock(copy, () -> assertEquals(1, copy.getNode("a").getInt()));
+
+        SimpleConfigurationNode lazy = root.getNode("lazy").setValue(new LazyValue() {
+            @Override
+            public ValueType getType() {
+                return ValueType.LIST;
+            }
+
+            @Override
+            public Object materialize() {
+                return ImmutableList.of("x");
+            }
+        });
+        assertDoesNotLock(lazy, () -> assertEquals("x", lazy.getNode(0).getString()));
+    }
+
+    @Test
+    public void testPublish() {
+        final ConfigurationOptions options = ConfigurationOptions.defaults()
+                .withMapFactory(MapFactories.insertionOrdered())
+                .withConcurrency(ConcurrencyMode.CONFINED);
+        SimpleConfigurationNode root = SimpleConfigurationNode.root(options);
+        root.getNode("a", "b").setValue("value");
+        root.getNode("list").appendListNode().getNode("c").setValue(2);
+        final Object before = root.getValue();
+
+        assertSame(root.getNode("a"), root.getNode("a").publish());
+        assertEquals(before, root.getValue());
+        assertEquals(ConcurrencyMode.CONCURRENT, root.getOptions().getConcurrency());
+        assertSame(root.getOptions(), root.getNode("list", 0, "c").getOptions());
+        assertTrue(((MapConfigValue<?>) root.getNode("list", 0).value).values instanceof ConcurrentMap<?, ?>);
+
+        // nodes created after publishing are concurrent too
+        root.getNode("a", "new").setValue(3);
+        assertFalse(root.getNode("a", "new").isConfined());
+    }
+
+    @Test
+    public void testAcceptedTypes() {
+        final ConfigurationOptions options = ConfigurationOptions.defaults()
+                .withAcceptedTypes(ImmutableSet.of(int.class, Number.class, CharSequence.class));
+        assertTrue(options.acceptsType(Integer.class));
+        assertTrue(options.acceptsType(int.class));
+        assertTrue(options.acceptsType(Double.class));
+        assertTrue(options.acceptsType(String.class));
+        assertFalse(options.acceptsType(Boolean.class));
+        // answers are cached, so ask again
+        assertFalse(options.acceptsType(Boolean.class));
+        assertTrue(options.acceptsType(String.class));
+        assertTrue(ConfigurationOptions.defaults().acceptsType(Boolean.class));
+
+        SimpleConfigurationNode root = SimpleConfigurationNode.root(options);
+        root.getNode("a").setValue(5L);
+        assertThrows(IllegalArgumentException.class, () -> root.getNode("b").setValue(UUID.randomUUID()));
+    }
+
+    private static <V> V orDefault(V value, V def) {
+        return value == null ? def : value;
+    }
+
 }
@@ -0,0 +1,182 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.configurate.transformation.NodePath;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChangeListenerTest {
+    private static NodePath p(Object... path) {
+        return NodePath.create(path);
+    }
+
+    /**
+     * An executor which only runs tasks when asked to.
+     */
+    private static final class QueuedExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            this.tasks.add(command);
+        }
+
+        int runAll() {
+            int count = 0;
+            Runnable task;
+            while ((task = this.tasks.poll()) != null) {
+                task.run();
+                ++count;
+            }
+            return count;
+        }
+    }
+
+    @Test
+    public void testPathFiltering() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        root.getNode("server", "port").setValue(1);
+        List<ChangeEvent> events = new ArrayList<>();
+        root.subscribe(p("server"), Runnable::run, events::add);
+
+        root.getNode("client", "port").setValue(2);
+        assertTrue(events.isEmpty());
+
+        root.getNode("server", "port").setValue(3);
+        assertEquals(1, events.size());
+        assertEquals(ImmutableSet.of(p("server", "port")), events.get(0).getChangedPaths());
+        assertEquals(p("server"), events.get(0).getPrefix());
+
+        // replacing a parent replaces the subscribed subtree
+        events.clear();
+        root.setValue(ImmutableList.of("a"));
+        assertEquals(1, events.size());
+        assertEquals(ImmutableSet.of(p()), events.get(0).getChangedPaths());
+    }
+
+    @Test
+    public void testAttachAndRemove() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        List<NodePath> changes = new ArrayList<>();
+        root.getNode("section").subscribe(p(), Runnable::run, event -> changes.addAll(event.getChangedPaths()));
+
+        root.getNode("section", "a", "b").setValue(true);
+        assertTrue(changes.contains(p("section")));
+        assertTrue(changes.contains(p("section", "a", "b")));
+
+        changes.clear();
+        root.getNode("section").removeChild("a");
+        assertEquals(ImmutableList.of(p("section", "a")), changes);
+
+        changes.clear();
+        root.getNode("section").mergeValuesFrom(SimpleConfigurationNode.root().setValue(ImmutableMap.of("c", 1)));
+        assertTrue(changes.contains(p("section")));
+        assertTrue(changes.contains(p("section", "c")));
+    }
+
+    @Test
+    public void testBatching() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        QueuedExecutor executor = new QueuedExecutor();
+        List<ChangeEvent> events = new ArrayList<>();
+        root.subscribe(p(), executor, events::add);
+
+        for (int i = 0; i < 100; ++i) {
+            root.getNode("counter").setValue(i);
+            root.getNode("other").setValue(i);
+        }
+        assertEquals(1, executor.runAll());
+        assertEquals(1, events.size());
+        assertEquals(ImmutableList.of(p("counter"), p("other")), ImmutableList.copyOf(events.get(0).getChangedPaths()));
+        assertEquals(99, root.getNode("counter").getInt());
+
+        root.getNode("counter").setValue(100);
+        assertEquals(1, executor.runAll());
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    public void testRejectedBatch() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        List<ChangeEvent> events = new ArrayList<>();
+        boolean[] reject = {true};
+        root.subscribe(p(), command -> {
+            if (reject[0]) {
+                throw new RejectedExecutionException();
+            }
+            command.run();
+        }, events::add);
+
+        // the change is made, and the rejected batch does not stop later deliveries
+        root.getNode("a").setValue(1);
+        assertEquals(1, root.getNode("a").getInt());
+        reject[0] = false;
+        root.getNode("a").setValue(2);
+        assertEquals(1, events.size());
+        assertEquals(ImmutableSet.of(p("a")), events.get(0).getChangedPaths());
+    }
+
+    @Test
+    public void testNoLocksHeldDuringDelivery() throws Exception {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        SimpleConfigurationNode section = root.getNode("section");
+        section.getNode("a").setValue(1);
+        List<NodePath> changes = new ArrayList<>();
+        root.subscribe(p(), Runnable::run, event -> {
+            assertFalse(Thread.holdsLock(root));
+            assertFalse(Thread.holdsLock(section));
+            assertFalse(Thread.holdsLock(section.getNode("a")));
+            changes.addAll(event.getChangedPaths());
+        });
+
+        section.getNode("a").setValue(2);
+        section.setValue(ImmutableMap.of("a", ImmutableMap.of("b", 1)));
+        section.mergeValuesFrom(SimpleConfigurationNode.root().setValue(ImmutableMap.of("a", ImmutableMap.of("c", 2))));
+        section.mutate(node -> node.getNode("a", "b").setValue(3));
+        section.getNode("a").mutate(node -> node.setValue(null));
+        assertTrue(changes.contains(p("section", "a")));
+        assertTrue(changes.contains(p("section", "a", "c")));
+        assertTrue(section.getNode("a").isVirtual());
+    }
+
+    @Test
+    public void testClose() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        List<ChangeEvent> events = new ArrayList<>();
+        Subscription subscription = root.subscribe(p("a"), Runnable::run, events::add);
+        root.getNode("a").setValue(1);
+        final int delivered = events.size();
+        assertTrue(delivered > 0);
+        subscription.close();
+        root.getNode("a").setValue(2);
+        assertEquals(delivered, events.size());
+    }
+}
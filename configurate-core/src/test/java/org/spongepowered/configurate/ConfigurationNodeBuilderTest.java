@@ -0,0 +1,159 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.configurate.attributed.SimpleAttributedConfigurationNode;
+import org.spongepowered.configurate.commented.SimpleCommentedConfigurationNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigurationNodeBuilderTest {
+
+    @Test
+    public void testBuildTree() {
+        SimpleCommentedConfigurationNode root = SimpleCommentedConfigurationNode.root();
+        ConfigurationNodeBuilder<SimpleCommentedConfigurationNode> builder = ConfigurationNodeBuilder.into(root);
+        builder.beginMap();
+        builder.key("name").setComment("The name");
+        builder.scalar("test");
+        builder.key("missing");
+        builder.scalar(null);
+        builder.key("values");
+        builder.beginList();
+        builder.element();
+        builder.scalar(1);
+        builder.element();
+        builder.scalar(null);
+        builder.element();
+        builder.beginMap().key("nested");
+        builder.scalar(true);
+        builder.endMap();
+        builder.endList();
+        builder.key("empty");
+        builder.beginMap().endMap();
+        builder.endMap();
+        assertTrue(builder.isComplete());
+
+        assertEquals(ImmutableMap.of(
+                "name", "test",
+                "values", ImmutableList.of(1, ImmutableMap.of("nested", true)),
+                "empty", ImmutableMap.of()), root.getValue());
+        assertEquals("The name", root.getNode("name").getComment().orElse(null));
+        assertTrue(root.getNode("missing").isVirtual());
+        assertTrue(root.getNode("empty").isMap());
+
+        SimpleCommentedConfigurationNode nested = root.getNode("values", 1, "nested");
+        assertFalse(nested.isVirtual());
+        assertSame(root.getNode("values", 1), nested.getParent());
+        assertEquals(ImmutableList.of("values", 1, "nested"), ImmutableList.copyOf(nested.getPath().getArray()));
+
+        // built nodes behave like any other
+        nested.setValue(false);
+        root.getNode("values").appendListNode().setValue(3);
+        assertEquals(ImmutableList.of(1, ImmutableMap.of("nested", false), 3), root.getNode("values").getValue());
+    }
+
+    @Test
+    public void testScalarRoot() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        ConfigurationNodeBuilder<SimpleConfigurationNode> builder = ConfigurationNodeBuilder.into(root);
+        assertFalse(builder.isComplete());
+        builder.scalar(5);
+        assertTrue(builder.isComplete());
+        assertEquals(5, root.getInt());
+
+        SimpleConfigurationNode empty = SimpleConfigurationNode.root();
+        ConfigurationNodeBuilder.into(empty).scalar(null);
+        assertNull(empty.getValue());
+    }
+
+    @Test
+    public void testInvalidEvents() {
+        ConfigurationNodeBuilder<SimpleConfigurationNode> builder = ConfigurationNodeBuilder.into(SimpleConfigurationNode.root());
+        assertThrows(IllegalStateException.class, () -> builder.key("a"));
+        builder.beginList();
+        assertThrows(IllegalStateException.class, () -> builder.key("a"));
+        assertThrows(IllegalStateException.class, builder::endMap);
+        assertThrows(IllegalStateException.class, () -> builder.scalar(1));
+        builder.element();
+        assertThrows(IllegalStateException.class, builder::element);
+    }
+
+    @Test
+    public void testVisitorRoundTrip() {
+        SimpleCommentedConfigurationNode source = SimpleCommentedConfigurationNode.root();
+        source.getNode("name").setValue("test").setComment("The name");
+        source.getNode("values").appendListNode().setValue(1);
+        source.getNode("values").appendListNode().setValue("two").setComment("Second");
+        source.getNode("values").appendListNode().getNode("nested").setValue(true);
+        source.getNode("empty").setValue(ImmutableMap.of());
+
+        SimpleCommentedConfigurationNode target = SimpleCommentedConfigurationNode.root();
+        ConfigurationNodeBuilder<SimpleCommentedConfigurationNode> builder = ConfigurationNodeBuilder.into(target);
+        source.visit(builder.asVisitor());
+        assertTrue(builder.isComplete());
+
+        assertEquals(source.getValue(), target.getValue());
+        assertEquals("The name", target.getNode("name").getComment().orElse(null));
+        assertEquals("Second", target.getNode("values", 1).getComment().orElse(null));
+        assertFalse(target.getNode("values", 0).getComment().isPresent());
+        assertTrue(target.getNode("empty").isMap());
+
+        // children without a value are left out, so every key is followed by a value
+        SimpleCommentedConfigurationNode withEmpty = SimpleCommentedConfigurationNode.root();
+        withEmpty.getNode("commentOnly").setComment("No value");
+        withEmpty.getNode("value").setValue(1);
+        assertEquals(ValueType.NULL, withEmpty.getChildrenMap().get("commentOnly").getValueType());
+        SimpleCommentedConfigurationNode withEmptyTarget = SimpleCommentedConfigurationNode.root();
+        withEmpty.visit(ConfigurationNodeBuilder.into(withEmptyTarget).asVisitor());
+        assertEquals(ImmutableMap.of("value", 1), withEmptyTarget.getValue());
+
+        // attributed nodes report their tag names and attributes
+        SimpleAttributedConfigurationNode attributed = SimpleAttributedConfigurationNode.root("config");
+        attributed.getNode("item").setValue("x").setTagName("entry").addAttribute("id", "1");
+        SimpleAttributedConfigurationNode attributedTarget = SimpleAttributedConfigurationNode.root();
+        attributed.visit(ConfigurationNodeBuilder.into(attributedTarget).asVisitor());
+        assertEquals("config", attributedTarget.getTagName());
+        assertEquals("entry", attributedTarget.getNode("item").getTagName());
+        assertEquals(ImmutableMap.of("id", "1"), attributedTarget.getNode("item").getAttributes());
+
+        // an empty node produces no events
+        ConfigurationNodeBuilder<SimpleConfigurationNode> emptyBuilder = ConfigurationNodeBuilder.into(SimpleConfigurationNode.root());
+        SimpleConfigurationNode.root().visit(emptyBuilder.asVisitor());
+        assertFalse(emptyBuilder.isComplete());
+    }
+
+    @Test
+    public void testRejectsUnacceptedTypes() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root(ConfigurationOptions.defaults()
+                .withAcceptedTypes(ImmutableSet.of(String.class)));
+        ConfigurationNodeBuilder<SimpleConfigurationNode> builder = ConfigurationNodeBuilder.into(root);
+        builder.beginList().element();
+        builder.scalar("a");
+        builder.element();
+        assertThrows(IllegalArgumentException.class, () -> builder.scalar(1));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.configurate.transformation.NodePath;
+import org.spongepowered.configurate.util.MapFactories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigurationStatisticsTest {
+
+    @Test
+    public void testCounts() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        root.getNode("name").setValue("test");
+        root.getNode("section", "enabled").setValue(true);
+        root.getNode("section", "count").setValue(5);
+        root.getNode("list").setValue(ImmutableList.of("a", "b", "c"));
+
+        ConfigurationStatistics stats = ConfigurationStatistics.collect(root);
+        assertEquals(9, stats.getNodeCount());
+        assertEquals(2, stats.getNodeCount(ValueType.MAP));
+        assertEquals(1, stats.getNodeCount(ValueType.LIST));
+        assertEquals(6, stats.getNodeCount(ValueType.SCALAR));
+        assertEquals(0, stats.getNodeCount(ValueType.NULL));
+
+        assertEquals(ImmutableMap.of(0, 1, 1, 3, 2, 5), stats.getDepthHistogram());
+        assertEquals(2, stats.getMaxDepth());
+        assertEquals(ImmutableMap.of(2, 1, 3, 2), stats.getFanOutHistogram());
+    }
+
+    @Test
+    public void testSubtreeSizes() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        root.getNode("small").setValue(1);
+        for (int i = 0; i < 100; ++i) {
+            root.getNode("large", "key" + i).setValue("value" + i);
+        }
+
+        ConfigurationStatistics stats = ConfigurationStatistics.collect(root);
+        List<NodePath> paths = new ArrayList<>(stats.getSubtreeRetainedBytes().keySet());
+        assertEquals(ImmutableList.of(NodePath.create(new Object[] {"large"}), NodePath.create(new Object[] {"small"})), paths);
+
+        long subtrees = 0;
+        for (long size : stats.getSubtreeRetainedBytes().values()) {
+            subtrees += size;
+        }
+        assertTrue(stats.getRetainedBytes() > subtrees);
+        assertEquals(102, ConfigurationStatistics.collect(root, 2).getSubtreeRetainedBytes().size());
+    }
+
+    @Test
+    public void testDuplicateStrings() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        String shared = "shared";
+        root.getNode("a").setValue(shared);
+        root.getNode("b").setValue(shared);
+        root.getNode("c").setValue(new String("shared"));
+        root.getNode("d").setValue(new String("shared"));
+
+        ConfigurationStatistics stats = ConfigurationStatistics.collect(root);
+        // the keys, and three distinct instances of the value
+        assertEquals(7, stats.getStringCount());
+        assertEquals(2, stats.getDuplicateStringCount());
+        assertEquals(2 * ConfigurationStatistics.stringSize(shared), stats.getDuplicateStringBytes());
+    }
+
+    @Test
+    public void testCompactMapSizes() {
+        Map<Object, Object> small = MapFactories.compact(4).create();
+        assertEquals(ConfigurationStatistics.shallowSize(small.getClass()), ConfigurationStatistics.mapSize(small));
+        small.put("a", 1);
+        small.put("b", 2);
+        assertEquals(ConfigurationStatistics.shallowSize(small.getClass()) + ConfigurationStatistics.referenceArraySize(4),
+                ConfigurationStatistics.mapSize(small));
+
+        Map<Object, Object> confined = MapFactories.compact(4).createConfined();
+        confined.put("a", 1);
+        assertEquals(ConfigurationStatistics.shallowSize(confined.getClass()) + ConfigurationStatistics.referenceArraySize(4),
+                ConfigurationStatistics.mapSize(confined));
+
+        // once promoted, the map it was promoted to is estimated instead
+        for (int i = 0; i < 5; ++i) {
+            small.put("key" + i, i);
+        }
+        assertTrue(ConfigurationStatistics.mapSize(small) > ConfigurationStatistics.shallowSize(small.getClass())
+                + ConfigurationStatistics.referenceArraySize(14));
+    }
+
+    @Test
+    public void testScalarSizes() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        final long empty = ConfigurationStatistics.collect(root).getRetainedBytes();
+
+        // numbers are held unboxed, so only the scalar value itself is counted
+        root.setValue(123456789L);
+        assertEquals(empty - ConfigurationStatistics.shallowSize(NullConfigValue.class)
+                        + ConfigurationStatistics.shallowSize(ScalarConfigValue.LongScalar.class),
+                ConfigurationStatistics.collect(root).getRetainedBytes());
+
+        root.setValue("text");
+        assertEquals(empty - ConfigurationStatistics.shallowSize(NullConfigValue.class)
+                        + ConfigurationStatistics.shallowSize(ScalarConfigValue.ObjectScalar.class) + ConfigurationStatistics.stringSize("text"),
+                ConfigurationStatistics.collect(root).getRetainedBytes());
+    }
+}
@@ -17,13 +17,17 @@
 package org.spongepowered.configurate;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.junit.jupiter.api.Test;
+import org.spongepowered.configurate.commented.SimpleCommentedConfigurationNode;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class CopyTest {
 
@@ -87,4 +91,84 @@ public class CopyTest {
         assertNotSame(originalVal.getParent(), copyVal.getParent());
     }
 
+    @Test
+    public void testCopyOnWrite() {
+        SimpleConfigurationNode node = SimpleConfigurationNode.root(ConfigurationOptions.defaults().withCopyOnWrite(true));
+        node.getNode("test").setValue(5);
+        node.getNode("section", "val1").setValue(true);
+        node.getNode("section", "val2").setValue("TEST");
+        node.getNode("section2", "alist").appendListNode().setValue("value1");
+
+        SimpleConfigurationNode copy = node.copy();
+        assertTrue(copy.value instanceof CopyOnWriteConfigValue);
+        assertEquals(ValueType.MAP, copy.getValueType());
+
+        // change value on original, before anything has been read from the copy
+        node.getNode("section", "val2").setValue("NOT TEST");
+        node.getNode("section2", "alist").appendListNode().setValue("value2");
+
+        assertEquals("TEST", copy.getNode("section", "val2").getValue());
+        assertEquals(ImmutableList.of("value1"), copy.getNode("section2", "alist").getValue());
+        assertEquals(5, copy.getNode("test").getValue());
+
+        // change value on copy
+        copy.getNode("section", "val1").setValue(false);
+        assertEquals(true, node.getNode("section", "val1").getValue());
+    }
+
+    @Test
+    public void testCopyOnWriteDetached() {
+        SimpleConfigurationNode node = SimpleConfigurationNode.root(ConfigurationOptions.defaults().withCopyOnWrite(true));
+        node.getNode("section", "inner", "val").setValue("original");
+        SimpleConfigurationNode inner = node.getNode("section", "inner");
+
+        SimpleConfigurationNode copy = node.copy();
+        node.removeChild("section");
+        // writing to the detached node replaces its old value, which the copy still needs
+        inner.getNode("val2").setValue("new");
+
+        assertEquals(ImmutableMap.of("val", "original"), copy.getNode("section", "inner").getValue());
+        assertEquals(ImmutableMap.of("val2", "new"), node.getNode("section", "inner").getValue());
+    }
+
+    @Test
+    public void testCopyOnWriteOnlyCopiesTouchedPath() {
+        SimpleConfigurationNode node = SimpleConfigurationNode.root(ConfigurationOptions.defaults().withCopyOnWrite(true));
+        node.getNode("a", "b", "c").setValue("abc");
+        node.getNode("x", "y", "z").setValue("xyz");
+
+        SimpleConfigurationNode copy = node.copy();
+        node.getNode("a", "b", "c").setValue("changed");
+
+        // the path to the changed node has been copied, but not its siblings
+        assertTrue(copy.getNode("x").value instanceof CopyOnWriteConfigValue);
+        assertEquals("abc", copy.getNode("a", "b", "c").getValue());
+        assertEquals("xyz", copy.getNode("x", "y", "z").getValue());
+        assertEquals(node.getNode("x"), copy.getNode("x"));
+    }
+
+    @Test
+    public void testCopyOnWritePaths() {
+        SimpleConfigurationNode node = SimpleConfigurationNode.root(ConfigurationOptions.defaults().withCopyOnWrite(true));
+        node.getNode("section", "val1").setValue(true);
+
+        SimpleConfigurationNode copy = node.getNode("section").copy();
+        SimpleConfigurationNode copyVal = copy.getNode("val1");
+
+        assertNull(copy.getParent());
+        assertSame(copy, copyVal.getParent());
+        assertEquals(1, copyVal.getPath().size());
+        assertFalse(copyVal.isVirtual());
+    }
+
+    @Test
+    public void testCopyOnWriteComments() {
+        SimpleCommentedConfigurationNode node = SimpleCommentedConfigurationNode.root(ConfigurationOptions.defaults().withCopyOnWrite(true));
+        node.getNode("section", "val").setValue("value").setComment("original");
+
+        SimpleCommentedConfigurationNode copy = node.copy();
+        node.getNode("section", "val").setComment("changed");
+
+        assertEquals("original", copy.getNode("section", "val").getComment().orElse(null));
+    }
 }
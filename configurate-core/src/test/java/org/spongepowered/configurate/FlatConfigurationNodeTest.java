@@ -0,0 +1,138 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlatConfigurationNodeTest {
+
+    private static SimpleConfigurationNode createTree() {
+        SimpleConfigurationNode node = SimpleConfigurationNode.root();
+        node.getNode("test").setValue(5);
+        node.getNode("big").setValue(1L << 40);
+        node.getNode("ratio").setValue(0.25);
+        node.getNode("name").setValue("flat");
+        node.getNode("section", "enabled").setValue(true);
+        node.getNode("section", "list").setValue(ImmutableList.of("a", "b", "a"));
+        node.getNode("section", "empty").setValue(ImmutableList.of());
+        node.getNode("section", "nested").appendListNode().getNode("key").setValue("value");
+        return node;
+    }
+
+    @Test
+    public void testCopyMatchesSource() {
+        SimpleConfigurationNode source = createTree();
+        for (boolean offHeap : new boolean[] {false, true}) {
+            FlatConfigurationNode flat = FlatConfigurationNode.copyOf(source, offHeap);
+            assertEquals(source.getValue(), flat.getValue());
+            assertEquals(5, flat.getNode("test").getInt());
+            assertEquals(1L << 40, flat.getNode("big").getLong());
+            assertEquals(0.25, flat.getNode("ratio").getDouble());
+            assertEquals("flat", flat.getNode("name").getString());
+            assertTrue(flat.getNode("section", "enabled").getBoolean());
+            assertEquals(ImmutableList.of("a", "b", "a"), flat.getNode("section", "list").getList(Object::toString));
+            assertEquals("value", flat.getNode("section", "nested", 0, "key").getValue());
+            assertTrue(flat.getNode("section", "empty").isList());
+            assertTrue(flat.getNode("section", "empty").isEmpty());
+            assertEquals(ImmutableSet.of("test", "big", "ratio", "name", "section"), flat.getChildrenMap().keySet());
+        }
+    }
+
+    @Test
+    public void testNavigation() {
+        FlatConfigurationNode flat = FlatConfigurationNode.copyOf(createTree());
+        FlatConfigurationNode element = flat.getNode("section", "list", 1);
+        assertEquals("b", element.getValue());
+        assertEquals(1, element.getKey());
+        assertEquals(ImmutableList.of("section", "list", 1), ImmutableList.copyOf(element.getPath().getArray()));
+        assertEquals(flat, element.getRoot());
+        assertEquals(flat.getNode("section", "list"), element.getParent());
+
+        List<Object> keys = new ArrayList<>();
+        flat.getNode("section").forEachChild(child -> keys.add(child.getKey()));
+        assertEquals(ImmutableList.of("enabled", "list", "empty", "nested"), keys);
+
+        assertEquals(3, flat.getNode("section", "list").getChildrenListView().size());
+        assertEquals("a", flat.getNode("section", "list").getChildrenList().get(2).getValue());
+        assertTrue(flat.getNode("section").getChildrenMapView().containsKey("nested"));
+        assertEquals(true, flat.getNode("section").getChildrenMapView().get("enabled").getValue());
+    }
+
+    @Test
+    public void testCopy() {
+        FlatConfigurationNode flat = FlatConfigurationNode.copyOf(createTree());
+        assertSame(flat, flat.copy());
+
+        FlatConfigurationNode copy = flat.getNode("section").copy();
+        assertNull(copy.getParent());
+        assertSame(copy, copy.getRoot());
+        assertEquals("section", copy.getKey());
+        assertEquals(flat.getNode("section").getValue(), copy.getValue());
+        assertSame(copy, copy.getNode("list").getParent());
+        assertEquals(ImmutableList.of("list", 1), ImmutableList.copyOf(copy.getNode("list", 1).getPath().getArray()));
+        assertFalse(copy.isVirtual());
+        assertTrue(flat.getNode("missing").copy().isVirtual());
+    }
+
+    @Test
+    public void testVirtualNodes() {
+        FlatConfigurationNode flat = FlatConfigurationNode.copyOf(createTree());
+        FlatConfigurationNode missing = flat.getNode("missing", "path");
+        assertTrue(missing.isVirtual());
+        assertNull(missing.getValue());
+        assertEquals(7, missing.getInt(7));
+        assertNull(flat.findNode("missing", "path"));
+        assertNull(flat.findNode("section", "list", 3));
+        assertFalse(flat.findNode("section", "list", 0).isVirtual());
+        assertTrue(flat.getNode("test", "child").isVirtual());
+    }
+
+    @Test
+    public void testReadOnly() {
+        FlatConfigurationNode flat = FlatConfigurationNode.copyOf(createTree());
+        assertThrows(UnsupportedOperationException.class, () -> flat.getNode("test").setValue(6));
+        assertThrows(UnsupportedOperationException.class, () -> flat.removeChild("test"));
+        assertThrows(UnsupportedOperationException.class, () -> flat.getNode("section", "list").appendListNode());
+        assertEquals(5, flat.getNode("test").getInt());
+    }
+
+    @Test
+    public void testLargeMap() {
+        SimpleConfigurationNode source = SimpleConfigurationNode.root();
+        for (int i = 0; i < 1000; ++i) {
+            source.getNode("group" + (i % 10), "key" + i).setValue(i);
+        }
+        FlatConfigurationNode flat = FlatConfigurationNode.copyOf(source, true);
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(i, flat.getNode("group" + (i % 10), "key" + i).getInt());
+        }
+        assertTrue(flat.getNode("group0", "key1").isVirtual());
+        assertEquals(100, flat.getNode("group3").getChildrenMap().size());
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImmutableConfigurationNodeTest {
+
+    @Test
+    public void testSnapshotIsolatedFromSource() {
+        SimpleConfigurationNode node = SimpleConfigurationNode.root();
+        node.getNode("test").setValue(5);
+        node.getNode("section", "val1").setValue(true);
+        node.getNode("section", "list").setValue(ImmutableList.of("a", "b"));
+
+        ImmutableConfigurationNode snapshot = node.snapshot();
+        assertEquals(node.getValue(), snapshot.getValue());
+        assertEquals(5, snapshot.getNode("test").getInt());
+        assertEquals(ImmutableList.of("a", "b"), snapshot.getNode("section", "list").getList(Object::toString));
+        assertTrue(snapshot.getNode("section", "list").isList());
+
+        node.getNode("test").setValue(6);
+        node.getNode("section").setValue(null);
+
+        assertEquals(5, snapshot.getNode("test").getValue());
+        assertEquals(true, snapshot.getNode("section", "val1").getValue());
+    }
+
+    @Test
+    public void testWithValueSharesStructure() {
+        SimpleConfigurationNode node = SimpleConfigurationNode.root();
+        node.getNode("a", "b").setValue("one");
+        node.getNode("c", "d").setValue("two");
+
+        ImmutableConfigurationNode original = node.snapshot();
+        ImmutableConfigurationNode updated = original.getNode("a", "b").withValue("three");
+
+        assertEquals("three", updated.getValue());
+        assertEquals(ImmutableList.of("a", "b"), ImmutableList.copyOf(updated.getPath().getArray()));
+        ImmutableConfigurationNode newRoot = updated.getRoot();
+        assertEquals("three", newRoot.getNode("a", "b").getValue());
+        assertEquals("one", original.getNode("a", "b").getValue());
+
+        // the untouched subtree is shared, rather than copied
+        assertSame(original.getNode("c").getChildrenMap().get("d").getValue(), newRoot.getNode("c", "d").getValue());
+        assertEquals(original.getNode("c"), newRoot.getNode("c"));
+    }
+
+    @Test
+    public void testVirtualNodes() {
+        ImmutableConfigurationNode root = ImmutableConfigurationNode.root();
+        ImmutableConfigurationNode child = root.getNode("missing", "path");
+        assertTrue(child.isVirtual());
+        assertNull(child.getValue());
+
+        ImmutableConfigurationNode created = child.withValue(ImmutableMap.of("key", "value"));
+        assertFalse(created.isVirtual());
+        assertEquals("value", created.getRoot().getNode("missing", "path", "key").getString());
+        assertTrue(root.getNode("missing").isVirtual());
+
+        ImmutableConfigurationNode removed = created.getRoot().getNode("missing", "path").withValue(null);
+        assertTrue(removed.isVirtual());
+        assertTrue(removed.getRoot().getNode("missing").getChildrenMap().isEmpty());
+    }
+
+    @Test
+    public void testFindNode() {
+        ImmutableConfigurationNode root = ImmutableConfigurationNode.root()
+                .withValue(ImmutableMap.of("section", ImmutableMap.of("key", "value")));
+
+        assertEquals("value", root.findNode("section", "key").getString());
+        assertNull(root.findNode("section", "missing"));
+        assertNull(root.findNode("section", "key", "deeper"));
+    }
+
+    @Test
+    public void testLists() {
+        ImmutableConfigurationNode root = ImmutableConfigurationNode.root();
+        for (int i = 0; i < 2000; ++i) {
+            root = root.appendListNode().withValue(i).getRoot();
+        }
+        assertEquals(2000, root.getChildrenList().size());
+        assertEquals(1234, root.getNode(1234).getInt());
+
+        ImmutableConfigurationNode removed = root.getNode(0).withValue(null).getRoot();
+        assertEquals(1999, removed.getChildrenList().size());
+        assertEquals(1, removed.getNode(0).getInt());
+        assertEquals(0, root.getNode(0).getInt());
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 1; i < 2000; ++i) {
+            expected.add(i);
+        }
+        assertEquals(expected, removed.getList(Types::asInt));
+    }
+
+    @Test
+    public void testScalarToList() {
+        ImmutableConfigurationNode root = ImmutableConfigurationNode.root().withValue("first");
+        root = root.appendListNode().withValue("second").getRoot();
+        assertEquals(ImmutableList.of("first", "second"), root.getValue());
+    }
+
+    @Test
+    public void testMapOperations() {
+        ImmutableConfigurationNode root = ImmutableConfigurationNode.root();
+        for (int i = 0; i < 500; ++i) {
+            root = root.getNode("key" + i).withValue(i).getRoot();
+        }
+        for (int i = 0; i < 500; i += 2) {
+            root = root.getNode("key" + i).withValue(null).getRoot();
+        }
+        assertEquals(250, root.getChildrenMap().size());
+        int expected = 1;
+        for (Object key : root.getChildrenMap().keySet()) {
+            assertEquals("key" + expected, key);
+            expected += 2;
+        }
+        assertTrue(root.getNode("key2").isVirtual());
+        assertEquals(3, root.getNode("key3").getInt());
+
+        // keys with colliding hash codes
+        root = root.getNode("Aa").withValue(1).getRoot().getNode("BB").withValue(2).getRoot();
+        assertEquals(1, root.getNode("Aa").getInt());
+        assertEquals(2, root.getNode("BB").getInt());
+        root = root.getNode("Aa").withValue(null).getRoot();
+        assertTrue(root.getNode("Aa").isVirtual());
+        assertEquals(2, root.getNode("BB").getInt());
+    }
+
+    @Test
+    public void testImmutable() {
+        ImmutableConfigurationNode root = ImmutableConfigurationNode.root().withValue(ImmutableMap.of("a", 1));
+        assertThrows(UnsupportedOperationException.class, () -> root.getNode("a").setValue(2));
+        assertThrows(UnsupportedOperationException.class, () -> root.removeChild("a"));
+        assertSame(root, root.copy());
+    }
+
+    @Test
+    public void testCopyChild() {
+        ImmutableConfigurationNode root = ImmutableConfigurationNode.root()
+                .withValue(ImmutableMap.of("section", ImmutableMap.of("a", 1)));
+        ImmutableConfigurationNode copy = root.getNode("section").copy();
+
+        assertNull(copy.getParent());
+        assertSame(copy, copy.getRoot());
+        assertEquals("section", copy.getKey());
+        assertEquals(ImmutableMap.of("a", 1), copy.getValue());
+        assertSame(copy, copy.getNode("a").getParent());
+        assertEquals(1, copy.getNode("a").getPath().size());
+        assertFalse(copy.isVirtual());
+
+        // changes to the copy stay within the copy
+        assertEquals(2, copy.getNode("a").withValue(2).getRoot().getNode("a").getInt());
+        assertEquals(1, root.getNode("section", "a").getInt());
+    }
+
+    @Test
+    public void testRejectsUnacceptedTypes() {
+        ImmutableConfigurationNode root = ImmutableConfigurationNode.root(ConfigurationOptions.defaults()
+                .withAcceptedTypes(ImmutableSet.of(String.class)));
+        assertThrows(IllegalArgumentException.class, () -> root.withValue(5));
+        assertEquals("x", root.withValue("x").getValue());
+    }
+}
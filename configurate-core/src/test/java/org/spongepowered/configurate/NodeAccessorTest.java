@@ -0,0 +1,96 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate;
+
+import org.junit.jupiter.api.Test;
+import org.spongepowered.configurate.transformation.NodePath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NodeAccessorTest {
+
+    @Test
+    public void testResolveIsCached() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        root.getNode("server", "limits", "maxConnections").setValue(20);
+        NodeAccessor accessor = NodePath.compile("server", "limits", "maxConnections");
+
+        SimpleConfigurationNode node = accessor.resolve(root);
+        assertEquals(20, node.getInt());
+        assertSame(node, accessor.resolve(root));
+
+        // scalar changes keep the cached node
+        node.setValue(30);
+        assertSame(node, accessor.resolve(root));
+        assertEquals(30, accessor.resolve(root).getInt());
+    }
+
+    @Test
+    public void testStructuralChangesInvalidate() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        root.getNode("server", "limits", "maxConnections").setValue(20);
+        NodeAccessor accessor = NodePath.compile("server", "limits", "maxConnections");
+        SimpleConfigurationNode first = accessor.resolve(root);
+
+        root.getNode("server").setValue(null);
+        assertTrue(accessor.resolve(root).isVirtual());
+
+        root.getNode("server", "limits", "maxConnections").setValue(40);
+        SimpleConfigurationNode second = accessor.resolve(root);
+        assertNotSame(first, second);
+        assertFalse(second.isVirtual());
+        assertEquals(40, second.getInt());
+
+        root.getNode("server", "limits").removeChild("maxConnections");
+        assertTrue(accessor.resolve(root).isVirtual());
+    }
+
+    @Test
+    public void testMissingPathReturnsSameVirtualNode() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        NodeAccessor accessor = NodePath.compile("a", "b");
+        SimpleConfigurationNode missing = accessor.resolve(root);
+        assertTrue(missing.isVirtual());
+        assertSame(missing, accessor.resolve(root));
+
+        missing.setValue("present");
+        assertEquals("present", root.getNode("a", "b").getValue());
+        assertSame(missing, accessor.resolve(root));
+        assertFalse(accessor.resolve(root).isVirtual());
+    }
+
+    @Test
+    public void testDifferentRoots() {
+        SimpleConfigurationNode one = SimpleConfigurationNode.root();
+        one.getNode("key").setValue(1);
+        SimpleConfigurationNode two = one.copy();
+        two.getNode("key").setValue(2);
+
+        NodeAccessor accessor = NodePath.compile("key");
+        assertEquals(1, accessor.resolve(one).getInt());
+        assertEquals(2, accessor.resolve(two).getInt());
+        assertEquals(1, accessor.resolve(one).getInt());
+
+        ImmutableConfigurationNode snapshot = one.snapshot();
+        assertSame(accessor.resolve(snapshot), accessor.resolve(snapshot));
+        assertEquals(1, accessor.resolve(snapshot).getInt());
+    }
+}
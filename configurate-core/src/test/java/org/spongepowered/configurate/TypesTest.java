@@ -100,6 +100,27 @@ public class TypesTest {
         assertEquals((Integer) 4, Types.asInt(integer));
     }
 
+    @Test
+    public void testInvalidNumberStrings() throws Exception {
+        for (String val : new String[] {"", "-", "text", "4a", "1.5.2", "e5", " "}) {
+            assertNull(Types.asInt(val));
+            assertNull(Types.asLong(val));
+            assertNull(Types.asFloat(val));
+            assertNull(Types.asDouble(val));
+        }
+        assertNull(Types.asInt("2147483648"));
+        assertEquals((Integer) Integer.MIN_VALUE, Types.asInt("-2147483648"));
+        assertNull(Types.asLong("9223372036854775808"));
+        assertEquals((Long) Long.MIN_VALUE, Types.asLong("-9223372036854775808"));
+        assertNull(Types.asInt("1.5"));
+        assertEquals((Double) 1500.0, Types.asDouble(" 1.5e3d "));
+        assertEquals((Double) Double.NEGATIVE_INFINITY, Types.asDouble("-Infinity"));
+        assertEquals((Float) 12f, Types.asFloat("0x1.8p3"));
+        assertNull(Types.asBoolean("maybe"));
+        assertEquals(false, Types.asBoolean(0));
+        assertEquals(true, Types.asBoolean(0L));
+    }
+
     @Test
     public void testStrictAsInt() throws Exception {
         final int actuallyInt = 4;
@@ -0,0 +1,151 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.transformation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.configurate.ImmutableConfigurationNode;
+import org.spongepowered.configurate.SimpleConfigurationNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigurationDiffTest {
+    private static NodePath p(Object... path) {
+        return NodePath.create(path);
+    }
+
+    private static SimpleConfigurationNode createTree() {
+        SimpleConfigurationNode root = SimpleConfigurationNode.root();
+        root.getNode("server", "host").setValue("localhost");
+        root.getNode("server", "port").setValue(25565);
+        root.getNode("server", "limits", "maxConnections").setValue(20);
+        root.getNode("users").setValue(ImmutableList.of("alice", "bob"));
+        root.getNode("unchanged", "deep", "value").setValue(true);
+        return root;
+    }
+
+    @Test
+    public void testIdenticalTrees() {
+        ConfigurationDiff diff = ConfigurationDiff.compute(createTree(), createTree());
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void testChanges() {
+        SimpleConfigurationNode oldRoot = createTree();
+        SimpleConfigurationNode newRoot = createTree();
+        newRoot.getNode("server", "port").setValue(25566);
+        newRoot.getNode("server", "limits").setValue(null);
+        newRoot.getNode("server", "motd").setValue("hello");
+        newRoot.getNode("users").appendListNode().setValue("carol");
+
+        ConfigurationDiff diff = ConfigurationDiff.compute(oldRoot, newRoot);
+        assertFalse(diff.isEmpty());
+        assertEquals(ImmutableSet.of(p("server", "motd")), diff.getAdded());
+        assertEquals(ImmutableSet.of(p("server", "limits")), diff.getRemoved());
+        assertEquals(ImmutableSet.of(p("server", "port"), p("users")), diff.getChanged());
+
+        diff.apply(oldRoot);
+        assertEquals(newRoot, oldRoot);
+        assertTrue(ConfigurationDiff.compute(oldRoot, newRoot).isEmpty());
+    }
+
+    @Test
+    public void testCollidingValues() {
+        SimpleConfigurationNode oldRoot = createTree();
+        SimpleConfigurationNode newRoot = createTree();
+        oldRoot.getNode("timeout").setValue(-1L);
+        newRoot.getNode("timeout").setValue(0L);
+        oldRoot.getNode("name").setValue("Aa");
+        newRoot.getNode("name").setValue("BB");
+        // fingerprints of these values are certain to collide
+        oldRoot.getNode("custom").setValue(new Colliding("old"));
+        newRoot.getNode("custom").setValue(new Colliding("new"));
+        assertEquals(oldRoot.getNode("custom").getFingerprint(), newRoot.getNode("custom").getFingerprint());
+
+        ConfigurationDiff diff = ConfigurationDiff.compute(oldRoot, newRoot);
+        assertEquals(ImmutableSet.of(p("timeout"), p("name"), p("custom")), diff.getChanged());
+        assertTrue(diff.getAdded().isEmpty());
+        assertTrue(diff.getRemoved().isEmpty());
+    }
+
+    private static final class Colliding {
+        private final String value;
+
+        Colliding(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).value.equals(this.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
+    @Test
+    public void testTypeChanges() {
+        SimpleConfigurationNode oldRoot = createTree();
+        SimpleConfigurationNode newRoot = createTree();
+        newRoot.getNode("server").setValue("disabled");
+
+        ConfigurationDiff diff = ConfigurationDiff.compute(oldRoot, newRoot);
+        assertEquals(ImmutableSet.of(p("server")), diff.getChanged());
+        assertTrue(diff.getAdded().isEmpty());
+        assertTrue(diff.getRemoved().isEmpty());
+
+        ConfigurationDiff fromEmpty = ConfigurationDiff.compute(SimpleConfigurationNode.root(), newRoot);
+        assertEquals(ImmutableSet.of(p()), fromEmpty.getAdded());
+        SimpleConfigurationNode target = SimpleConfigurationNode.root();
+        fromEmpty.apply(target);
+        assertEquals(newRoot, target);
+    }
+
+    @Test
+    public void testApplyToOtherTree() {
+        SimpleConfigurationNode oldRoot = createTree();
+        SimpleConfigurationNode newRoot = createTree();
+        newRoot.getNode("server", "host").setValue("example.com");
+
+        SimpleConfigurationNode other = SimpleConfigurationNode.root();
+        other.getNode("server", "host").setValue("other");
+        other.getNode("extra").setValue(5);
+        ConfigurationDiff.compute(oldRoot, newRoot).apply(other);
+        assertEquals("example.com", other.getNode("server", "host").getValue());
+        assertEquals(5, other.getNode("extra").getValue());
+    }
+
+    @Test
+    public void testSnapshotComparison() {
+        SimpleConfigurationNode live = createTree();
+        ImmutableConfigurationNode snapshot = live.snapshot();
+        assertTrue(ConfigurationDiff.compute(snapshot, live).isEmpty());
+
+        live.getNode("unchanged", "deep", "value").setValue(false);
+        ConfigurationDiff diff = ConfigurationDiff.compute(snapshot, live);
+        assertEquals(ImmutableSet.of(p("unchanged", "deep", "value")), diff.getChanged());
+        assertTrue(diff.getAdded().isEmpty());
+        assertTrue(diff.getRemoved().isEmpty());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactMapTest {
+
+    @Test
+    public void testBasicOperations() {
+        ConcurrentMap<String, Integer> map = MapFactories.compact().create();
+        assertTrue(map.isEmpty());
+        assertNull(map.put("a", 1));
+        assertNull(map.putIfAbsent("b", 2));
+        assertEquals(2, (int) map.putIfAbsent("b", 3));
+        assertEquals(1, (int) map.put("a", 4));
+        assertEquals(ImmutableMap.of("a", 4, "b", 2), map);
+
+        assertFalse(map.remove("a", 1));
+        assertTrue(map.replace("a", 4, 5));
+        assertNull(map.replace("c", 6));
+        assertEquals(5, (int) map.remove("a"));
+        assertEquals(ImmutableMap.of("b", 2), map);
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testOrderPreservedWhenPromoted() {
+        ConcurrentMap<String, Integer> map = MapFactories.compact(4).create();
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 20; ++i) {
+            map.put("key" + i, i);
+            expected.put("key" + i, i);
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+        }
+        assertEquals(expected, map);
+        assertEquals(7, (int) map.get("key7"));
+        map.remove("key3");
+        expected.remove("key3");
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        ConcurrentMap<String, Integer> map = MapFactories.compact().create();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+
+        List<String> seen = new ArrayList<>();
+        for (Iterator<String> it = map.keySet().iterator(); it.hasNext();) {
+            String key = it.next();
+            seen.add(key);
+            if (key.equals("b")) {
+                it.remove();
+            }
+        }
+        assertEquals(ImmutableList.of("a", "b", "c"), seen);
+        assertEquals(ImmutableMap.of("a", 1, "c", 3), map);
+    }
+
+    @Test
+    public void testClearRacingWithPut() throws InterruptedException {
+        ConcurrentMap<String, Integer> map = MapFactories.compact().create();
+        Thread[] writers = new Thread[3];
+        for (int t = 0; t < writers.length; ++t) {
+            final String key = "writer" + t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 200000; ++i) {
+                    map.put(key, i);
+                    map.remove(key);
+                }
+            });
+            writers[t].start();
+        }
+
+        // entries present before a clear must never survive it, whatever else is written concurrently
+        for (int i = 0; i < 200000; ++i) {
+            map.put("a", i);
+            map.clear();
+            assertFalse(map.containsKey("a"));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+    }
+
+    @Test
+    public void testConfined() {
+        Map<String, Integer> map = MapFactories.compact(4).createConfined();
+        assertFalse(map instanceof ConcurrentMap<?, ?>);
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 4; ++i) {
+            map.put("key" + i, i);
+            expected.put("key" + i, i);
+        }
+        assertEquals(expected, map);
+        assertEquals(1, (int) map.remove("key1"));
+        expected.remove("key1");
+        assertEquals(ImmutableList.copyOf(expected.keySet()), new ArrayList<>(map.keySet()));
+
+        for (Iterator<String> it = map.keySet().iterator(); it.hasNext();) {
+            if (it.next().equals("key2")) {
+                it.remove();
+            }
+        }
+        expected.remove("key2");
+        assertEquals(expected, map);
+
+        // order is kept once the map grows past the threshold
+        for (int i = 4; i < 20; ++i) {
+            map.put("key" + i, i);
+            expected.put("key" + i, i);
+        }
+        assertEquals(ImmutableList.copyOf(expected.keySet()), new ArrayList<>(map.keySet()));
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentLinkedMapTest {
+
+    @Test
+    public void testBasicOperations() {
+        ConcurrentMap<String, Integer> map = MapFactories.insertionOrdered().create();
+        assertTrue(map.isEmpty());
+        assertNull(map.put("a", 1));
+        assertNull(map.putIfAbsent("b", 2));
+        assertEquals(2, (int) map.putIfAbsent("b", 3));
+        assertEquals(1, (int) map.put("a", 4));
+        assertEquals(ImmutableMap.of("a", 4, "b", 2), map);
+
+        assertFalse(map.remove("a", 1));
+        assertTrue(map.replace("a", 4, 5));
+        assertNull(map.replace("c", 6));
+        assertEquals(5, (int) map.remove("a"));
+        assertEquals(ImmutableMap.of("b", 2), map);
+        assertEquals(1, map.size());
+        assertEquals(8, (int) map.merge("b", 6, Integer::sum));
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        ConcurrentMap<String, Integer> map = MapFactories.insertionOrdered().create();
+        map.put("c", 1);
+        map.put("a", 2);
+        map.put("b", 3);
+        map.put("a", 4);
+        assertEquals(ImmutableList.of("c", "a", "b"), new ArrayList<>(map.keySet()));
+        assertEquals(ImmutableList.of(1, 4, 3), new ArrayList<>(map.values()));
+
+        // removing and reinserting a key moves it to the end
+        map.remove("c");
+        map.put("c", 5);
+        assertEquals(ImmutableList.of("a", "b", "c"), new ArrayList<>(map.keySet()));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        map.put("d", 6);
+        assertEquals(ImmutableList.of("d"), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testIterationDuringModification() {
+        ConcurrentMap<String, Integer> map = MapFactories.insertionOrdered().create();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+
+        List<String> seen = new ArrayList<>();
+        for (String key : map.keySet()) {
+            seen.add(key);
+            if (key.equals("a")) {
+                // removed entries ahead of the iterator are skipped, and new ones are seen
+                map.remove("b");
+                map.remove("a");
+                map.put("d", 4);
+            }
+        }
+        assertEquals(ImmutableList.of("a", "c", "d"), seen);
+        assertEquals(ImmutableMap.of("c", 3, "d", 4), map);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        ConcurrentMap<String, Integer> map = MapFactories.insertionOrdered().create();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+
+        for (Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Integer> entry = it.next();
+            if (entry.getKey().equals("b")) {
+                it.remove();
+                assertThrows(IllegalStateException.class, () -> entry.setValue(5));
+            } else {
+                entry.setValue(entry.getValue() * 10);
+            }
+        }
+        assertEquals(ImmutableMap.of("a", 10, "c", 30), map);
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        ConcurrentMap<Integer, Integer> map = MapFactories.insertionOrdered().create();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = offset; i < 1000; i += threads.length) {
+                    map.put(i, i);
+                    if (i % 3 == 0) {
+                        map.remove(i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int count = 0;
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            assertTrue(entry.getKey() % 3 != 0);
+            assertEquals(entry.getKey(), entry.getValue());
+            ++count;
+        }
+        assertEquals(map.size(), count);
+        assertEquals(666, count);
+    }
+}
@@ -17,8 +17,6 @@
 package org.spongepowered.configurate.gson;
 
 import com.google.common.base.Strings;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.gson.JsonParseException;
 import com.google.gson.stream.JsonReader;
@@ -26,11 +24,14 @@ import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNodeBuilder;
 import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.ConfigurationVisitor;
 import org.spongepowered.configurate.SimpleConfigurationNode;
 import org.spongepowered.configurate.loader.AbstractConfigurationLoader;
 import org.spongepowered.configurate.loader.CommentHandler;
 import org.spongepowered.configurate.loader.CommentHandlers;
+import org.spongepowered.configurate.util.StringPool;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -124,6 +125,11 @@ public class GsonConfigurationLoader extends AbstractConfigurationLoader<SimpleC
 
     @Override
     protected void loadInternal(SimpleConfigurationNode node, BufferedReader reader) throws IOException {
+        visitInternal(ConfigurationNodeBuilder.into(node).asVisitor(), reader, node.getOptions());
+    }
+
+    @Override
+    protected void visitInternal(ConfigurationVisitor visitor, BufferedReader reader, ConfigurationOptions options) throws IOException {
         reader.mark(1);
         if (reader.read() == -1) {
             return;
@@ -131,86 +137,80 @@ public class GsonConfigurationLoader extends AbstractConfigurationLoader<SimpleC
         reader.reset();
         try (JsonReader parser = new JsonReader(reader)) {
             parser.setLenient(lenient);
-            parseValue(parser, node);
+            parseValue(parser, visitor, options.getStringPool());
         }
     }
 
-    private void parseValue(JsonReader parser, SimpleConfigurationNode node) throws IOException {
+    private void parseValue(JsonReader parser, ConfigurationVisitor visitor, StringPool pool) throws IOException {
         JsonToken token = parser.peek();
         switch (token) {
             case BEGIN_OBJECT:
-                parseObject(parser, node);
+                parseObject(parser, visitor, pool);
                 break;
             case BEGIN_ARRAY:
-                parseArray(parser, node);
+                parseArray(parser, visitor, pool);
                 break;
             case NUMBER:
                 double nextDouble = parser.nextDouble();
                 int nextInt = (int) nextDouble;
                 long nextLong = (long) nextDouble;
                 if (nextInt == nextDouble) {
-                    node.setValue(nextInt); // They don't do much for us here in Gsonland
+                    visitor.scalar(nextInt); // They don't do much for us here in Gsonland
                 } else if (nextLong == nextDouble) {
-                    node.setValue(nextLong);
+                    visitor.scalar(nextLong);
                 } else {
-                    node.setValue(nextDouble);
+                    visitor.scalar(nextDouble);
                 }
                 break;
             case STRING:
-                node.setValue(parser.nextString());
+                visitor.scalar(pool.intern(parser.nextString()));
                 break;
             case BOOLEAN:
-                node.setValue(parser.nextBoolean());
+                visitor.scalar(parser.nextBoolean());
                 break;
             case NULL: // Ignored values
-            case NAME:
+                parser.nextNull();
+                visitor.scalar(null);
                 break;
             default:
                 throw new IOException("Unsupported token type: " + token);
         }
     }
 
-    private void parseArray(JsonReader parser, SimpleConfigurationNode node) throws IOException {
+    private void parseArray(JsonReader parser, ConfigurationVisitor visitor, StringPool pool) throws IOException {
         parser.beginArray();
+        visitor.beginList();
 
-        boolean written = false;
         JsonToken token;
         while ((token = parser.peek()) != null) {
             switch (token) {
                 case END_ARRAY:
                     parser.endArray();
-                    // ensure the type is preserved
-                    if (!written) {
-                        node.setValue(ImmutableList.of());
-                    }
+                    visitor.end();
                     return;
                 default:
-                    parseValue(parser, node.appendListNode());
-                    written = true;
+                    parseValue(parser, visitor, pool);
             }
         }
         throw new JsonParseException("Reached end of stream with unclosed array at!");
 
     }
 
-    private void parseObject(JsonReader parser, SimpleConfigurationNode node) throws IOException {
+    private void parseObject(JsonReader parser, ConfigurationVisitor visitor, StringPool pool) throws IOException {
         parser.beginObject();
+        visitor.beginMap();
 
-        boolean written = false;
         JsonToken token;
         while ((token = parser.peek()) != null) {
             switch (token) {
                 case END_OBJECT:
                 case END_DOCUMENT:
                     parser.endObject();
-                    // ensure the type is preserved
-                    if (!written) {
-                        node.setValue(ImmutableMap.of());
-                    }
+                    visitor.end();
                     return;
                 case NAME:
-                    parseValue(parser, node.getNode(parser.nextName()));
-                    written = true;
+                    visitor.key(pool.intern(parser.nextName()));
+                    parseValue(parser, visitor, pool);
                     break;
                 default:
                     throw new JsonParseException("Received improper object value " + token);
@@ -272,10 +272,10 @@ public class GsonConfigurationLoader extends AbstractConfigurationLoader<SimpleC
             throw new IOException("Node passed to generateObject does not have map children!");
         }
         generator.beginObject();
-        for (Map.Entry<Object, ? extends ConfigurationNode<?>> ent : node.getChildrenMap().entrySet()) {
-            generator.name(ent.getKey().toString());
-            generateValue(generator, ent.getValue());
-        }
+        node.forEachChild(child -> {
+            generator.name(child.getKey().toString());
+            generateValue(generator, child);
+        });
         generator.endObject();
     }
 
@@ -283,11 +283,8 @@ public class GsonConfigurationLoader extends AbstractConfigurationLoader<SimpleC
         if (!node.isList()) {
             throw new IOException("Node passed to generateArray does not have list children!");
         }
-        List<? extends ConfigurationNode<?>> children = node.getChildrenList();
         generator.beginArray();
-        for (ConfigurationNode<?> child : children) {
-            generateValue(generator, child);
-        }
+        node.forEachChild(child -> generateValue(generator, child));
         generator.endArray();
     }
 }
@@ -23,21 +23,31 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junitpioneer.jupiter.TempDirectory;
 import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNodeBuilder;
+import org.spongepowered.configurate.ConfigurationVisitor;
 import org.spongepowered.configurate.SimpleConfigurationNode;
 import org.spongepowered.configurate.loader.AtomicFiles;
 import org.spongepowered.configurate.loader.ConfigurationLoader;
 import org.spongepowered.configurate.util.MapFactories;
+import org.spongepowered.configurate.util.StringPool;
+import org.spongepowered.configurate.util.StringPools;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -63,6 +73,67 @@ public class GsonConfigurationLoaderTest {
         assertEquals(Resources.readLines(url, StandardCharsets.UTF_8), Files.readAllLines(tempFile, StandardCharsets.UTF_8));
     }
 
+    @Test
+    public void testLargeArrayLoading() throws IOException {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 100_000; ++i) {
+            if (i > 0) {
+                json.append(",\n");
+            }
+            json.append("{\"id\":").append(i).append(",\"name\":\"element\"}");
+        }
+        json.append(']');
+
+        ConfigurationLoader<SimpleConfigurationNode> loader = GsonConfigurationLoader.builder()
+                .setSource(() -> new BufferedReader(new StringReader(json.toString())))
+                .build();
+        ConfigurationNode<?> node = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> loader.load());
+        assertEquals(100_000, node.getChildrenList().size());
+        assertEquals(99_999, node.getNode(99_999, "id").getInt());
+        assertEquals("element", node.getNode(12_345, "name").getString());
+    }
+
+    @Test
+    public void testVisiting() throws IOException {
+        URL url = getClass().getResource("/example.json");
+        ConfigurationLoader<SimpleConfigurationNode> loader = GsonConfigurationLoader.builder()
+                .setSource(() -> new BufferedReader(new InputStreamReader(url.openStream()))).build();
+        SimpleConfigurationNode visited = loader.createEmptyNode();
+        loader.visit(ConfigurationNodeBuilder.into(visited).asVisitor());
+        assertEquals(loader.load(), visited);
+
+        // scalars can be consumed without building any nodes
+        List<Object> scalars = new ArrayList<>();
+        loader.visit(new ConfigurationVisitor() {
+            @Override
+            public void beginMap() {
+            }
+
+            @Override
+            public void key(Object key) {
+            }
+
+            @Override
+            public void beginList() {
+            }
+
+            @Override
+            public void scalar(Object value) {
+                scalars.add(value);
+            }
+
+            @Override
+            public void comment(String comment) {
+            }
+
+            @Override
+            public void end() {
+            }
+        });
+        assertTrue(scalars.contains("unicorn"));
+        assertTrue(scalars.contains("dog park"));
+    }
+
     @Test
     public void testSavingEmptyFile(@TempDirectory.TempDir Path tempDir) throws IOException {
         final File tempFile = tempDir.resolve("text2.txt").toFile();
@@ -101,6 +172,23 @@ public class GsonConfigurationLoaderTest {
         assertTrue(node.isMap());
     }
 
+    @Test
+    public void testStringPooling() throws IOException {
+        URL url = getClass().getResource("/example.json");
+        ConfigurationLoader<SimpleConfigurationNode> loader = GsonConfigurationLoader.builder()
+                .setSource(() -> new BufferedReader(new InputStreamReader(url.openStream()))).build();
+        StringPool pool = StringPools.deduplicating();
+        ConfigurationNode<?> node = loader.load(loader.getDefaultOptions().withStringPool(pool));
+
+        // "op-level" is used as a key in two sections
+        Object testKey = node.getNode("test").getChildrenMap().keySet().iterator().next();
+        Object otherKey = node.getNode("other").getChildrenMap().keySet().stream().filter("op-level"::equals).findFirst().get();
+        assertSame(testKey, otherKey);
+        assertEquals(1, pool.getHits());
+        assertEquals(9, pool.getMisses());
+        assertEquals(0.1, pool.getHitRate());
+    }
+
     private static final long TEST_LONG_VAL = 584895858588588888l;
 
     @Test
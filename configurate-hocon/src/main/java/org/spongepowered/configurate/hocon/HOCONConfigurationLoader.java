@@ -17,8 +17,6 @@
 package org.spongepowered.configurate.hocon;
 
 import com.google.common.base.Joiner;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
@@ -32,12 +30,15 @@ import com.typesafe.config.ConfigValue;
 import com.typesafe.config.ConfigValueFactory;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNodeBuilder;
 import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.ConfigurationVisitor;
 import org.spongepowered.configurate.commented.CommentedConfigurationNode;
 import org.spongepowered.configurate.commented.SimpleCommentedConfigurationNode;
 import org.spongepowered.configurate.loader.AbstractConfigurationLoader;
 import org.spongepowered.configurate.loader.CommentHandler;
 import org.spongepowered.configurate.loader.CommentHandlers;
+import org.spongepowered.configurate.util.StringPool;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -172,42 +173,57 @@ public class HOCONConfigurationLoader extends AbstractConfigurationLoader<Simple
 
     @Override
     public void loadInternal(SimpleCommentedConfigurationNode node, BufferedReader reader) throws IOException {
+        visitInternal(ConfigurationNodeBuilder.into(node).asVisitor(), reader, node.getOptions());
+    }
+
+    @Override
+    protected void visitInternal(ConfigurationVisitor visitor, BufferedReader reader, ConfigurationOptions options) throws IOException {
+        // the whole document must be parsed and resolved before it can be read, but events are
+        // reported from the parsed form without building any nodes
         Config hoconConfig = ConfigFactory.parseReader(reader, parse);
         hoconConfig = hoconConfig.resolve();
-        for (Map.Entry<String, ConfigValue> ent : hoconConfig.root().entrySet()) {
-            readConfigValue(ent.getValue(), node.getNode(ent.getKey()));
+        final ConfigObject root = hoconConfig.root();
+        if (root.isEmpty()) {
+            return;
+        }
+
+        final StringPool pool = options.getStringPool();
+        visitor.beginMap();
+        for (Map.Entry<String, ConfigValue> ent : root.entrySet()) {
+            visitor.key(pool.intern(ent.getKey()));
+            readConfigValue(ent.getValue(), visitor, pool);
         }
+        visitor.end();
     }
 
-    private static void readConfigValue(ConfigValue value, SimpleCommentedConfigurationNode node) {
+    private static void readConfigValue(ConfigValue value, ConfigurationVisitor visitor, StringPool pool) {
         if (!value.origin().comments().isEmpty()) {
-            node.setComment(CRLF_MATCH.matcher(Joiner.on('\n').join(value.origin().comments())).replaceAll(""));
+            visitor.comment(CRLF_MATCH.matcher(Joiner.on('\n').join(value.origin().comments())).replaceAll(""));
         }
         switch (value.valueType()) {
             case OBJECT:
-                ConfigObject object = (ConfigObject) value;
-                if (object.isEmpty()) {
-                    node.setValue(ImmutableMap.of());
-                } else {
-                    for (Map.Entry<String, ConfigValue> ent : object.entrySet()) {
-                        readConfigValue(ent.getValue(), node.getNode(ent.getKey()));
-                    }
+                visitor.beginMap();
+                for (Map.Entry<String, ConfigValue> ent : ((ConfigObject) value).entrySet()) {
+                    visitor.key(pool.intern(ent.getKey()));
+                    readConfigValue(ent.getValue(), visitor, pool);
                 }
+                visitor.end();
                 break;
             case LIST:
-                ConfigList list = (ConfigList) value;
-                if (list.isEmpty()) {
-                    node.setValue(ImmutableList.of());
-                } else {
-                    for (int i = 0; i < list.size(); ++i) {
-                        readConfigValue(list.get(i), node.getNode(i));
-                    }
+                visitor.beginList();
+                for (ConfigValue element : (ConfigList) value) {
+                    readConfigValue(element, visitor, pool);
                 }
+                visitor.end();
                 break;
             case NULL:
-                return;
+                visitor.scalar(null);
+                break;
+            case STRING:
+                visitor.scalar(pool.intern((String) value.unwrapped()));
+                break;
             default:
-                node.setValue(value.unwrapped());
+                visitor.scalar(value.unwrapped());
         }
     }
 
@@ -230,15 +246,11 @@ public class HOCONConfigurationLoader extends AbstractConfigurationLoader<Simple
         ConfigValue ret;
         if (node.isMap()) {
             Map<String, ConfigValue> children = node.getOptions().getMapFactory().create();
-            for (Map.Entry<Object, ? extends ConfigurationNode<?>> ent : node.getChildrenMap().entrySet()) {
-                children.put(String.valueOf(ent.getKey()), fromValue(ent.getValue()));
-            }
+            node.forEachChild(child -> children.put(String.valueOf(child.getKey()), fromValue(child)));
             ret = newConfigObject(children);
         } else if (node.isList()) {
-            List<ConfigValue> children = new ArrayList<>();
-            for (ConfigurationNode<?> ent : node.getChildrenList()) {
-                children.add(fromValue(ent));
-            }
+            List<ConfigValue> children = new ArrayList<>(node.getChildrenListView().size());
+            node.forEachChild(child -> children.add(fromValue(child)));
             ret = newConfigList(children);
 
         } else {
@@ -23,20 +23,23 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.json.JsonReadFeature;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNodeBuilder;
 import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.ConfigurationVisitor;
 import org.spongepowered.configurate.SimpleConfigurationNode;
 import org.spongepowered.configurate.loader.AbstractConfigurationLoader;
 import org.spongepowered.configurate.loader.CommentHandler;
 import org.spongepowered.configurate.loader.CommentHandlers;
+import org.spongepowered.configurate.util.StringPool;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -62,6 +65,7 @@ public class JacksonConfigurationLoader extends AbstractConfigurationLoader<Simp
         private final JsonFactoryBuilder factory = new JsonFactoryBuilder();
         private int indent = 2;
         private FieldValueSeparatorStyle fieldValueSeparatorStyle = FieldValueSeparatorStyle.SPACE_AFTER;
+        private boolean lazy = false;
 
         protected Builder() {
             factory.enable(JsonReadFeature.ALLOW_JAVA_COMMENTS);
@@ -126,6 +130,45 @@ public class JacksonConfigurationLoader extends AbstractConfigurationLoader<Simp
             return fieldValueSeparatorStyle;
         }
 
+        /**
+         * Sets whether the resultant loader should materialize objects and arrays lazily.
+         *
+         * <p>In lazy mode, the loader keeps the text of the whole document in memory and only
+         * records where each object or array starts and ends. The child nodes of an object or
+         * array are created the first time they are accessed, one level at a time. This makes
+         * loading large documents cheaper when only a small part of them is ever read.</p>
+         *
+         * <p>The text of the document is held for as long as any lazily loaded node is
+         * reachable, and takes around twice the size of the file in memory, however much of it
+         * is accessed. Lazy loading saves the cost of nodes that are never read, not the cost
+         * of the document itself.</p>
+         *
+         * <p>Syntax errors within an object or array are still detected while loading, but
+         * a lazily loaded node may throw an {@link java.io.UncheckedIOException} when it is
+         * first accessed if its contents cannot be read.</p>
+         *
+         * <p>This has no effect when
+         * {@link JacksonConfigurationLoader#visit(ConfigurationVisitor) visiting}, which always
+         * streams the document.</p>
+         *
+         * @param lazy If objects and arrays should be loaded lazily
+         * @return This builder (for chaining)
+         */
+        @NonNull
+        public Builder setLazy(boolean lazy) {
+            this.lazy = lazy;
+            return this;
+        }
+
+        /**
+         * Gets whether the resultant loader will materialize objects and arrays lazily.
+         *
+         * @return If objects and arrays will be loaded lazily
+         */
+        public boolean isLazy() {
+            return this.lazy;
+        }
+
         @NonNull
         @Override
         public JacksonConfigurationLoader build() {
@@ -136,6 +179,7 @@ public class JacksonConfigurationLoader extends AbstractConfigurationLoader<Simp
     private final JsonFactory factory;
     private final int indent;
     private final FieldValueSeparatorStyle fieldValueSeparatorStyle;
+    private final boolean lazy;
 
     private JacksonConfigurationLoader(Builder builder) {
         super(builder, new CommentHandler[]{CommentHandlers.DOUBLE_SLASH, CommentHandlers.SLASH_BLOCK, CommentHandlers.HASH});
@@ -143,89 +187,129 @@ public class JacksonConfigurationLoader extends AbstractConfigurationLoader<Simp
         this.factory.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
         this.indent = builder.getIndent();
         this.fieldValueSeparatorStyle = builder.getFieldValueSeparatorStyle();
+        this.lazy = builder.isLazy();
     }
 
     @Override
     protected void loadInternal(SimpleConfigurationNode node, BufferedReader reader) throws IOException {
+        if (this.lazy) {
+            final char[] document = readFully(reader);
+            try (JsonParser parser = factory.createParser(document, 0, document.length)) {
+                parser.nextToken();
+                final Object value = LazyJsonValue.readValue(factory, document, parser, 0, node.getOptions().getStringPool());
+                if (value != null) {
+                    node.setValue(value);
+                }
+            }
+            return;
+        }
+
+        visitInternal(ConfigurationNodeBuilder.into(node).asVisitor(), reader, node.getOptions());
+    }
+
+    @Override
+    protected void visitInternal(ConfigurationVisitor visitor, BufferedReader reader, ConfigurationOptions options) throws IOException {
         try (JsonParser parser = factory.createParser(reader)) {
-            parser.nextToken();
-            parseValue(parser, node);
+            if (parser.nextToken() != null) {
+                parseValue(parser, visitor, options.getStringPool());
+            }
         }
     }
 
-    private static void parseValue(JsonParser parser, SimpleConfigurationNode node) throws IOException {
+    private static char[] readFully(Reader reader) throws IOException {
+        char[] buffer = new char[8192];
+        int length = 0;
+        int read;
+        while ((read = reader.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        // the document is retained for as long as any of it is unread, so don't keep spare capacity
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static void parseValue(JsonParser parser, ConfigurationVisitor visitor, StringPool pool) throws IOException {
         JsonToken token = parser.getCurrentToken();
         switch (token) {
             case START_OBJECT:
-                parseObject(parser, node);
+                parseObject(parser, visitor, pool);
                 break;
             case START_ARRAY:
-                parseArray(parser, node);
+                parseArray(parser, visitor, pool);
                 break;
+            case VALUE_NULL: // Ignored values
+                visitor.scalar(null);
+                break;
+            default:
+                visitor.scalar(readScalar(parser, pool));
+        }
+    }
+
+    /**
+     * Read the scalar value at the parser's current token.
+     *
+     * @param parser The parser
+     * @param pool The pool to intern strings with
+     * @return The value
+     * @throws IOException If the current token is not a scalar
+     */
+    static Object readScalar(JsonParser parser, StringPool pool) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        switch (token) {
             case VALUE_NUMBER_FLOAT:
                 double doubleVal = parser.getDoubleValue();
                 if ((float)doubleVal != doubleVal) {
-                    node.setValue(parser.getDoubleValue());
+                    return doubleVal;
                 } else {
-                    node.setValue(parser.getFloatValue());
+                    return parser.getFloatValue();
                 }
-                break;
             case VALUE_NUMBER_INT:
                 long longVal = parser.getLongValue();
                 if ((int)longVal != longVal) {
-                    node.setValue(parser.getLongValue());
+                    return longVal;
                 } else {
-                    node.setValue(parser.getIntValue());
+                    return parser.getIntValue();
                 }
-                break;
             case VALUE_STRING:
-                node.setValue(parser.getText());
-                break;
+                return pool.intern(parser.getText());
             case VALUE_TRUE:
             case VALUE_FALSE:
-                node.setValue(parser.getBooleanValue());
-                break;
-            case VALUE_NULL: // Ignored values
-            case FIELD_NAME:
-                break;
+                return parser.getBooleanValue();
             default:
                 throw new IOException("Unsupported token type: " + token + " (at " + parser.getTokenLocation() + ")");
         }
     }
 
-    private static void parseArray(JsonParser parser, SimpleConfigurationNode node) throws IOException {
-        boolean written = false;
+    private static void parseArray(JsonParser parser, ConfigurationVisitor visitor, StringPool pool) throws IOException {
+        visitor.beginList();
         JsonToken token;
         while ((token = parser.nextToken()) != null) {
             switch (token) {
                 case END_ARRAY:
-                    // ensure the type is preserved
-                    if (!written) {
-                        node.setValue(ImmutableList.of());
-                    }
+                    visitor.end();
                     return;
                 default:
-                    parseValue(parser, node.appendListNode());
-                    written = true;
+                    parseValue(parser, visitor, pool);
             }
         }
         throw new JsonParseException(parser, "Reached end of stream with unclosed array!", parser.getCurrentLocation());
     }
 
-    private static void parseObject(JsonParser parser, SimpleConfigurationNode node) throws IOException {
-        boolean written = false;
+    private static void parseObject(JsonParser parser, ConfigurationVisitor visitor, StringPool pool) throws IOException {
+        visitor.beginMap();
         JsonToken token;
         while ((token = parser.nextToken()) != null) {
             switch (token) {
                 case END_OBJECT:
-                    // ensure the type is preserved
-                    if (!written) {
-                        node.setValue(ImmutableMap.of());
-                    }
+                    visitor.end();
                     return;
                 default:
-                    parseValue(parser, node.getNode(parser.getCurrentName()));
-                    written = true;
+                    // the parser is positioned at the field name, so advance to its value
+                    visitor.key(pool.intern(parser.getCurrentName()));
+                    parser.nextToken();
+                    parseValue(parser, visitor, pool);
             }
         }
         throw new JsonParseException(parser, "Reached end of stream with unclosed array!", parser.getCurrentLocation());
@@ -304,11 +388,11 @@ public class JacksonConfigurationLoader extends AbstractConfigurationLoader<Simp
             throw new IOException("Node passed to generateObject does not have map children!");
         }
         generator.writeStartObject();
-        for (Map.Entry<Object, ? extends ConfigurationNode<?>> ent : node.getChildrenMap().entrySet()) {
-            //generateComment(generator, ent.getValue(), false);
-            generator.writeFieldName(ent.getKey().toString());
-            generateValue(generator, ent.getValue());
-        }
+        node.forEachChild(child -> {
+            //generateComment(generator, child, false);
+            generator.writeFieldName(child.getKey().toString());
+            generateValue(generator, child);
+        });
         generator.writeEndObject();
     }
 
@@ -316,12 +400,11 @@ public class JacksonConfigurationLoader extends AbstractConfigurationLoader<Simp
         if (!node.isList()) {
             throw new IOException("Node passed to generateArray does not have list children!");
         }
-        List<? extends ConfigurationNode<?>> children = node.getChildrenList();
-        generator.writeStartArray(children.size());
-        for (ConfigurationNode<?> child : children) {
+        generator.writeStartArray(node.getChildrenListView().size());
+        node.forEachChild(child -> {
             //generateComment(generator, child, true);
             generateValue(generator, child);
-        }
+        });
         generator.writeEndArray();
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.jackson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.LazyValue;
+import org.spongepowered.configurate.ValueType;
+import org.spongepowered.configurate.util.StringPool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON object or array which is only parsed once its contents are accessed.
+ *
+ * <p>Each value holds the character range of its object or array within the document. When
+ * materialized, it parses its direct children, returning scalars as-is and nested objects and
+ * arrays as further lazy values.</p>
+ */
+final class LazyJsonValue implements LazyValue {
+    private final JsonFactory factory;
+    private final char[] document;
+    private final int start;
+    private final int end;
+    private final ValueType type;
+    private final StringPool pool;
+
+    private LazyJsonValue(JsonFactory factory, char[] document, int start, int end, ValueType type, StringPool pool) {
+        this.factory = factory;
+        this.document = document;
+        this.start = start;
+        this.end = end;
+        this.type = type;
+        this.pool = pool;
+    }
+
+    /**
+     * Read the value at the parser's current token, skipping over the contents of any object
+     * or array.
+     *
+     * @param factory The factory to create parsers for nested values with
+     * @param document The document being parsed
+     * @param parser A parser over {@code document}
+     * @param base The position in {@code document} that the parser's offsets are relative to
+     * @param pool The pool to intern strings with
+     * @return A scalar value, a lazy value, or null for a JSON null
+     * @throws IOException If the value could not be read
+     */
+    @Nullable
+    static Object readValue(JsonFactory factory, char[] document, JsonParser parser, int base, StringPool pool) throws IOException {
+        final JsonToken token = parser.getCurrentToken();
+        final ValueType type;
+        if (token == JsonToken.START_OBJECT) {
+            type = ValueType.MAP;
+        } else if (token == JsonToken.START_ARRAY) {
+            type = ValueType.LIST;
+        } else if (token == JsonToken.VALUE_NULL) {
+            return null;
+        } else {
+            return JacksonConfigurationLoader.readScalar(parser, pool);
+        }
+
+        final int start = base + (int) parser.getTokenLocation().getCharOffset();
+        parser.skipChildren();
+        if (parser.getCurrentToken() == null) {
+            throw new JsonParseException(parser, "Reached end of stream with unclosed " + (type == ValueType.MAP ? "object!" : "array!"),
+                    parser.getCurrentLocation());
+        }
+        final int end = base + (int) parser.getCurrentLocation().getCharOffset();
+        return new LazyJsonValue(factory, document, start, end, type, pool);
+    }
+
+    @NonNull
+    @Override
+    public ValueType getType() {
+        return this.type;
+    }
+
+    @NonNull
+    @Override
+    public Object materialize() {
+        try (JsonParser parser = this.factory.createParser(this.document, this.start, this.end - this.start)) {
+            parser.nextToken();
+            // depending on the version of Jackson, offsets are reported relative to either the
+            // whole array or the parsed range. The first token is at the start of the range either way
+            final int base = this.start - (int) parser.getTokenLocation().getCharOffset();
+            if (this.type == ValueType.MAP) {
+                final Map<Object, Object> ret = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String key = this.pool.intern(parser.getCurrentName());
+                    parser.nextToken();
+                    final Object value = readValue(this.factory, this.document, parser, base, this.pool);
+                    if (value != null) {
+                        ret.put(key, value);
+                    }
+                }
+                return ret;
+            } else {
+                final List<Object> ret = new ArrayList<>();
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    final Object value = readValue(this.factory, this.document, parser, base, this.pool);
+                    if (value != null) {
+                        ret.add(value);
+                    }
+                }
+                return ret;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.spongepowered.configurate.jackson;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.Resources;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,12 +30,14 @@ import org.spongepowered.configurate.util.MapFactories;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Basic sanity checks for the loader
@@ -64,6 +67,53 @@ public class JacksonConfigurationLoaderTest {
 
     }
 
+    @Test
+    public void testLazyLoading(@TempDirectory.TempDir Path tempDir) throws IOException {
+        final Path tempFile = tempDir.resolve("lazy.json");
+        Files.write(tempFile, ImmutableList.of(
+                "{",
+                "  \"name\": \"lazy\",",
+                "  \"nested\": {\"list\": [1, 2.5, {\"deep\": true}, [], null, \"x\"], \"empty\": {}},",
+                "  \"big\": " + TEST_LONG_VAL + ",",
+                "  \"missing\": null",
+                "}"), StandardCharsets.UTF_8);
+
+        ConfigurationNode<?> eager = JacksonConfigurationLoader.builder().setPath(tempFile).build().load();
+        ConfigurationLoader<? extends ConfigurationNode<?>> loader = JacksonConfigurationLoader.builder()
+                .setPath(tempFile)
+                .setLazy(true)
+                .build();
+        ConfigurationNode<?> lazy = loader.load();
+
+        assertTrue(lazy.getNode("nested").isMap());
+        assertEquals(true, lazy.getNode("nested", "list", 2, "deep").getValue());
+        assertTrue(lazy.getNode("nested", "empty").isMap());
+        assertTrue(lazy.getNode("missing").isVirtual());
+        assertEquals(eager.getValue(), lazy.getValue());
+        assertEquals(eager, lazy);
+
+        lazy.getNode("nested", "list", 0).setValue(5);
+        loader.save(lazy);
+        assertEquals(5, loader.load().getNode("nested", "list", 0).getValue());
+    }
+
+    @Test
+    public void testLazyLoadingDeeplyNested() throws IOException {
+        // every level is preceded by other content, so each lazy range starts part way into its parent
+        final String json = "{\"pad\": [1, 2, 3], \"a\": {\"b\": {\"c\": [10, {\"d\": \"deep\"}]}, \"x\": 5}, \"z\": [[1], [2, [3]]]}";
+        ConfigurationNode<?> lazy = JacksonConfigurationLoader.builder()
+                .setSource(() -> new BufferedReader(new StringReader(json)))
+                .setLazy(true)
+                .build().load();
+
+        assertEquals("deep", lazy.getNode("a", "b", "c", 1, "d").getString());
+        assertEquals(3, lazy.getNode("z", 1, 1, 0).getInt());
+        assertEquals(5, lazy.getNode("a", "x").getInt());
+        assertEquals(JacksonConfigurationLoader.builder()
+                .setSource(() -> new BufferedReader(new StringReader(json)))
+                .build().load().getValue(), lazy.getValue());
+    }
+
     private static final long TEST_LONG_VAL = 584895858588588888l;
     private static final double TEST_DOUBLE_VAL = 595859682984428959583045732020572045273498409257349587.85485884287387d;
 
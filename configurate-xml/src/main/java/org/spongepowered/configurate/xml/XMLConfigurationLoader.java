@@ -16,19 +16,22 @@
  */
 package org.spongepowered.configurate.xml;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
 import com.google.common.math.DoubleMath;
 import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNodeBuilder;
 import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.ConfigurationVisitor;
 import org.spongepowered.configurate.attributed.AttributedConfigurationNode;
+import org.spongepowered.configurate.attributed.AttributedConfigurationVisitor;
 import org.spongepowered.configurate.attributed.SimpleAttributedConfigurationNode;
 import org.spongepowered.configurate.loader.AbstractConfigurationLoader;
 import org.spongepowered.configurate.loader.CommentHandler;
 import org.spongepowered.configurate.loader.CommentHandlers;
+import org.spongepowered.configurate.util.StringPool;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.w3c.dom.Document;
@@ -259,6 +262,13 @@ public class XMLConfigurationLoader extends AbstractConfigurationLoader<SimpleAt
 
     @Override
     public void loadInternal(SimpleAttributedConfigurationNode node, BufferedReader reader) throws IOException {
+        visitInternal(ConfigurationNodeBuilder.into(node).asVisitor(), reader, node.getOptions());
+    }
+
+    @Override
+    protected void visitInternal(ConfigurationVisitor visitor, BufferedReader reader, ConfigurationOptions options) throws IOException {
+        // the type of an element can depend on all of its children, so the document is read
+        // into memory, but events are reported from it without building any nodes
         DocumentBuilder documentBuilder = newDocumentBuilder();
 
         Document document;
@@ -269,18 +279,22 @@ public class XMLConfigurationLoader extends AbstractConfigurationLoader<SimpleAt
         }
 
         Element root = document.getDocumentElement();
-        readElement(root, node);
+        readElement(root, visitor, options.getStringPool());
     }
 
     private enum NodeType {
         MAP, LIST
     }
 
-    private void readElement(Node from, SimpleAttributedConfigurationNode to) {
+    private void readElement(Node from, ConfigurationVisitor visitor, StringPool stringPool) {
+        final AttributedConfigurationVisitor attributed = visitor instanceof AttributedConfigurationVisitor
+                ? (AttributedConfigurationVisitor) visitor : null;
         NodeType type = null;
 
         // copy the name of the tag
-        to.setTagName(from.getNodeName());
+        if (attributed != null) {
+            attributed.tagName(stringPool.intern(from.getNodeName()));
+        }
 
         // copy attributes
         if (from.hasAttributes()) {
@@ -302,7 +316,9 @@ public class XMLConfigurationLoader extends AbstractConfigurationLoader<SimpleAt
                     continue;
                 }
 
-                to.addAttribute(key, value);
+                if (attributed != null) {
+                    attributed.attribute(stringPool.intern(key), stringPool.intern(value));
+                }
             }
         }
 
@@ -320,7 +336,7 @@ public class XMLConfigurationLoader extends AbstractConfigurationLoader<SimpleAt
 
         // if there are no child nodes present, assume it's a scalar value
         if (children.isEmpty()) {
-            to.setValue(parseValue(from.getTextContent()));
+            visitor.scalar(parseValue(from.getTextContent(), stringPool));
             return;
         }
 
@@ -336,22 +352,21 @@ public class XMLConfigurationLoader extends AbstractConfigurationLoader<SimpleAt
         }
 
         if (type == NodeType.MAP) {
-            to.setValue(ImmutableMap.of());
+            visitor.beginMap();
         } else {
-            to.setValue(ImmutableList.of());
+            visitor.beginList();
         }
 
         // read out the elements
         for (Map.Entry<String, Node> entry : children.entries()) {
-            SimpleAttributedConfigurationNode child;
             if (type == NodeType.MAP) {
-                child = to.getNode(entry.getKey());
-            } else {
-                child = to.appendListNode();
+                visitor.key(stringPool.intern(entry.getKey()));
             }
 
-            readElement(entry.getValue(), child);
+            readElement(entry.getValue(), visitor, stringPool);
         }
+
+        visitor.end();
     }
 
     @Override
@@ -394,16 +409,12 @@ public class XMLConfigurationLoader extends AbstractConfigurationLoader<SimpleAt
         }
 
         if (node.isMap()) {
-            for (Map.Entry<Object, ? extends ConfigurationNode<?>> child : node.getChildrenMap().entrySet()) {
-                element.appendChild(writeNode(document, child.getValue(), child.getKey().toString()));
-            }
+            node.forEachChild(child -> element.appendChild(writeNode(document, child, child.getKey().toString())));
         } else if (node.isList()) {
             if (writeExplicitType) {
                 element.setAttribute("configurate-type", "list");
             }
-            for (ConfigurationNode<?> child : node.getChildrenList()) {
-                element.appendChild(writeNode(document, child, null));
-            }
+            node.forEachChild(child -> element.appendChild(writeNode(document, child, null)));
         } else {
             element.appendChild(document.createTextNode(node.getValue().toString()));
         }
@@ -419,7 +430,7 @@ public class XMLConfigurationLoader extends AbstractConfigurationLoader<SimpleAt
         return SimpleAttributedConfigurationNode.root("root", options);
     }
 
-    private static Object parseValue(String value) {
+    private static Object parseValue(String value, StringPool stringPool) {
         if (value.equals("true") || value.equals("false")) {
             return Boolean.parseBoolean(value);
         }
@@ -437,7 +448,7 @@ public class XMLConfigurationLoader extends AbstractConfigurationLoader<SimpleAt
             }
             return doubleValue;
         } catch (NumberFormatException e) {
-            return value;
+            return stringPool.intern(value);
         }
     }
 }
@@ -18,6 +18,7 @@ package org.spongepowered.configurate.yaml;
 
 import org.spongepowered.configurate.ConfigurationNode;
 import org.spongepowered.configurate.ConfigurationOptions;
+import org.spongepowered.configurate.ConfigurationVisitor;
 import org.spongepowered.configurate.AbstractConfigurationNode;
 import org.spongepowered.configurate.SimpleConfigurationNode;
 import org.spongepowered.configurate.loader.AbstractConfigurationLoader;
@@ -134,6 +135,11 @@ public class YAMLConfigurationLoader extends AbstractConfigurationLoader<SimpleC
         node.setValue(yaml.get().load(reader));
     }
 
+    @Override
+    protected void visitInternal(ConfigurationVisitor visitor, BufferedReader reader, ConfigurationOptions options) throws IOException {
+        new YAMLEventReader(yaml.get().parse(reader)).read(visitor);
+    }
+
     @Override
     protected void saveInternal(ConfigurationNode<?> node, Writer writer) {
         yaml.get().dump(node.getValue(), writer);
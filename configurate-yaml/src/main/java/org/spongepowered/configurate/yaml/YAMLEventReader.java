@@ -0,0 +1,323 @@
+/*
+ * Configurate
+ * Copyright (C) zml and Configurate contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spongepowered.configurate.yaml;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.configurate.ConfigurationVisitor;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reports the events produced by SnakeYAML's parser to a {@link ConfigurationVisitor}, without
+ * composing a tree of YAML nodes.
+ *
+ * <p>Scalars are resolved and constructed the same way {@link org.yaml.snakeyaml.Yaml#load}
+ * would. Anchored values are recorded as they are read, so aliases can be replayed, and merge
+ * keys are expanded into the entries of the mapping containing them.</p>
+ */
+final class YAMLEventReader {
+    private static final ConfigurationVisitor DISCARD = new Discard();
+
+    private final Iterator<Event> events;
+    private final Resolver resolver = new Resolver();
+    private final ScalarConstructor constructor = new ScalarConstructor();
+
+    /**
+     * Recorded events of anchored values, which can be replayed by aliases
+     */
+    private final Map<String, List<Event>> anchors = new HashMap<>();
+
+    /**
+     * Recordings of the anchored collections currently being read, innermost first
+     */
+    private final Deque<Recording> recordings = new ArrayDeque<>();
+
+    /**
+     * Aliases currently being replayed, innermost first
+     */
+    private final Deque<Iterator<Event>> replays = new ArrayDeque<>();
+
+    /**
+     * Whether the last event returned by {@link #next()} was replayed from an alias
+     */
+    private boolean replayed;
+
+    YAMLEventReader(Iterable<Event> events) {
+        this.events = events.iterator();
+    }
+
+    /**
+     * Read a stream containing at most one document.
+     *
+     * @param visitor The visitor to report the document to
+     * @throws IOException if the stream contains a structure that cannot be represented
+     */
+    void read(ConfigurationVisitor visitor) throws IOException {
+        expect(next(), StreamStartEvent.class);
+        Event event = next();
+        if (event instanceof StreamEndEvent) {
+            return;
+        }
+        expect(event, DocumentStartEvent.class);
+        readValue(next(), visitor);
+        expect(next(), DocumentEndEvent.class);
+
+        event = next();
+        if (!(event instanceof StreamEndEvent)) {
+            throw new IOException("Expected a single document in the stream, but found another" + event.getStartMark());
+        }
+    }
+
+    private Event next() throws IOException {
+        while (!this.replays.isEmpty()) {
+            final Iterator<Event> replay = this.replays.peek();
+            if (replay.hasNext()) {
+                return record(replay.next(), true);
+            }
+            this.replays.pop();
+        }
+        if (!this.events.hasNext()) {
+            throw new IOException("Unexpected end of YAML event stream");
+        }
+        return record(this.events.next(), false);
+    }
+
+    private Event record(Event event, boolean replayed) {
+        this.replayed = replayed;
+        // aliases are recorded as the events they expand to
+        if (!(event instanceof AliasEvent)) {
+            for (Recording recording : this.recordings) {
+                recording.events.add(event);
+            }
+        }
+        return event;
+    }
+
+    private static void expect(Event event, Class<? extends Event> type) throws IOException {
+        if (!type.isInstance(event)) {
+            throw new IOException("Expected " + type.getSimpleName() + " but got " + event);
+        }
+    }
+
+    /**
+     * Resolve any alias, and start recording if the value is anchored.
+     *
+     * <p>Every call must be paired with a call to {@link #close(Event)} once the value has been
+     * fully read.</p>
+     *
+     * @param event The first event of the value
+     * @return The first event of the value, once any alias is expanded
+     * @throws IOException if an alias refers to an unknown anchor
+     */
+    private Event open(Event event) throws IOException {
+        if (event instanceof AliasEvent) {
+            final String anchor = ((AliasEvent) event).getAnchor();
+            final List<Event> recorded = this.anchors.get(anchor);
+            if (recorded == null) {
+                throw new IOException("Found undefined alias " + anchor + event.getStartMark());
+            }
+            this.replays.push(recorded.iterator());
+            event = next();
+        }
+
+        // anchors inside a replayed value were registered when the value was first read
+        final String anchor = ((NodeEvent) event).getAnchor();
+        if (anchor != null && !this.replayed) {
+            if (event instanceof ScalarEvent) {
+                this.anchors.put(anchor, Collections.singletonList(event));
+            } else {
+                final Recording recording = new Recording(anchor, event);
+                recording.events.add(event);
+                this.recordings.push(recording);
+            }
+        }
+        return event;
+    }
+
+    private void close(Event start) {
+        final Recording recording = this.recordings.peek();
+        if (recording != null && recording.start == start) {
+            this.recordings.pop();
+            this.anchors.put(recording.anchor, recording.events);
+        }
+    }
+
+    private void readValue(Event event, ConfigurationVisitor visitor) throws IOException {
+        event = open(event);
+        if (event instanceof ScalarEvent) {
+            visitor.scalar(this.constructor.constructValue(toNode((ScalarEvent) event)));
+        } else if (event instanceof SequenceStartEvent) {
+            visitor.beginList();
+            for (Event element = next(); !(element instanceof SequenceEndEvent); element = next()) {
+                readValue(element, visitor);
+            }
+            visitor.end();
+        } else if (event instanceof MappingStartEvent) {
+            visitor.beginMap();
+            readEntries(new HashSet<>(), false, visitor);
+            visitor.end();
+        } else {
+            throw new IOException("Unexpected event " + event);
+        }
+        close(event);
+    }
+
+    /**
+     * Read the entries of a mapping, up to and including its end event.
+     *
+     * @param seen The keys already visited in the mapping being built
+     * @param merged Whether these entries are merged in, so can not override existing keys
+     * @param visitor The visitor
+     * @throws IOException if a key is not a scalar, or a merge is not of mappings
+     */
+    private void readEntries(Set<Object> seen, boolean merged, ConfigurationVisitor visitor) throws IOException {
+        for (Event event = next(); !(event instanceof MappingEndEvent); event = next()) {
+            final Event keyEvent = open(event);
+            if (!(keyEvent instanceof ScalarEvent)) {
+                throw new IOException("Only scalar keys are supported" + keyEvent.getStartMark());
+            }
+            close(keyEvent);
+
+            final ScalarNode keyNode = toNode((ScalarEvent) keyEvent);
+            if (keyNode.getTag().equals(Tag.MERGE)) {
+                readMerge(next(), seen, visitor);
+                continue;
+            }
+
+            final Object key = this.constructor.constructValue(keyNode);
+            if (key == null) {
+                throw new IOException("Keys must not be null" + keyEvent.getStartMark());
+            }
+
+            // explicit keys always take precedence over merged ones
+            if (seen.add(key) || !merged) {
+                visitor.key(key);
+                readValue(next(), visitor);
+            } else {
+                readValue(next(), DISCARD);
+            }
+        }
+    }
+
+    private void readMerge(Event event, Set<Object> seen, ConfigurationVisitor visitor) throws IOException {
+        event = open(event);
+        if (event instanceof MappingStartEvent) {
+            readEntries(seen, true, visitor);
+        } else if (event instanceof SequenceStartEvent) {
+            // earlier mappings take precedence over later ones
+            for (Event element = next(); !(element instanceof SequenceEndEvent); element = next()) {
+                element = open(element);
+                if (!(element instanceof MappingStartEvent)) {
+                    throw new IOException("Expected a mapping to merge" + element.getStartMark());
+                }
+                readEntries(seen, true, visitor);
+                close(element);
+            }
+        } else {
+            throw new IOException("Expected a mapping or list of mappings to merge" + event.getStartMark());
+        }
+        close(event);
+    }
+
+    private ScalarNode toNode(ScalarEvent event) {
+        final String tag = event.getTag();
+        if (tag == null || tag.equals("!")) {
+            return new ScalarNode(this.resolver.resolve(NodeId.scalar, event.getValue(), event.getImplicit().canOmitTagInPlainScalar()),
+                    true, event.getValue(), event.getStartMark(), event.getEndMark(), event.getScalarStyle());
+        } else {
+            return new ScalarNode(new Tag(tag), false, event.getValue(), event.getStartMark(), event.getEndMark(), event.getScalarStyle());
+        }
+    }
+
+    private static final class Recording {
+        final String anchor;
+        final Event start;
+        final List<Event> events = new ArrayList<>();
+
+        Recording(String anchor, Event start) {
+            this.anchor = anchor;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Exposes the construction of single scalars.
+     *
+     * <p>The construct is looked up directly, rather than going through
+     * {@link #constructObject}, which would remember every node constructed.</p>
+     */
+    private static final class ScalarConstructor extends Constructor {
+        @Nullable
+        Object constructValue(ScalarNode node) {
+            return getConstructor(node).construct(node);
+        }
+    }
+
+    private static final class Discard implements ConfigurationVisitor {
+        @Override
+        public void beginMap() {
+        }
+
+        @Override
+        public void key(@NonNull Object key) {
+        }
+
+        @Override
+        public void beginList() {
+        }
+
+        @Override
+        public void scalar(@Nullable Object value) {
+        }
+
+        @Override
+        public void comment(@NonNull String comment) {
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+}
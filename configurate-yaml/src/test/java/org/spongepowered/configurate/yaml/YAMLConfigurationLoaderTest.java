@@ -17,10 +17,14 @@
 package org.spongepowered.configurate.yaml;
 
 import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.ConfigurationNodeBuilder;
+import org.spongepowered.configurate.SimpleConfigurationNode;
 import org.spongepowered.configurate.loader.ConfigurationLoader;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -51,4 +55,22 @@ public class YAMLConfigurationLoaderTest {
         List<Map<String, List<?>>> fooList = new ArrayList<>(node.getNode("foo").getList(f));
         assertEquals(0, fooList.get(0).get("bar").size());
     }
+
+    @Test
+    public void testVisitingMatchesLoading() throws IOException {
+        String yaml = "base: &base {x: 1, y: [a, b]}\n"
+                + "derived:\n"
+                + "  z: 3\n"
+                + "  <<: *base\n"
+                + "  x: 5\n"
+                + "copies: [*base, *base]\n";
+        ConfigurationLoader<SimpleConfigurationNode> loader = YAMLConfigurationLoader.builder()
+                .setSource(() -> new BufferedReader(new StringReader(yaml))).build();
+        SimpleConfigurationNode visited = loader.createEmptyNode();
+        loader.visit(ConfigurationNodeBuilder.into(visited).asVisitor());
+
+        assertEquals(loader.load(), visited);
+        assertEquals(5, visited.getNode("derived", "x").getInt());
+        assertEquals("b", visited.getNode("copies", 1, "y", 1).getString());
+    }
 }